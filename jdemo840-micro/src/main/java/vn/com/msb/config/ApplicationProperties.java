@@ -1,5 +1,8 @@
 package vn.com.msb.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +16,18 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Cache cache = new Cache();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Cache getCache() {
+        return cache;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +42,83 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Cache {
+
+        private final Redis redis = new Redis();
+
+        private final Map<String, Settings> caches = new HashMap<>();
+
+        public Redis getRedis() {
+            return redis;
+        }
+
+        /**
+         * @return the settings of each cache, by cache name.
+         */
+        public Map<String, Settings> getCaches() {
+            return caches;
+        }
+
+        public static class Settings {
+
+            /**
+             * Defaults to {@code jhipster.cache.redis.expiration} with the Redis tier,
+             * {@code jhipster.cache.caffeine.time-to-live-seconds} otherwise.
+             */
+            private Duration timeToLive;
+
+            /**
+             * The maximum number of entries of the local tier, defaults to {@code jhipster.cache.caffeine.max-entries}.
+             */
+            private Long maxEntries;
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+
+        /**
+         * The optional Redis tier, configured by {@code jhipster.cache.redis}.
+         */
+        public static class Redis {
+
+            private boolean enabled = false;
+
+            /**
+             * How long a node keeps its local copy of a Redis entry, which bounds how long it can miss an update made by
+             * another node.
+             */
+            private Duration localTimeToLive = Duration.ofMinutes(1);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getLocalTimeToLive() {
+                return localTimeToLive;
+            }
+
+            public void setLocalTimeToLive(Duration localTimeToLive) {
+                this.localTimeToLive = localTimeToLive;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -1,27 +1,44 @@
 package vn.com.msb.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.net.URI;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
+import javax.cache.Caching;
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.expiry.CreatedExpiryPolicy;
-import javax.cache.expiry.Duration;
 import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
 import org.redisson.config.ClusterServersConfig;
 import org.redisson.config.Config;
 import org.redisson.config.SingleServerConfig;
+import org.redisson.jcache.JCachingProvider;
 import org.redisson.jcache.configuration.RedissonConfiguration;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.interceptor.KeyGenerator;
-import org.springframework.context.annotation.*;
+import org.springframework.cache.jcache.JCacheCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
+import vn.com.msb.config.cache.TwoLevelCache;
+import vn.com.msb.config.cache.TwoLevelCacheMeterBinderProvider;
 
+/**
+ * Caches declared under {@code application.cache.caches}, held by Caffeine on each node.
+ * <p>
+ * With {@code application.cache.redis.enabled}, their entries are also stored in Redis and the local copies expire
+ * after {@code application.cache.redis.local-time-to-live}.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
@@ -29,10 +46,18 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
 
-    @Bean
-    public javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(JHipsterProperties jHipsterProperties) {
-        MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties applicationProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+    }
 
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "application.cache.redis.enabled", havingValue = "true")
+    public RedissonClient redissonClient() {
         URI redisUri = URI.create(jHipsterProperties.getCache().getRedis().getServer()[0]);
 
         Config config = new Config();
@@ -61,31 +86,90 @@ public class CacheConfiguration {
                 singleServerConfig.setPassword(redisUri.getUserInfo().substring(redisUri.getUserInfo().indexOf(':') + 1));
             }
         }
-        jcacheConfig.setStatisticsEnabled(true);
-        jcacheConfig.setExpiryPolicyFactory(
-            CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, jHipsterProperties.getCache().getRedis().getExpiration()))
-        );
-        return RedissonConfiguration.fromInstance(Redisson.create(config), jcacheConfig);
+        return Redisson.create(config);
     }
 
     @Bean
-    public JCacheManagerCustomizer cacheManagerCustomizer(javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration) {
-        return cm -> {
-            // jhipster-needle-redis-add-entry
-        };
+    @ConditionalOnProperty(name = "application.cache.redis.enabled", havingValue = "true")
+    public javax.cache.CacheManager jcacheManager(RedissonClient redissonClient) {
+        javax.cache.CacheManager cm = Caching.getCachingProvider(JCachingProvider.class.getName()).getCacheManager();
+        applicationProperties.getCache().getCaches().forEach((name, settings) -> createCache(cm, name, redissonClient, settings));
+        return cm;
     }
 
     private void createCache(
         javax.cache.CacheManager cm,
         String cacheName,
-        javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration
+        RedissonClient redissonClient,
+        ApplicationProperties.Cache.Settings settings
     ) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
+            jcacheConfig.setStatisticsEnabled(true);
+            jcacheConfig.setExpiryPolicyFactory(
+                CreatedExpiryPolicy.factoryOf(new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, remoteTimeToLive(settings).toMillis()))
+            );
+            cm.createCache(cacheName, RedissonConfiguration.fromInstance(redissonClient, jcacheConfig));
+        }
+    }
+
+    @Bean
+    public CacheManager cacheManager(ObjectProvider<javax.cache.CacheManager> jcacheManager) {
+        javax.cache.CacheManager remoteCacheManager = jcacheManager.getIfAvailable();
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(
+            applicationProperties
+                .getCache()
+                .getCaches()
+                .entrySet()
+                .stream()
+                .map(entry -> createCache(entry.getKey(), entry.getValue(), remoteCacheManager))
+                .toList()
+        );
+        return cacheManager;
+    }
+
+    private Cache createCache(String name, ApplicationProperties.Cache.Settings settings, javax.cache.CacheManager remoteCacheManager) {
+        if (remoteCacheManager == null) {
+            return new CaffeineCache(name, createLocalCache(settings, localTimeToLive(settings)));
         }
+        Duration localTimeToLive = applicationProperties.getCache().getRedis().getLocalTimeToLive();
+        Duration remoteTimeToLive = remoteTimeToLive(settings);
+        return new TwoLevelCache(
+            name,
+            createLocalCache(settings, localTimeToLive.compareTo(remoteTimeToLive) < 0 ? localTimeToLive : remoteTimeToLive),
+            new JCacheCache(remoteCacheManager.getCache(name))
+        );
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> createLocalCache(
+        ApplicationProperties.Cache.Settings settings,
+        Duration timeToLive
+    ) {
+        long maxEntries = settings.getMaxEntries() != null
+            ? settings.getMaxEntries()
+            : jHipsterProperties.getCache().getCaffeine().getMaxEntries();
+        return Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(timeToLive).recordStats().build();
+    }
+
+    private Duration localTimeToLive(ApplicationProperties.Cache.Settings settings) {
+        return settings.getTimeToLive() != null
+            ? settings.getTimeToLive()
+            : Duration.ofSeconds(jHipsterProperties.getCache().getCaffeine().getTimeToLiveSeconds());
+    }
+
+    private Duration remoteTimeToLive(ApplicationProperties.Cache.Settings settings) {
+        return settings.getTimeToLive() != null
+            ? settings.getTimeToLive()
+            : Duration.ofSeconds(jHipsterProperties.getCache().getRedis().getExpiration());
+    }
+
+    @Bean
+    public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+        return new TwoLevelCacheMeterBinderProvider();
     }
 
     @Autowired(required = false)
@@ -0,0 +1,123 @@
+package vn.com.msb.config.cache;
+
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+/**
+ * A {@link Cache} keeping a bounded, in-process copy (L1) of the entries of a remote cache (L2).
+ * <p>
+ * Reads are served from the local tier first and only go to the remote tier on a local miss. Writes are applied to
+ * both tiers, but the other nodes are not notified: they keep their local copy until it expires, so the time to live
+ * of the local tier bounds how stale a read can be. Misses going through {@link #get(Object, Callable)} are loaded
+ * once per key and node.
+ * <p>
+ * Values held by the local tier are shared between callers, they must not be modified.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+
+    private final Cache remoteCache;
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache, Cache remoteCache) {
+        super(true);
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    /**
+     * @return the local tier, which holds the store values.
+     */
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getLocalCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object storeValue = localCache.getIfPresent(key);
+        if (storeValue != null) {
+            return storeValue;
+        }
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue == null) {
+            return null;
+        }
+        storeValue = toStoreValue(remoteValue.get());
+        localCache.put(key, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) fromStoreValue(localCache.get(key, k -> load(k, valueLoader)));
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue != null) {
+            return toStoreValue(remoteValue.get());
+        }
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        remoteCache.put(key, value);
+        return toStoreValue(value);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        localCache.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existingValue = remoteCache.putIfAbsent(key, value);
+        localCache.put(key, toStoreValue(existingValue == null ? value : existingValue.get()));
+        return existingValue;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean remotePresent = remoteCache.evictIfPresent(key);
+        return localCache.asMap().remove(key) != null || remotePresent;
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean remoteNotEmpty = remoteCache.invalidate();
+        boolean localNotEmpty = !localCache.asMap().isEmpty();
+        localCache.invalidateAll();
+        return localNotEmpty || remoteNotEmpty;
+    }
+}
@@ -0,0 +1,18 @@
+package vn.com.msb.config.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Exposes the statistics of the local tier of the {@link TwoLevelCache}s as the {@code cache.*} meters of Caffeine,
+ * as Spring Boot does for the {@link org.springframework.cache.caffeine.CaffeineCache}s.
+ */
+public class TwoLevelCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoLevelCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+        return new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName(), tags);
+    }
+}
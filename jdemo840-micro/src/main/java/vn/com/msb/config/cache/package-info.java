@@ -0,0 +1,4 @@
+/**
+ * Cache infrastructure: the local tier kept in front of the optional Redis caches.
+ */
+package vn.com.msb.config.cache;
@@ -0,0 +1,83 @@
+package vn.com.msb.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Shared, immutable {@link GrantedAuthority} instances, and the authorities of each roles claim value.
+ * <p>
+ * A request authenticated by a token used to filter the roles claim and allocate an authority per role, once to
+ * authenticate it and again on each authority check. The values of the claim are few, one per combination of roles,
+ * so their authorities are now built once and then looked up. Beyond {@code maxEntries} roles or claim values, the new
+ * ones are built on each call instead of cached.
+ */
+public final class GrantedAuthorityRegistry {
+
+    private final int maxEntries;
+
+    private final Predicate<String> filter;
+
+    private final ConcurrentMap<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Collection<String>, List<GrantedAuthority>> authoritiesByClaim = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxEntries the number of roles, and of claim values, beyond which the new ones are not cached.
+     * @param filter the roles that are authorities.
+     */
+    public GrantedAuthorityRegistry(int maxEntries, Predicate<String> filter) {
+        this.maxEntries = maxEntries;
+        this.filter = filter;
+    }
+
+    /**
+     * @param role the name of an authority.
+     * @return the shared authority of this name.
+     */
+    public GrantedAuthority authority(String role) {
+        GrantedAuthority authority = authorities.get(role);
+        if (authority != null) {
+            return authority;
+        }
+        if (authorities.size() >= maxEntries) {
+            return new SimpleGrantedAuthority(role);
+        }
+        return authorities.computeIfAbsent(role, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * @param roles the value of a roles claim.
+     * @return the shared, immutable authorities of the roles accepted by the filter.
+     */
+    public List<GrantedAuthority> fromClaim(Collection<String> roles) {
+        List<GrantedAuthority> cached = authoritiesByClaim.get(roles);
+        if (cached != null) {
+            return cached;
+        }
+        Set<String> uniqueRoles = new LinkedHashSet<>();
+        List<GrantedAuthority> built = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            if (role != null && filter.test(role) && uniqueRoles.add(role)) {
+                built.add(authority(role));
+            }
+        }
+        built = List.copyOf(built);
+        if (authoritiesByClaim.size() < maxEntries) {
+            // The claim may be mutable, a copy is the key
+            authoritiesByClaim.putIfAbsent(new ArrayList<>(roles), built);
+        }
+        return built;
+    }
+
+    int size() {
+        return authoritiesByClaim.size();
+    }
+}
@@ -1,11 +1,9 @@
 package vn.com.msb.security;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,6 +17,8 @@ public final class SecurityUtils {
 
     public static final String CLAIMS_NAMESPACE = "https://www.jhipster.tech/";
 
+    private static final GrantedAuthorityRegistry AUTHORITY_REGISTRY = new GrantedAuthorityRegistry(1024, role -> role.startsWith("ROLE_"));
+
     private SecurityUtils() {}
 
     /**
@@ -99,6 +99,12 @@ public final class SecurityUtils {
         return authorities.stream().map(GrantedAuthority::getAuthority);
     }
 
+    /**
+     * Extract the authorities from the roles claim of a token.
+     *
+     * @param claims the claims of the token.
+     * @return the authorities, an immutable list shared by the tokens with the same roles.
+     */
     public static List<GrantedAuthority> extractAuthorityFromClaims(Map<String, Object> claims) {
         return mapRolesToGrantedAuthorities(getRolesFromClaims(claims));
     }
@@ -112,6 +118,6 @@ public final class SecurityUtils {
     }
 
     private static List<GrantedAuthority> mapRolesToGrantedAuthorities(Collection<String> roles) {
-        return roles.stream().filter(role -> role.startsWith("ROLE_")).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return AUTHORITY_REGISTRY.fromClaim(roles);
     }
 }
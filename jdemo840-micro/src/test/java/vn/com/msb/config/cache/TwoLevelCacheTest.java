@@ -0,0 +1,113 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Unit tests for {@link TwoLevelCache}.
+ */
+class TwoLevelCacheTest {
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+
+    private ConcurrentMapCache remoteCache;
+
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setup() {
+        localCache = Caffeine.newBuilder().maximumSize(10).build();
+        remoteCache = new ConcurrentMapCache("test");
+        cache = new TwoLevelCache("test", localCache, remoteCache);
+    }
+
+    @Test
+    void testPutWritesBothTiers() {
+        cache.put("key", "value");
+
+        assertThat(localCache.getIfPresent("key")).isEqualTo("value");
+        assertThat(remoteCache.get("key", String.class)).isEqualTo("value");
+        assertThat(cache.get("key", String.class)).isEqualTo("value");
+    }
+
+    @Test
+    void testLocalMissIsServedByRemoteTier() {
+        remoteCache.put("key", "value");
+
+        assertThat(cache.get("key", String.class)).isEqualTo("value");
+        assertThat(localCache.getIfPresent("key")).isEqualTo("value");
+    }
+
+    @Test
+    void testNullValuesAreCached() {
+        cache.put("key", null);
+
+        Cache.ValueWrapper value = cache.get("key");
+        assertThat(value).isNotNull();
+        assertThat(value.get()).isNull();
+    }
+
+    @Test
+    void testLoaderRunsOnlyOnMissOfBothTiers() {
+        AtomicInteger loads = new AtomicInteger();
+        remoteCache.put("remote", "remote value");
+
+        assertThat(cache.get("remote", () -> "loaded " + loads.incrementAndGet())).isEqualTo("remote value");
+        assertThat(cache.get("missing", () -> "loaded " + loads.incrementAndGet())).isEqualTo("loaded 1");
+        assertThat(cache.get("missing", () -> "loaded " + loads.incrementAndGet())).isEqualTo("loaded 1");
+        assertThat(remoteCache.get("missing", String.class)).isEqualTo("loaded 1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testLoaderFailureIsWrapped() {
+        assertThatThrownBy(() ->
+            cache.get("key", () -> {
+                throw new IllegalStateException("boom");
+            })
+        )
+            .isInstanceOf(Cache.ValueRetrievalException.class)
+            .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    void testPutIfAbsentKeepsRemoteValue() {
+        remoteCache.put("key", "existing");
+
+        Cache.ValueWrapper previous = cache.putIfAbsent("key", "new");
+
+        assertThat(previous).isNotNull();
+        assertThat(previous.get()).isEqualTo("existing");
+        assertThat(localCache.getIfPresent("key")).isEqualTo("existing");
+    }
+
+    @Test
+    void testEvictAndClearBothTiers() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.evict("a");
+        assertThat(localCache.getIfPresent("a")).isNull();
+        assertThat(remoteCache.get("a")).isNull();
+
+        cache.clear();
+        assertThat(localCache.asMap()).isEmpty();
+        assertThat(remoteCache.getNativeCache()).isEmpty();
+    }
+
+    @Test
+    void testEvictIfPresent() {
+        cache.put("key", "value");
+
+        assertThat(cache.evictIfPresent("key")).isTrue();
+        assertThat(cache.evictIfPresent("key")).isFalse();
+    }
+}
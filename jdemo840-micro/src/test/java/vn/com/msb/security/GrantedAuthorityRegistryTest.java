@@ -0,0 +1,45 @@
+package vn.com.msb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Unit tests for {@link GrantedAuthorityRegistry}.
+ */
+class GrantedAuthorityRegistryTest {
+
+    private final GrantedAuthorityRegistry registry = new GrantedAuthorityRegistry(16, role -> role.startsWith("ROLE_"));
+
+    @Test
+    void testKeepsTheAcceptedRolesOnce() {
+        List<GrantedAuthority> authorities = registry.fromClaim(Arrays.asList("ROLE_ADMIN", "uma_authorization", null, "ROLE_ADMIN"));
+
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void testSharesTheAuthoritiesOfAClaimValue() {
+        List<String> claim = new ArrayList<>(List.of("ROLE_ADMIN", "ROLE_USER"));
+        List<GrantedAuthority> authorities = registry.fromClaim(claim);
+
+        claim.remove("ROLE_ADMIN");
+
+        assertThat(registry.fromClaim(List.of("ROLE_ADMIN", "ROLE_USER"))).isSameAs(authorities);
+        assertThat(registry.fromClaim(claim)).containsExactly(authorities.get(1));
+        assertThat(registry.fromClaim(claim).get(0)).isSameAs(authorities.get(1));
+    }
+
+    @Test
+    void testStopsCachingBeyondMaxEntries() {
+        for (int i = 0; i < 32; i++) {
+            assertThat(registry.fromClaim(List.of("ROLE_" + i))).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_" + i);
+        }
+
+        assertThat(registry.size()).isEqualTo(16);
+    }
+}
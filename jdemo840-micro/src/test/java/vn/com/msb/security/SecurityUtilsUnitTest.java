@@ -88,6 +88,21 @@ class SecurityUtilsUnitTest {
         assertThat(authorities).isNotNull().isNotEmpty().hasSize(2).containsAll(expectedAuthorities);
     }
 
+    @Test
+    void testExtractAuthorityFromClaims_SharedAuthorities() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("groups", new ArrayList<>(Arrays.asList(AuthoritiesConstants.ADMIN, "offline_access", AuthoritiesConstants.USER)));
+        Map<String, Object> otherClaims = new HashMap<>();
+        otherClaims.put("groups", Arrays.asList(AuthoritiesConstants.ADMIN, "offline_access", AuthoritiesConstants.USER));
+
+        List<GrantedAuthority> authorities = SecurityUtils.extractAuthorityFromClaims(claims);
+
+        assertThat(authorities)
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(SecurityUtils.extractAuthorityFromClaims(otherClaims)).isSameAs(authorities);
+    }
+
     @Test
     void testIsAuthenticated() {
         SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
@@ -1,5 +1,8 @@
 package vn.com.msb.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +16,18 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Cache cache = new Cache();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Cache getCache() {
+        return cache;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +42,46 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Cache {
+
+        private final Map<String, Settings> caches = new HashMap<>();
+
+        /**
+         * @return the settings of each cache, by cache name.
+         */
+        public Map<String, Settings> getCaches() {
+            return caches;
+        }
+
+        public static class Settings {
+
+            /**
+             * Defaults to {@code jhipster.cache.caffeine.time-to-live-seconds}.
+             */
+            private Duration timeToLive;
+
+            /**
+             * Defaults to {@code jhipster.cache.caffeine.max-entries}.
+             */
+            private Long maxEntries;
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -0,0 +1,77 @@
+package vn.com.msb.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.jhipster.config.JHipsterProperties;
+import tech.jhipster.config.cache.PrefixedKeyGenerator;
+
+/**
+ * Caches declared under {@code application.cache.caches}, held by Caffeine on each node.
+ * <p>
+ * Their statistics are exported by the {@code cache.*} meters.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private GitProperties gitProperties;
+    private BuildProperties buildProperties;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties applicationProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Bean
+    public CacheManager cacheManager() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(
+            applicationProperties
+                .getCache()
+                .getCaches()
+                .entrySet()
+                .stream()
+                .map(entry -> createCache(entry.getKey(), entry.getValue()))
+                .toList()
+        );
+        return cacheManager;
+    }
+
+    private CaffeineCache createCache(String name, ApplicationProperties.Cache.Settings settings) {
+        JHipsterProperties.Cache.Caffeine caffeine = jHipsterProperties.getCache().getCaffeine();
+        long maxEntries = settings.getMaxEntries() != null ? settings.getMaxEntries() : caffeine.getMaxEntries();
+        Duration timeToLive = settings.getTimeToLive() != null
+            ? settings.getTimeToLive()
+            : Duration.ofSeconds(caffeine.getTimeToLiveSeconds());
+        return new CaffeineCache(name, Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(timeToLive).recordStats().build());
+    }
+
+    @Autowired(required = false)
+    public void setGitProperties(GitProperties gitProperties) {
+        this.gitProperties = gitProperties;
+    }
+
+    @Autowired(required = false)
+    public void setBuildProperties(BuildProperties buildProperties) {
+        this.buildProperties = buildProperties;
+    }
+
+    @Bean
+    public KeyGenerator keyGenerator() {
+        return new PrefixedKeyGenerator(this.gitProperties, this.buildProperties);
+    }
+}
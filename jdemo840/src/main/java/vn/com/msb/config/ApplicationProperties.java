@@ -1,5 +1,8 @@
 package vn.com.msb.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +16,24 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Cache cache = new Cache();
+
+    private final Security security = new Security();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +48,581 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Cache {
+
+        private final LoadLock loadLock = new LoadLock();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        private final Map<String, Settings> caches = new HashMap<>();
+
+        public LoadLock getLoadLock() {
+            return loadLock;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        /**
+         * @return the settings of each cache, by cache name.
+         */
+        public Map<String, Settings> getCaches() {
+            return caches;
+        }
+
+        public enum Tier {
+            /**
+             * Each node keeps its own copy, only the evictions are shared through Redis.
+             */
+            LOCAL,
+            /**
+             * Entries are only kept in Redis.
+             */
+            REMOTE,
+            /**
+             * Entries are kept in Redis with a short-lived local copy on each node.
+             */
+            BOTH,
+        }
+
+        /**
+         * The event starting the time to live of an entry, as the {@code javax.cache.expiry} policies.
+         */
+        public enum ExpiryPolicy {
+            CREATED,
+            MODIFIED,
+            ACCESSED,
+            TOUCHED,
+            ETERNAL,
+        }
+
+        public static class Settings {
+
+            private Tier tier = Tier.BOTH;
+
+            /**
+             * Defaults to {@code jhipster.cache.redis.expiration}.
+             */
+            private Duration timeToLive;
+
+            /**
+             * Defaults to {@code MODIFIED} for the caches refreshed ahead of expiration, {@code CREATED} otherwise.
+             */
+            private ExpiryPolicy expiryPolicy;
+
+            /**
+             * The maximum number of entries of the local tier, defaults to {@code jhipster.cache.caffeine.max-entries}.
+             */
+            private Long maxEntries;
+
+            /**
+             * When set, entries read during the last part of their life are reloaded in the background.
+             */
+            private Duration refreshWindow;
+
+            /**
+             * When set, the {@code null} values are only kept by the local tier, for this time to live.
+             */
+            private Duration negativeTimeToLive;
+
+            public Tier getTier() {
+                return tier;
+            }
+
+            public void setTier(Tier tier) {
+                this.tier = tier;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public ExpiryPolicy getExpiryPolicy() {
+                return expiryPolicy;
+            }
+
+            public void setExpiryPolicy(ExpiryPolicy expiryPolicy) {
+                this.expiryPolicy = expiryPolicy;
+            }
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Duration getRefreshWindow() {
+                return refreshWindow;
+            }
+
+            public void setRefreshWindow(Duration refreshWindow) {
+                this.refreshWindow = refreshWindow;
+            }
+
+            public Duration getNegativeTimeToLive() {
+                return negativeTimeToLive;
+            }
+
+            public void setNegativeTimeToLive(Duration negativeTimeToLive) {
+                this.negativeTimeToLive = negativeTimeToLive;
+            }
+        }
+
+        /**
+         * The preloading of the caches at startup, see {@link vn.com.msb.config.cache.CacheWarmUp}.
+         */
+        public static class WarmUp {
+
+            private boolean enabled = true;
+
+            /**
+             * The number of users preloaded, the most recently modified first.
+             */
+            private int users = 1000;
+
+            private int batchSize = 100;
+
+            /**
+             * The number of batches loaded at the same time.
+             */
+            private int parallelism = 4;
+
+            /**
+             * How long the warm-up may delay the readiness of the application, the remaining batches are then skipped.
+             */
+            private Duration timeBudget = Duration.ofSeconds(30);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getUsers() {
+                return users;
+            }
+
+            public void setUsers(int users) {
+                this.users = users;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public Duration getTimeBudget() {
+                return timeBudget;
+            }
+
+            public void setTimeBudget(Duration timeBudget) {
+                this.timeBudget = timeBudget;
+            }
+        }
+
+        /**
+         * The Redis lock taken while a missing cache entry is loaded, see {@link vn.com.msb.config.cache.CacheLoadLock}.
+         */
+        public static class LoadLock {
+
+            private Duration waitTime = Duration.ofSeconds(2);
+
+            private Duration leaseTime = Duration.ofSeconds(10);
+
+            public Duration getWaitTime() {
+                return waitTime;
+            }
+
+            public void setWaitTime(Duration waitTime) {
+                this.waitTime = waitTime;
+            }
+
+            public Duration getLeaseTime() {
+                return leaseTime;
+            }
+
+            public void setLeaseTime(Duration leaseTime) {
+                this.leaseTime = leaseTime;
+            }
+        }
+    }
+    public static class Security {
+
+        private final Jwt jwt = new Jwt();
+
+        private final JwtCache jwtCache = new JwtCache();
+
+        private final JwtRevocation jwtRevocation = new JwtRevocation();
+
+        private final Password password = new Password();
+
+        private final RefreshToken refreshToken = new RefreshToken();
+
+        private final Throttle throttle = new Throttle();
+
+        public Jwt getJwt() {
+            return jwt;
+        }
+
+        public JwtCache getJwtCache() {
+            return jwtCache;
+        }
+
+        public JwtRevocation getJwtRevocation() {
+            return jwtRevocation;
+        }
+
+        public Password getPassword() {
+            return password;
+        }
+
+        public RefreshToken getRefreshToken() {
+            return refreshToken;
+        }
+
+        public Throttle getThrottle() {
+            return throttle;
+        }
+
+        /**
+         * The limits of the login and password reset attempts, see {@link vn.com.msb.security.throttle.LoginThrottle}.
+         */
+        public static class Throttle {
+
+            /**
+             * Whether the attempts are limited.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Where the attempts are counted: "local", on each node, or "redis", shared by the nodes.
+             */
+            private String mode = "local";
+
+            /**
+             * The number of keys each local counter keeps, the least recently used ones being forgotten beyond.
+             */
+            private int maxEntries = 100000;
+
+            private final Limit loginByIp = new Limit(30, Duration.ofMinutes(1));
+
+            private final Limit loginFailuresByLogin = new Limit(5, Duration.ofMinutes(15));
+
+            private final Limit passwordResetByIp = new Limit(5, Duration.ofHours(1));
+
+            private final Limit passwordResetByEmail = new Limit(3, Duration.ofHours(1));
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getMode() {
+                return mode;
+            }
+
+            public void setMode(String mode) {
+                this.mode = mode;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Limit getLoginByIp() {
+                return loginByIp;
+            }
+
+            public Limit getLoginFailuresByLogin() {
+                return loginFailuresByLogin;
+            }
+
+            public Limit getPasswordResetByIp() {
+                return passwordResetByIp;
+            }
+
+            public Limit getPasswordResetByEmail() {
+                return passwordResetByEmail;
+            }
+
+            /**
+             * A number of attempts allowed over a sliding window.
+             */
+            public static class Limit {
+
+                private int limit;
+
+                private Duration window;
+
+                public Limit() {}
+
+                Limit(int limit, Duration window) {
+                    this.limit = limit;
+                    this.window = window;
+                }
+
+                public int getLimit() {
+                    return limit;
+                }
+
+                public void setLimit(int limit) {
+                    this.limit = limit;
+                }
+
+                public Duration getWindow() {
+                    return window;
+                }
+
+                public void setWindow(Duration window) {
+                    this.window = window;
+                }
+            }
+        }
+
+        /**
+         * The refresh tokens exchanged for new access tokens, see {@link vn.com.msb.service.RefreshTokenService}.
+         */
+        public static class RefreshToken {
+
+            /**
+             * The time a user stays logged in without using the application.
+             */
+            private Duration validity = Duration.ofDays(1);
+
+            /**
+             * The same, for the users who checked "remember me".
+             */
+            private Duration validityForRememberMe = Duration.ofDays(30);
+
+            public Duration getValidity() {
+                return validity;
+            }
+
+            public void setValidity(Duration validity) {
+                this.validity = validity;
+            }
+
+            public Duration getValidityForRememberMe() {
+                return validityForRememberMe;
+            }
+
+            public void setValidityForRememberMe(Duration validityForRememberMe) {
+                this.validityForRememberMe = validityForRememberMe;
+            }
+        }
+
+        /**
+         * The hashing of the passwords, see {@link vn.com.msb.security.BoundedPasswordEncoder}.
+         */
+        public static class Password {
+
+            /**
+             * The algorithm hashing the new passwords: bcrypt, argon2, pbkdf2 or scrypt. The passwords hashed with
+             * another algorithm, or a lower BCrypt strength, are hashed again on the next login of their user.
+             */
+            private String algorithm = "bcrypt";
+
+            /**
+             * The BCrypt cost factor, each increment doubling the time to hash a password.
+             */
+            private int strength = 10;
+
+            /**
+             * The number of passwords hashed at the same time.
+             */
+            private int poolSize = Runtime.getRuntime().availableProcessors();
+
+            /**
+             * The number of passwords waiting to be hashed, beyond which the requests are rejected.
+             */
+            private int queueCapacity = 50;
+
+            public String getAlgorithm() {
+                return algorithm;
+            }
+
+            public void setAlgorithm(String algorithm) {
+                this.algorithm = algorithm;
+            }
+
+            public int getStrength() {
+                return strength;
+            }
+
+            public void setStrength(int strength) {
+                this.strength = strength;
+            }
+
+            public int getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(int poolSize) {
+                this.poolSize = poolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+        }
+
+        /**
+         * The keys signing the tokens, see {@link vn.com.msb.security.jwt.JwtKeySet}.
+         */
+        public static class Jwt {
+
+            /**
+             * HS512 signs with {@code jhipster.security.authentication.jwt.base64-secret}, RSxxx and ESxxx with the
+             * keys of the key store.
+             */
+            private String algorithm = "HS512";
+
+            /**
+             * The alias of the key signing the new tokens, the other keys of the key store only verify them.
+             */
+            private String activeKeyId;
+
+            private final KeyStore keyStore = new KeyStore();
+
+            public String getAlgorithm() {
+                return algorithm;
+            }
+
+            public void setAlgorithm(String algorithm) {
+                this.algorithm = algorithm;
+            }
+
+            public String getActiveKeyId() {
+                return activeKeyId;
+            }
+
+            public void setActiveKeyId(String activeKeyId) {
+                this.activeKeyId = activeKeyId;
+            }
+
+            public KeyStore getKeyStore() {
+                return keyStore;
+            }
+
+            public static class KeyStore {
+
+                /**
+                 * A Spring resource location, such as {@code file:/etc/demo/jwt.p12}.
+                 */
+                private String location;
+
+                private String password;
+
+                private String type = "PKCS12";
+
+                public String getLocation() {
+                    return location;
+                }
+
+                public void setLocation(String location) {
+                    this.location = location;
+                }
+
+                public String getPassword() {
+                    return password;
+                }
+
+                public void setPassword(String password) {
+                    this.password = password;
+                }
+
+                public String getType() {
+                    return type;
+                }
+
+                public void setType(String type) {
+                    this.type = type;
+                }
+            }
+        }
+
+        /**
+         * The tokens already verified, see {@link vn.com.msb.security.jwt.CachingJwtDecoder}.
+         */
+        public static class JwtCache {
+
+            /**
+             * 0 disables the cache.
+             */
+            private long maxEntries = 10000;
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+
+        /**
+         * The revoked tokens, see {@link vn.com.msb.security.jwt.TokenRevocationList}.
+         */
+        public static class JwtRevocation {
+
+            /**
+             * The number of tokens revoked during one token validity, beyond which more valid tokens are looked up.
+             */
+            private long expectedRevocations = 10000;
+
+            /**
+             * The fraction of the valid tokens looked up in Redis.
+             */
+            private double falsePositiveProbability = 0.01;
+
+            public long getExpectedRevocations() {
+                return expectedRevocations;
+            }
+
+            public void setExpectedRevocations(long expectedRevocations) {
+                this.expectedRevocations = expectedRevocations;
+            }
+
+            public double getFalsePositiveProbability() {
+                return falsePositiveProbability;
+            }
+
+            public void setFalsePositiveProbability(double falsePositiveProbability) {
+                this.falsePositiveProbability = falsePositiveProbability;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
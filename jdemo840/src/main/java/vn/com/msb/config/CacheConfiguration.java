@@ -1,19 +1,36 @@
 package vn.com.msb.config;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import javax.cache.Caching;
 import javax.cache.configuration.MutableConfiguration;
+import javax.cache.configuration.Factory;
+import javax.cache.expiry.AccessedExpiryPolicy;
 import javax.cache.expiry.CreatedExpiryPolicy;
 import javax.cache.expiry.Duration;
+import javax.cache.expiry.EternalExpiryPolicy;
+import javax.cache.expiry.ExpiryPolicy;
+import javax.cache.expiry.ModifiedExpiryPolicy;
+import javax.cache.expiry.TouchedExpiryPolicy;
+import org.hibernate.cfg.AvailableSettings;
 import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
 import org.redisson.config.ClusterServersConfig;
 import org.redisson.config.Config;
 import org.redisson.config.SingleServerConfig;
+import org.redisson.jcache.JCachingProvider;
 import org.redisson.jcache.configuration.RedissonConfiguration;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.*;
@@ -21,6 +38,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
+import vn.com.msb.config.cache.CacheInvalidationTopic;
+import vn.com.msb.config.cache.CacheLoadLock;
+import vn.com.msb.config.cache.CacheSpec;
+import vn.com.msb.config.cache.CacheWarmUp;
+import vn.com.msb.config.cache.CompactCacheCodec;
+import vn.com.msb.config.cache.SpringCacheRegionFactory;
+import vn.com.msb.config.cache.TwoLevelCacheManager;
+import vn.com.msb.config.cache.TwoLevelCacheMeterBinderProvider;
+import vn.com.msb.repository.AuthorityRepository;
+import vn.com.msb.repository.UserRepository;
 
 @Configuration
 @EnableCaching
@@ -29,15 +56,22 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
 
-    @Bean
-    public javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(JHipsterProperties jHipsterProperties) {
-        MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties applicationProperties;
 
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public RedissonClient redissonClient() {
         URI redisUri = URI.create(jHipsterProperties.getCache().getRedis().getServer()[0]);
 
         Config config = new Config();
-        // Fix Hibernate lazy initialization https://github.com/jhipster/generator-jhipster/issues/22889
-        config.setCodec(new org.redisson.codec.SerializationCodec());
+        // Users are cached as detached snapshots, which also avoids https://github.com/jhipster/generator-jhipster/issues/22889
+        config.setCodec(new CompactCacheCodec());
         if (jHipsterProperties.getCache().getRedis().isCluster()) {
             ClusterServersConfig clusterServersConfig = config
                 .useClusterServers()
@@ -61,34 +95,123 @@ public class CacheConfiguration {
                 singleServerConfig.setPassword(redisUri.getUserInfo().substring(redisUri.getUserInfo().indexOf(':') + 1));
             }
         }
-        jcacheConfig.setStatisticsEnabled(true);
-        jcacheConfig.setExpiryPolicyFactory(
-            CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, jHipsterProperties.getCache().getRedis().getExpiration()))
+        return Redisson.create(config);
+    }
+
+    @Bean
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        javax.cache.CacheManager jCacheCacheManager = Caching.getCachingProvider(JCachingProvider.class.getName()).getCacheManager();
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(jCacheCacheManager));
+        return jCacheCacheManager;
+    }
+
+    @Bean
+    public CacheInvalidationTopic cacheInvalidationTopic(RedissonClient redissonClient) {
+        return new CacheInvalidationTopic(redissonClient);
+    }
+
+    @Bean
+    public CacheLoadLock cacheLoadLock(RedissonClient redissonClient) {
+        ApplicationProperties.Cache.LoadLock loadLock = applicationProperties.getCache().getLoadLock();
+        return new CacheLoadLock(redissonClient, loadLock.getWaitTime(), loadLock.getLeaseTime());
+    }
+
+    /**
+     * Creates each cache according to its {@code application.cache.caches} settings, see {@link TwoLevelCacheManager}.
+     */
+    @Bean
+    public CacheManager cacheManager(
+        javax.cache.CacheManager jCacheCacheManager,
+        CacheInvalidationTopic cacheInvalidationTopic,
+        CacheLoadLock cacheLoadLock,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        List<String> localCacheNames = applicationProperties
+            .getCache()
+            .getCaches()
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().getTier() == ApplicationProperties.Cache.Tier.LOCAL)
+            .map(Map.Entry::getKey)
+            .toList();
+        return new TwoLevelCacheManager(
+            jCacheCacheManager,
+            localCacheNames,
+            this::cacheSpec,
+            cacheInvalidationTopic,
+            cacheLoadLock,
+            taskExecutor
         );
-        return RedissonConfiguration.fromInstance(Redisson.create(config), jcacheConfig);
     }
 
+    /**
+     * Stores the Hibernate second-level cache regions in the caches of the {@link CacheManager}.
+     */
     @Bean
-    public JCacheManagerCustomizer cacheManagerCustomizer(javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration) {
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(CacheManager cacheManager) {
+        return hibernateProperties ->
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, new SpringCacheRegionFactory(cacheManager));
+    }
+
+    @Bean
+    public CacheWarmUp cacheWarmUp(CacheManager cacheManager, UserRepository userRepository, AuthorityRepository authorityRepository) {
+        return new CacheWarmUp(cacheManager, userRepository, authorityRepository, applicationProperties.getCache().getWarmUp());
+    }
+
+    @Bean
+    public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+        return new TwoLevelCacheMeterBinderProvider();
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer(RedissonClient redissonClient) {
         return cm -> {
-            createCache(cm, vn.com.msb.repository.UserRepository.USERS_BY_LOGIN_CACHE, jcacheConfiguration);
-            createCache(cm, vn.com.msb.repository.UserRepository.USERS_BY_EMAIL_CACHE, jcacheConfiguration);
-            createCache(cm, vn.com.msb.domain.Authority.class.getName(), jcacheConfiguration);
+            createCache(cm, UserRepository.USERS_BY_LOGIN_CACHE, redissonClient);
+            createCache(cm, UserRepository.USERS_BY_EMAIL_CACHE, redissonClient);
+            createCache(cm, vn.com.msb.domain.Authority.class.getName(), redissonClient);
+            createCache(cm, vn.com.msb.domain.User.class.getName() + ".authorities", redissonClient);
             // jhipster-needle-redis-add-entry
         };
     }
 
-    private void createCache(
-        javax.cache.CacheManager cm,
-        String cacheName,
-        javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration
-    ) {
+    private void createCache(javax.cache.CacheManager cm, String cacheName, RedissonClient redissonClient) {
+        CacheSpec cacheSpec = cacheSpec(cacheName);
+        if (cacheSpec.tier() == ApplicationProperties.Cache.Tier.LOCAL) {
+            return;
+        }
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheSpec, redissonClient));
+        }
+    }
+
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(
+        CacheSpec cacheSpec,
+        RedissonClient redissonClient
+    ) {
+        MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
+        jcacheConfig.setStatisticsEnabled(true);
+        jcacheConfig.setExpiryPolicyFactory(expiryPolicyFactory(cacheSpec));
+        return RedissonConfiguration.fromInstance(redissonClient, jcacheConfig);
+    }
+
+    private Factory<ExpiryPolicy> expiryPolicyFactory(CacheSpec cacheSpec) {
+        if (cacheSpec.timeToLive() == null) {
+            return EternalExpiryPolicy.factoryOf();
         }
+        Duration timeToLive = new Duration(TimeUnit.MILLISECONDS, cacheSpec.timeToLive().toMillis());
+        return switch (cacheSpec.expiryPolicy()) {
+            case MODIFIED -> ModifiedExpiryPolicy.factoryOf(timeToLive);
+            case ACCESSED -> AccessedExpiryPolicy.factoryOf(timeToLive);
+            case TOUCHED -> TouchedExpiryPolicy.factoryOf(timeToLive);
+            default -> CreatedExpiryPolicy.factoryOf(timeToLive);
+        };
+    }
+
+    private CacheSpec cacheSpec(String cacheName) {
+        return CacheSpec.of(cacheName, applicationProperties.getCache().getCaches().get(cacheName), jHipsterProperties.getCache());
     }
 
     @Autowired(required = false)
@@ -3,6 +3,10 @@ package vn.com.msb.config;
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -12,8 +16,12 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer.FrameOptionsConfig;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.scrypt.SCryptPasswordEncoder;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
 import org.springframework.security.oauth2.server.resource.web.access.BearerTokenAccessDeniedHandler;
 import org.springframework.security.web.SecurityFilterChain;
@@ -23,7 +31,13 @@ import org.springframework.security.web.servlet.util.matcher.MvcRequestMatcher;
 import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.JHipsterProperties;
+import vn.com.msb.management.SecurityMetersService;
 import vn.com.msb.security.*;
+import vn.com.msb.security.jwt.AuthenticatedUserConverter;
+import vn.com.msb.security.throttle.LocalSlidingWindowCounter;
+import vn.com.msb.security.throttle.LoginThrottle;
+import vn.com.msb.security.throttle.RedisSlidingWindowCounter;
+import vn.com.msb.security.throttle.SlidingWindowCounter;
 import vn.com.msb.web.filter.SpaWebFilter;
 
 @Configuration
@@ -34,18 +48,58 @@ public class SecurityConfiguration {
 
     private final JHipsterProperties jHipsterProperties;
 
-    public SecurityConfiguration(Environment env, JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public SecurityConfiguration(Environment env, JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.env = env;
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        ApplicationProperties.Security.Password password = applicationProperties.getSecurity().getPassword();
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(password.getStrength());
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(
+            password.getAlgorithm(),
+            Map.of(
+                "bcrypt",
+                bcrypt,
+                "argon2",
+                Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8(),
+                "pbkdf2",
+                Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8(),
+                "scrypt",
+                SCryptPasswordEncoder.defaultsForSpringSecurity_v5_8()
+            )
+        );
+        // The hashes stored before the {id} prefix are BCrypt hashes
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(
+            delegatingPasswordEncoder,
+            password.getPoolSize(),
+            password.getQueueCapacity()
+        );
+        passwordEncoder.bindTo(meterRegistry);
+        return passwordEncoder;
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public LoginThrottle loginThrottle(ObjectProvider<RedissonClient> redissonClient, SecurityMetersService securityMetersService) {
+        ApplicationProperties.Security.Throttle throttle = applicationProperties.getSecurity().getThrottle();
+        boolean shared = "redis".equals(throttle.getMode());
+        return new LoginThrottle(throttle, securityMetersService, (name, window) -> {
+            SlidingWindowCounter local = new LocalSlidingWindowCounter(window, throttle.getMaxEntries());
+            return shared ? new RedisSlidingWindowCounter(redissonClient.getObject(), name, window, local) : local;
+        });
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, MvcRequestMatcher.Builder mvc) throws Exception {
+    public SecurityFilterChain filterChain(
+        HttpSecurity http,
+        MvcRequestMatcher.Builder mvc,
+        AuthenticatedUserConverter jwtAuthenticationConverter
+    ) throws Exception {
         http
             .cors(withDefaults())
             .csrf(csrf -> csrf.disable())
@@ -76,7 +130,10 @@ public class SecurityConfiguration {
                     .requestMatchers(mvc.pattern("/content/**")).permitAll()
                     .requestMatchers(mvc.pattern("/swagger-ui/**")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/authenticate")).permitAll()
+                    .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/authenticate/refresh")).permitAll()
+                    .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/authenticate/revoke")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.GET, "/api/authenticate")).permitAll()
+                    .requestMatchers(mvc.pattern(HttpMethod.GET, "/.well-known/jwks.json")).permitAll()
                     .requestMatchers(mvc.pattern("/api/register")).permitAll()
                     .requestMatchers(mvc.pattern("/api/activate")).permitAll()
                     .requestMatchers(mvc.pattern("/api/account/reset-password/init")).permitAll()
@@ -98,7 +155,7 @@ public class SecurityConfiguration {
                         .authenticationEntryPoint(new BearerTokenAuthenticationEntryPoint())
                         .accessDeniedHandler(new BearerTokenAccessDeniedHandler())
             )
-            .oauth2ResourceServer(oauth2 -> oauth2.jwt(withDefaults()));
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter)));
         if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT))) {
             http.authorizeHttpRequests(authz -> authz.requestMatchers(antMatcher("/h2-console/**")).permitAll());
         }
@@ -1,85 +1,129 @@
 package vn.com.msb.config;
 
-import static vn.com.msb.security.SecurityUtils.AUTHORITIES_KEY;
-import static vn.com.msb.security.SecurityUtils.JWT_ALGORITHM;
-
-import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Set;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
 import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import vn.com.msb.management.SecurityMetersService;
+import vn.com.msb.security.jwt.AuthenticatedUserConverter;
+import vn.com.msb.security.jwt.CachingJwtDecoder;
+import vn.com.msb.security.jwt.JwtKeySet;
+import vn.com.msb.security.jwt.RedisRevokedTokenStore;
+import vn.com.msb.security.jwt.RevocationCheckingJwtDecoder;
+import vn.com.msb.security.jwt.TokenRevocationList;
+import vn.com.msb.security.jwt.VerifyingJwtDecoder;
 
 @Configuration
 public class SecurityJwtConfiguration {
 
-    private final Logger log = LoggerFactory.getLogger(SecurityJwtConfiguration.class);
+    private static final Set<String> REFRESH_TOKEN_PATHS = Set.of("/api/authenticate/refresh", "/api/authenticate/revoke");
 
     @Value("${jhipster.security.authentication.jwt.base64-secret}")
     private String jwtKey;
 
+    @Value("${jhipster.security.authentication.jwt.token-validity-in-seconds:0}")
+    private long tokenValidityInSeconds;
+
+    private final ApplicationProperties applicationProperties;
+
+    public SecurityJwtConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
     @Bean
-    public JwtDecoder jwtDecoder(SecurityMetersService metersService) {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
-            try {
-                return jwtDecoder.decode(token);
-            } catch (Exception e) {
-                if (e.getMessage().contains("Invalid signature")) {
-                    metersService.trackTokenInvalidSignature();
-                } else if (e.getMessage().contains("Jwt expired at")) {
-                    metersService.trackTokenExpired();
-                } else if (
-                    e.getMessage().contains("Invalid JWT serialization") ||
-                    e.getMessage().contains("Malformed token") ||
-                    e.getMessage().contains("Invalid unsecured/JWS/JWE")
-                ) {
-                    metersService.trackTokenMalformed();
-                } else {
-                    log.error("Unknown JWT error {}", e.getMessage());
-                }
-                throw e;
-            }
-        };
+    public JwtKeySet jwtKeySet() {
+        ApplicationProperties.Security.Jwt jwt = applicationProperties.getSecurity().getJwt();
+        MacAlgorithm macAlgorithm = MacAlgorithm.from(jwt.getAlgorithm());
+        if (macAlgorithm != null) {
+            return JwtKeySet.of(getSecretKey(macAlgorithm), macAlgorithm);
+        }
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.from(jwt.getAlgorithm());
+        if (signatureAlgorithm == null) {
+            throw new IllegalArgumentException("Unsupported JWT algorithm " + jwt.getAlgorithm());
+        }
+        ApplicationProperties.Security.Jwt.KeyStore keyStoreProperties = jwt.getKeyStore();
+        char[] password = keyStoreProperties.getPassword() == null ? new char[0] : keyStoreProperties.getPassword().toCharArray();
+        try (InputStream in = new DefaultResourceLoader().getResource(keyStoreProperties.getLocation()).getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance(keyStoreProperties.getType());
+            keyStore.load(in, password);
+            return JwtKeySet.load(keyStore, password, signatureAlgorithm, jwt.getActiveKeyId());
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load the JWT key store " + keyStoreProperties.getLocation(), e);
+        }
     }
 
     @Bean
-    public JwtEncoder jwtEncoder() {
-        return new NimbusJwtEncoder(new ImmutableSecret<>(getSecretKey()));
+    public TokenRevocationList tokenRevocationList(RedissonClient redissonClient, MeterRegistry meterRegistry) {
+        ApplicationProperties.Security.JwtRevocation jwtRevocation = applicationProperties.getSecurity().getJwtRevocation();
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(
+            new RedisRevokedTokenStore(redissonClient),
+            Duration.ofSeconds(tokenValidityInSeconds),
+            jwtRevocation.getExpectedRevocations(),
+            jwtRevocation.getFalsePositiveProbability()
+        );
+        tokenRevocationList.bindTo(meterRegistry);
+        tokenRevocationList.start();
+        return tokenRevocationList;
     }
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        grantedAuthoritiesConverter.setAuthorityPrefix("");
-        grantedAuthoritiesConverter.setAuthoritiesClaimName(AUTHORITIES_KEY);
+    public JwtDecoder jwtDecoder(
+        JwtKeySet jwtKeySet,
+        TokenRevocationList tokenRevocationList,
+        SecurityMetersService metersService,
+        MeterRegistry meterRegistry
+    ) {
+        JwtDecoder jwtDecoder = new VerifyingJwtDecoder(jwtKeySet, metersService);
+        long jwtCacheMaxEntries = applicationProperties.getSecurity().getJwtCache().getMaxEntries();
+        if (jwtCacheMaxEntries != 0) {
+            CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder, jwtCacheMaxEntries);
+            cachingJwtDecoder.bindTo(meterRegistry);
+            jwtDecoder = cachingJwtDecoder;
+        }
+        return new RevocationCheckingJwtDecoder(jwtDecoder, tokenRevocationList);
+    }
 
-        JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
-        return jwtAuthenticationConverter;
+    @Bean
+    public JwtEncoder jwtEncoder(JwtKeySet jwtKeySet) {
+        return new NimbusJwtEncoder(jwtKeySet.getSigningKeys());
+    }
+
+    @Bean
+    public AuthenticatedUserConverter jwtAuthenticationConverter() {
+        return new AuthenticatedUserConverter();
     }
 
     @Bean
     public BearerTokenResolver bearerTokenResolver() {
         var bearerTokenResolver = new DefaultBearerTokenResolver();
         bearerTokenResolver.setAllowUriQueryParameter(true);
-        return bearerTokenResolver;
+        // The refresh token authenticates these calls, the access token sent along may have expired
+        return request ->
+            REFRESH_TOKEN_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()))
+                ? null
+                : bearerTokenResolver.resolve(request);
     }
 
-    private SecretKey getSecretKey() {
+    private SecretKey getSecretKey(MacAlgorithm algorithm) {
         byte[] keyBytes = Base64.from(jwtKey).decode();
-        return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
+        return new SecretKeySpec(keyBytes, 0, keyBytes.length, algorithm.getName());
     }
 }
@@ -0,0 +1,22 @@
+package vn.com.msb.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import vn.com.msb.repository.UserRepository;
+import vn.com.msb.security.FreshUserInterceptor;
+
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+
+    private final UserRepository userRepository;
+
+    public WebMvcConfiguration(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new FreshUserInterceptor(userRepository)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,12 @@
+package vn.com.msb.config.cache;
+
+import java.io.Serializable;
+
+/**
+ * Message broadcast to the other nodes when an entry of a {@link TwoLevelCache} changes.
+ *
+ * @param origin    id of the node that published the message, so that it can ignore its own messages.
+ * @param cacheName name of the cache the entry belongs to.
+ * @param key       key of the entry, or {@code null} when the whole cache was cleared.
+ */
+public record CacheInvalidationMessage(String origin, String cacheName, Object key) implements Serializable {}
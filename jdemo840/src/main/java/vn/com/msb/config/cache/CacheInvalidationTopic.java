@@ -0,0 +1,57 @@
+package vn.com.msb.config.cache;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Redis pub/sub channel used to drop stale local copies of cache entries on the other nodes.
+ * <p>
+ * Messages published by this node are ignored when they come back from Redis.
+ */
+public class CacheInvalidationTopic {
+
+    public static final String TOPIC_NAME = "cache:invalidation";
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationTopic.class);
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private final RTopic topic;
+
+    public CacheInvalidationTopic(RedissonClient redissonClient) {
+        this.topic = redissonClient.getTopic(TOPIC_NAME);
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(new CacheInvalidationMessage(origin, cacheName, key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(new CacheInvalidationMessage(origin, cacheName, null));
+    }
+
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        topic.addListener(
+            CacheInvalidationMessage.class,
+            (channel, message) -> {
+                if (!origin.equals(message.origin())) {
+                    listener.accept(message);
+                }
+            }
+        );
+    }
+
+    private void publish(CacheInvalidationMessage message) {
+        topic
+            .publishAsync(message)
+            .whenComplete((receivers, e) -> {
+                if (e != null) {
+                    log.warn("Could not publish cache invalidation for {}: {}", message.cacheName(), e.getMessage());
+                }
+            });
+    }
+}
@@ -0,0 +1,79 @@
+package vn.com.msb.config.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Short-lived Redis lock taken by a {@link TwoLevelCache} while it loads a missing entry, so that the nodes of the
+ * cluster do not all run the same query when a popular entry expires.
+ * <p>
+ * The lock is only an optimization: when it cannot be acquired within the wait time, or Redis is unavailable, the
+ * value is loaded anyway. The lease time bounds how long a crashed node can hold it.
+ */
+public class CacheLoadLock {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheLoadLock.class);
+
+    private static final String LOCK_PREFIX = "cache:load:";
+
+    private final RedissonClient redissonClient;
+
+    private final Duration waitTime;
+
+    private final Duration leaseTime;
+
+    public CacheLoadLock(RedissonClient redissonClient, Duration waitTime, Duration leaseTime) {
+        this.redissonClient = redissonClient;
+        this.waitTime = waitTime;
+        this.leaseTime = leaseTime;
+    }
+
+    /**
+     * Call the loader while holding the lock of an entry.
+     *
+     * @param cacheName the name of the cache.
+     * @param key the key of the entry.
+     * @param loader the loader, which should check again whether another node stored the entry meanwhile.
+     * @return the result of the loader.
+     * @throws Exception if the loader fails.
+     */
+    public <T> T callWithLock(String cacheName, Object key, Callable<T> loader) throws Exception {
+        RLock lock = tryLock(cacheName, key);
+        try {
+            return loader.call();
+        } finally {
+            if (lock != null) {
+                unlock(lock);
+            }
+        }
+    }
+
+    private RLock tryLock(String cacheName, Object key) {
+        RLock lock = redissonClient.getLock(LOCK_PREFIX + cacheName + ":" + key);
+        try {
+            if (lock.tryLock(waitTime.toMillis(), leaseTime.toMillis(), TimeUnit.MILLISECONDS)) {
+                return lock;
+            }
+            LOG.debug("Timed out waiting for the load lock of {} in cache {}", key, cacheName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not acquire the load lock of {} in cache {}: {}", key, cacheName, e.getMessage());
+        }
+        return null;
+    }
+
+    private void unlock(RLock lock) {
+        try {
+            lock.unlock();
+        } catch (RuntimeException e) {
+            // The lease expired, the lock is already released
+            LOG.debug("Could not release the load lock {}: {}", lock.getName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package vn.com.msb.config.cache;
+
+import java.time.Duration;
+import tech.jhipster.config.JHipsterProperties;
+import vn.com.msb.config.ApplicationProperties.Cache.ExpiryPolicy;
+import vn.com.msb.config.ApplicationProperties.Cache.Settings;
+import vn.com.msb.config.ApplicationProperties.Cache.Tier;
+
+/**
+ * The resolved settings of a cache, see {@link vn.com.msb.config.ApplicationProperties.Cache.Settings}.
+ *
+ * @param tier the tiers holding the entries.
+ * @param timeToLive the time to live of the entries, {@code null} when they never expire.
+ * @param expiryPolicy the event starting the time to live of an entry.
+ * @param maxEntries the maximum number of entries of the local tier.
+ * @param localTimeToLive the time to live of the local copies, {@code null} when they never expire.
+ * @param refreshWindow the part of the life of an entry during which it is refreshed, {@code null} for no refresh.
+ * @param negativeTimeToLive the time to live of the {@code null} values, which are only kept by the local tier,
+ * {@code null} to store them as the other values.
+ */
+public record CacheSpec(
+    Tier tier,
+    Duration timeToLive,
+    ExpiryPolicy expiryPolicy,
+    long maxEntries,
+    Duration localTimeToLive,
+    Duration refreshWindow,
+    Duration negativeTimeToLive
+) {
+    /**
+     * Resolve the settings of a cache, the missing ones defaulting to the {@code jhipster.cache} properties.
+     * <p>
+     * The local copies of a cache having a remote tier live for {@code jhipster.cache.caffeine.time-to-live-seconds}
+     * at most, a {@link Tier#LOCAL} cache is only bounded by its own time to live.
+     *
+     * @param cacheName the name of the cache.
+     * @param settings the settings of the cache, {@code null} if it has none.
+     * @param defaults the {@code jhipster.cache} properties.
+     * @return the resolved settings.
+     * @throws IllegalArgumentException if the settings are inconsistent.
+     */
+    public static CacheSpec of(String cacheName, Settings settings, JHipsterProperties.Cache defaults) {
+        if (settings == null) {
+            settings = new Settings();
+        }
+        Duration refreshWindow = settings.getRefreshWindow();
+        ExpiryPolicy expiryPolicy = settings.getExpiryPolicy();
+        if (expiryPolicy == null) {
+            expiryPolicy = refreshWindow == null ? ExpiryPolicy.CREATED : ExpiryPolicy.MODIFIED;
+        }
+        if (refreshWindow != null && settings.getTier() == Tier.REMOTE) {
+            throw new IllegalArgumentException("The cache " + cacheName + " needs a local tier to be refreshed ahead of expiration");
+        }
+        if (refreshWindow != null && expiryPolicy != ExpiryPolicy.MODIFIED && expiryPolicy != ExpiryPolicy.TOUCHED) {
+            throw new IllegalArgumentException(
+                "The cache " + cacheName + " is refreshed ahead of expiration, its expiry policy must be MODIFIED or TOUCHED"
+            );
+        }
+
+        Duration negativeTimeToLive = settings.getNegativeTimeToLive();
+        if (negativeTimeToLive != null && settings.getTier() == Tier.REMOTE) {
+            throw new IllegalArgumentException("The cache " + cacheName + " needs a local tier to keep its null values");
+        }
+
+        Duration timeToLive = null;
+        if (expiryPolicy != ExpiryPolicy.ETERNAL) {
+            timeToLive = settings.getTimeToLive();
+            if (timeToLive == null) {
+                timeToLive = Duration.ofSeconds(defaults.getRedis().getExpiration());
+            }
+        }
+        Duration localTimeToLive = timeToLive;
+        if (settings.getTier() != Tier.LOCAL) {
+            Duration maxLocalTimeToLive = Duration.ofSeconds(defaults.getCaffeine().getTimeToLiveSeconds());
+            if (timeToLive == null || maxLocalTimeToLive.compareTo(timeToLive) < 0) {
+                localTimeToLive = maxLocalTimeToLive;
+            }
+        }
+        long maxEntries = settings.getMaxEntries() != null ? settings.getMaxEntries() : defaults.getCaffeine().getMaxEntries();
+        return new CacheSpec(settings.getTier(), timeToLive, expiryPolicy, maxEntries, localTimeToLive, refreshWindow, negativeTimeToLive);
+    }
+}
@@ -0,0 +1,169 @@
+package vn.com.msb.config.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import vn.com.msb.config.ApplicationProperties;
+import vn.com.msb.domain.User;
+import vn.com.msb.repository.AuthorityRepository;
+import vn.com.msb.repository.UserRepository;
+
+/**
+ * Preloads the caches once the application is started: all the authorities into the second-level cache, and the
+ * most recently modified activated users into the user caches, in batches loaded in parallel.
+ * <p>
+ * Spring Boot only reports the application ready to accept traffic once the {@link ApplicationReadyEvent} listeners
+ * returned, so the warm-up runs on the event thread, within its time budget. Its progress is reported by the
+ * {@code cacheWarmUp} health indicator, which is out of service until the warm-up ends, whatever its outcome.
+ */
+public class CacheWarmUp implements ApplicationListener<ApplicationReadyEvent>, HealthIndicator {
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        TIMED_OUT,
+        FAILED,
+        DISABLED,
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheWarmUp.class);
+
+    private final CacheManager cacheManager;
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final ApplicationProperties.Cache.WarmUp settings;
+
+    private volatile State state = State.PENDING;
+
+    private volatile int authorityCount;
+
+    private volatile int userCount;
+
+    private final AtomicInteger loadedUserCount = new AtomicInteger();
+
+    private final AtomicInteger failedBatchCount = new AtomicInteger();
+
+    private volatile long startTime;
+
+    private volatile Duration duration;
+
+    public CacheWarmUp(
+        CacheManager cacheManager,
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        ApplicationProperties.Cache.WarmUp settings
+    ) {
+        this.cacheManager = cacheManager;
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        this.settings = settings;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!settings.isEnabled()) {
+            state = State.DISABLED;
+            return;
+        }
+        warmUp();
+    }
+
+    void warmUp() {
+        startTime = System.nanoTime();
+        state = State.RUNNING;
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getParallelism(), new CustomizableThreadFactory("cache-warm-up-"));
+        try {
+            authorityCount = authorityRepository.findAll().size();
+            List<Long> userIds = userRepository.findIdsOfLastModifiedActivatedUsers(PageRequest.of(0, settings.getUsers()));
+            userCount = userIds.size();
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            for (int i = 0; i < userIds.size(); i += settings.getBatchSize()) {
+                List<Long> batch = userIds.subList(i, Math.min(i + settings.getBatchSize(), userIds.size()));
+                batches.add(CompletableFuture.runAsync(() -> loadUsers(batch), executor).exceptionally(this::onBatchFailure));
+            }
+            long remainingTime = settings.getTimeBudget().toNanos() - (System.nanoTime() - startTime);
+            CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).get(Math.max(remainingTime, 0), TimeUnit.NANOSECONDS);
+            state = State.COMPLETED;
+        } catch (TimeoutException e) {
+            state = State.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.FAILED;
+        } catch (ExecutionException | RuntimeException e) {
+            LOG.warn("Could not warm up the caches: {}", e.getMessage());
+            state = State.FAILED;
+        } finally {
+            executor.shutdownNow();
+            duration = Duration.ofNanos(System.nanoTime() - startTime);
+        }
+        LOG.info(
+            "Cache warm-up {} in {} ms: {} authorities, {}/{} users",
+            state,
+            duration.toMillis(),
+            authorityCount,
+            loadedUserCount.get(),
+            userCount
+        );
+    }
+
+    private void loadUsers(List<Long> userIds) {
+        Cache usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        Cache usersByEmail = cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE);
+        for (User user : userRepository.findAllWithAuthoritiesByIdIn(userIds)) {
+            // Entries cached by the first requests, or by another node, are at least as fresh
+            usersByLogin.putIfAbsent(user.getLogin(), user);
+            if (user.getEmail() != null) {
+                usersByEmail.putIfAbsent(user.getEmail(), user);
+            }
+            loadedUserCount.incrementAndGet();
+        }
+    }
+
+    private Void onBatchFailure(Throwable e) {
+        LOG.warn("Could not warm up a batch of users: {}", e.getMessage());
+        failedBatchCount.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public Health health() {
+        State currentState = state;
+        Health.Builder builder = currentState == State.PENDING || currentState == State.RUNNING ? Health.outOfService() : Health.up();
+        builder.withDetail("state", currentState);
+        if (currentState != State.PENDING && currentState != State.DISABLED) {
+            Duration elapsed = duration != null ? duration : Duration.ofNanos(System.nanoTime() - startTime);
+            builder
+                .withDetail("authorities", authorityCount)
+                .withDetail("users", loadedUserCount.get())
+                .withDetail("usersToLoad", userCount)
+                .withDetail("failedBatches", failedBatchCount.get())
+                .withDetail("elapsed", elapsed.toMillis() + " ms");
+        }
+        return builder.build();
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,91 @@
+package vn.com.msb.config.cache;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import vn.com.msb.domain.Authority;
+import vn.com.msb.domain.User;
+
+/**
+ * Detached, immutable copy of a {@link User} and the names of its authorities, as stored in the user caches.
+ * <p>
+ * Caching this snapshot rather than the entity keeps Hibernate collections and proxies out of the cache, and gives
+ * every reader its own {@link User} instance through {@link #toUser()}.
+ */
+public record CachedUser(
+    Long id,
+    String login,
+    String password,
+    String firstName,
+    String lastName,
+    String email,
+    boolean activated,
+    String langKey,
+    String imageUrl,
+    String activationKey,
+    String resetKey,
+    Instant resetDate,
+    String createdBy,
+    Instant createdDate,
+    String lastModifiedBy,
+    Instant lastModifiedDate,
+    Set<String> authorities
+)
+    implements Serializable {
+    public CachedUser {
+        authorities = Set.copyOf(authorities);
+    }
+
+    public static CachedUser of(User user) {
+        Set<String> authorities = new HashSet<>();
+        for (Authority authority : user.getAuthorities()) {
+            authorities.add(authority.getName());
+        }
+        return new CachedUser(
+            user.getId(),
+            user.getLogin(),
+            user.getPassword(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getEmail(),
+            user.isActivated(),
+            user.getLangKey(),
+            user.getImageUrl(),
+            user.getActivationKey(),
+            user.getResetKey(),
+            user.getResetDate(),
+            user.getCreatedBy(),
+            user.getCreatedDate(),
+            user.getLastModifiedBy(),
+            user.getLastModifiedDate(),
+            authorities
+        );
+    }
+
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(login);
+        user.setPassword(password);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setActivated(activated);
+        user.setLangKey(langKey);
+        user.setImageUrl(imageUrl);
+        user.setActivationKey(activationKey);
+        user.setResetKey(resetKey);
+        user.setResetDate(resetDate);
+        user.setCreatedBy(createdBy);
+        user.setCreatedDate(createdDate);
+        user.setLastModifiedBy(lastModifiedBy);
+        user.setLastModifiedDate(lastModifiedDate);
+        Set<Authority> userAuthorities = new HashSet<>();
+        for (String authority : authorities) {
+            userAuthorities.add(new Authority().name(authority).setIsPersisted());
+        }
+        user.setAuthorities(userAuthorities);
+        return user;
+    }
+}
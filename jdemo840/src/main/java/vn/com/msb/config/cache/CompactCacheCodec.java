@@ -0,0 +1,254 @@
+package vn.com.msb.config.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.redisson.codec.SerializationCodec;
+import vn.com.msb.security.AuthoritiesConstants;
+
+/**
+ * Redisson codec writing {@link CachedUser}s, {@link String}s (the keys of the user caches) and the
+ * {@link ExpiringValue}s wrapping them in a compact binary format, and everything else with Java serialization.
+ * <p>
+ * Each compact value starts with a one-byte tag. Java serialization streams start with {@code 0xAC}, which never
+ * collides with a tag, so values written before this codec was introduced can still be read.
+ */
+public class CompactCacheCodec extends BaseCodec {
+
+    static final byte STRING_TAG = 1;
+
+    static final byte USER_TAG = 2;
+
+    static final byte EXPIRING_TAG = 3;
+
+    /**
+     * Authorities written as a one-byte code (their index + 1), any other authority is written as a string after a 0.
+     */
+    private static final List<String> KNOWN_AUTHORITIES = List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+
+    private final SerializationCodec fallbackCodec;
+
+    private final Encoder encoder = this::encode;
+
+    private final Decoder<Object> decoder = (buf, state) -> decode(buf);
+
+    public CompactCacheCodec() {
+        this.fallbackCodec = new SerializationCodec();
+    }
+
+    public CompactCacheCodec(ClassLoader classLoader) {
+        this.fallbackCodec = new SerializationCodec(classLoader);
+    }
+
+    public CompactCacheCodec(ClassLoader classLoader, CompactCacheCodec codec) {
+        this(classLoader);
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return fallbackCodec.getClassLoader();
+    }
+
+    private ByteBuf encode(Object value) throws IOException {
+        if (value instanceof String string) {
+            ByteBuf out = ByteBufAllocator.DEFAULT.buffer(1 + ByteBufUtil.utf8MaxBytes(string));
+            out.writeByte(STRING_TAG);
+            out.writeCharSequence(string, StandardCharsets.UTF_8);
+            return out;
+        }
+        if (value instanceof CachedUser user) {
+            ByteBuf out = ByteBufAllocator.DEFAULT.buffer(128);
+            out.writeByte(USER_TAG);
+            writeUser(out, user);
+            return out;
+        }
+        if (value instanceof ExpiringValue expiringValue) {
+            ByteBuf encodedValue = encode(expiringValue.value());
+            try {
+                ByteBuf out = ByteBufAllocator.DEFAULT.buffer(10 + encodedValue.readableBytes());
+                out.writeByte(EXPIRING_TAG);
+                writeVarLong(out, expiringValue.expiresAt());
+                out.writeBytes(encodedValue);
+                return out;
+            } finally {
+                encodedValue.release();
+            }
+        }
+        return fallbackCodec.getValueEncoder().encode(value);
+    }
+
+    private Object decode(ByteBuf buf) throws IOException {
+        byte tag = buf.getByte(buf.readerIndex());
+        if (tag == STRING_TAG) {
+            buf.skipBytes(1);
+            return buf.readCharSequence(buf.readableBytes(), StandardCharsets.UTF_8).toString();
+        }
+        if (tag == USER_TAG) {
+            buf.skipBytes(1);
+            return readUser(buf);
+        }
+        if (tag == EXPIRING_TAG) {
+            buf.skipBytes(1);
+            long expiresAt = readVarLong(buf);
+            return new ExpiringValue(decode(buf), expiresAt);
+        }
+        return fallbackCodec.getValueDecoder().decode(buf, null);
+    }
+
+    private static void writeUser(ByteBuf out, CachedUser user) {
+        writeVarLong(out, user.id() == null ? 0 : user.id() + 1);
+        writeString(out, user.login());
+        writeString(out, user.password());
+        writeString(out, user.firstName());
+        writeString(out, user.lastName());
+        writeString(out, user.email());
+        out.writeBoolean(user.activated());
+        writeString(out, user.langKey());
+        writeString(out, user.imageUrl());
+        writeString(out, user.activationKey());
+        writeString(out, user.resetKey());
+        writeInstant(out, user.resetDate());
+        writeString(out, user.createdBy());
+        writeInstant(out, user.createdDate());
+        writeString(out, user.lastModifiedBy());
+        writeInstant(out, user.lastModifiedDate());
+        writeVarLong(out, user.authorities().size());
+        for (String authority : user.authorities()) {
+            int code = KNOWN_AUTHORITIES.indexOf(authority) + 1;
+            out.writeByte(code);
+            if (code == 0) {
+                writeString(out, authority);
+            }
+        }
+    }
+
+    private static CachedUser readUser(ByteBuf in) throws IOException {
+        long id = readVarLong(in);
+        String login = readString(in);
+        String password = readString(in);
+        String firstName = readString(in);
+        String lastName = readString(in);
+        String email = readString(in);
+        boolean activated = in.readBoolean();
+        String langKey = readString(in);
+        String imageUrl = readString(in);
+        String activationKey = readString(in);
+        String resetKey = readString(in);
+        Instant resetDate = readInstant(in);
+        String createdBy = readString(in);
+        Instant createdDate = readInstant(in);
+        String lastModifiedBy = readString(in);
+        Instant lastModifiedDate = readInstant(in);
+        int authorityCount = (int) readVarLong(in);
+        Set<String> authorities = new HashSet<>(authorityCount * 2);
+        for (int i = 0; i < authorityCount; i++) {
+            int code = in.readUnsignedByte();
+            if (code == 0) {
+                authorities.add(readString(in));
+            } else if (code <= KNOWN_AUTHORITIES.size()) {
+                authorities.add(KNOWN_AUTHORITIES.get(code - 1));
+            } else {
+                throw new IOException("Unknown authority code " + code);
+            }
+        }
+        return new CachedUser(
+            id == 0 ? null : id - 1,
+            login,
+            password,
+            firstName,
+            lastName,
+            email,
+            activated,
+            langKey,
+            imageUrl,
+            activationKey,
+            resetKey,
+            resetDate,
+            createdBy,
+            createdDate,
+            lastModifiedBy,
+            lastModifiedDate,
+            authorities
+        );
+    }
+
+    // Strings are prefixed with their UTF-8 length + 1, 0 standing for null.
+    private static void writeString(ByteBuf out, String value) {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        writeVarLong(out, ByteBufUtil.utf8Bytes(value) + 1L);
+        out.writeCharSequence(value, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuf in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > in.readableBytes()) {
+            throw new IOException("Truncated cache entry");
+        }
+        return in.readCharSequence((int) (length - 1), StandardCharsets.UTF_8).toString();
+    }
+
+    // Instants are written as nanos + 1 (0 standing for null) followed by the zigzag-encoded epoch second.
+    private static void writeInstant(ByteBuf out, Instant value) {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        writeVarLong(out, value.getNano() + 1L);
+        long seconds = value.getEpochSecond();
+        writeVarLong(out, (seconds << 1) ^ (seconds >> 63));
+    }
+
+    private static Instant readInstant(ByteBuf in) throws IOException {
+        long nanos = readVarLong(in);
+        if (nanos == 0) {
+            return null;
+        }
+        long zigzag = readVarLong(in);
+        return Instant.ofEpochSecond((zigzag >>> 1) ^ -(zigzag & 1), nanos - 1);
+    }
+
+    private static void writeVarLong(ByteBuf out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuf in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length number");
+    }
+}
@@ -0,0 +1,12 @@
+package vn.com.msb.config.cache;
+
+import java.io.Serializable;
+
+/**
+ * A cached value and the time at which it expires from the remote tier, stored by the caches refreshed ahead of
+ * expiration so that every node knows the age of the entries it reads.
+ *
+ * @param value the store value.
+ * @param expiresAt the expiration time, in milliseconds since the epoch.
+ */
+public record ExpiringValue(Object value, long expiresAt) implements Serializable {}
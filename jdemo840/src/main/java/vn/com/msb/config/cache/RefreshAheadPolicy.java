@@ -0,0 +1,64 @@
+package vn.com.msb.config.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides when a {@link TwoLevelCache} entry is reloaded before it expires.
+ * <p>
+ * Once an entry enters the refresh window, each read reloads it in the background with a probability growing
+ * linearly from 0 to 1 at its expiration, so that popular entries are refreshed early by a single caller while rarely
+ * read ones are simply left to expire.
+ */
+public class RefreshAheadPolicy {
+
+    private final Duration timeToLive;
+
+    private final Duration refreshWindow;
+
+    private final Executor executor;
+
+    private final Clock clock;
+
+    public RefreshAheadPolicy(Duration timeToLive, Duration refreshWindow, Executor executor) {
+        this(timeToLive, refreshWindow, executor, Clock.systemUTC());
+    }
+
+    RefreshAheadPolicy(Duration timeToLive, Duration refreshWindow, Executor executor, Clock clock) {
+        if (refreshWindow.isNegative() || refreshWindow.isZero() || refreshWindow.compareTo(timeToLive) >= 0) {
+            throw new IllegalArgumentException(
+                "The refresh window (" + refreshWindow + ") must be positive and shorter than the time to live (" + timeToLive + ")"
+            );
+        }
+        this.timeToLive = timeToLive;
+        this.refreshWindow = refreshWindow;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the expiration time of an entry written now, in milliseconds since the epoch.
+     */
+    public long expiresAt() {
+        return clock.millis() + timeToLive.toMillis();
+    }
+
+    /**
+     * @param expiresAt the expiration time of the entry read, in milliseconds since the epoch.
+     * @return {@code true} if the entry should be reloaded in the background.
+     */
+    public boolean shouldRefresh(long expiresAt) {
+        long remaining = expiresAt - clock.millis();
+        long window = refreshWindow.toMillis();
+        if (remaining >= window) {
+            return false;
+        }
+        return remaining <= 0 || ThreadLocalRandom.current().nextLong(window) >= remaining;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+}
@@ -0,0 +1,72 @@
+package vn.com.msb.config.cache;
+
+import java.util.Map;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.internal.SimpleCacheKeysFactory;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Hibernate second-level cache regions stored in the caches of a Spring {@link CacheManager}, so that they get the
+ * local tier, invalidation and metrics of the {@link TwoLevelCacheManager} caches.
+ * <p>
+ * Each region must be declared as a cache, with the name of the entity or of the collection role. Cache keys are the
+ * plain identifiers, as a region never holds more than one entity hierarchy or collection role.
+ */
+public class SpringCacheRegionFactory extends RegionFactoryTemplate {
+
+    private final CacheManager cacheManager;
+
+    public SpringCacheRegionFactory(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    protected CacheKeysFactory getImplicitCacheKeysFactory() {
+        return SimpleCacheKeysFactory.INSTANCE;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(
+        DomainDataRegionConfig regionConfig,
+        DomainDataRegionBuildingContext buildingContext
+    ) {
+        return new SpringCacheStorageAccess(getCache(regionConfig.getRegionName()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new SpringCacheStorageAccess(getCache(regionName));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new SpringCacheStorageAccess(getCache(regionName));
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        // The caches are managed by Spring
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        // The caches are managed by Spring
+    }
+
+    private Cache getCache(String regionName) {
+        Cache cache = cacheManager.getCache(regionName);
+        if (cache == null) {
+            throw new CacheException("No cache is declared for the second-level cache region " + regionName);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,66 @@
+package vn.com.msb.config.cache;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.cache.Cache;
+
+/**
+ * Storage of a {@link SpringCacheRegionFactory} region.
+ * <p>
+ * Entries loaded from the database are stored with {@link Cache#putIfAbsent(Object, Object)}, which does not make the
+ * {@link TwoLevelCache}s invalidate the copies of the other nodes.
+ */
+class SpringCacheStorageAccess implements DomainDataStorageAccess {
+
+    private final Cache cache;
+
+    SpringCacheStorageAccess(Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Cache.ValueWrapper value = cache.get(key);
+        return value == null ? null : value.get();
+    }
+
+    @Override
+    public void putFromLoad(Object key, Object value, SharedSessionContractImplementor session) {
+        cache.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        cache.evict(key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        cache.clear();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return cache.get(key) != null;
+    }
+
+    @Override
+    public void evictData() {
+        cache.clear();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        cache.evict(key);
+    }
+
+    @Override
+    public void release() {
+        // The cache is managed by Spring
+    }
+}
@@ -0,0 +1,370 @@
+package vn.com.msb.config.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+import vn.com.msb.domain.User;
+
+/**
+ * A {@link Cache} keeping a bounded, in-process copy (L1) of the entries of a remote cache (L2).
+ * <p>
+ * Reads are served from the local tier first and only go to the remote tier on a local miss. Every write is
+ * applied to both tiers and broadcast through the {@link CacheInvalidationTopic}, so that the other nodes drop
+ * their local copy and read the new value from the remote tier.
+ * <p>
+ * Misses going through {@link #get(Object, Callable)} are loaded once per key: concurrent callers on the same node
+ * wait for the load in flight, and the nodes of the cluster take turns through the {@link CacheLoadLock} (when
+ * given), each checking the remote tier again once it holds the lock.
+ * <p>
+ * With a {@link RefreshAheadPolicy}, entries are stored as {@link ExpiringValue}s and the entries read through
+ * {@link #get(Object, Callable)} close to their expiration are reloaded in the background, the callers getting the
+ * current value meanwhile. The remote tier must then reset the time to live of the entries it updates.
+ * <p>
+ * With local negative entries, the {@code null} values loaded or put are only stored by the local tier, which
+ * should expire them sooner than the other entries, and are neither written to the remote tier nor broadcast: each
+ * node remembers its own misses, and an eviction still drops them on every node.
+ * <p>
+ * {@link User} entities are stored as {@link CachedUser} snapshots and every read gets its own {@link User} instance.
+ * Other values held by the local tier are shared between callers, they must not be modified.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+
+    private final Cache remoteCache;
+
+    private final CacheInvalidationTopic invalidationTopic;
+
+    private final CacheLoadLock loadLock;
+
+    private final RefreshAheadPolicy refreshAhead;
+
+    private final boolean localNegativeEntries;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder localCoalescedLoads = new LongAdder();
+    private final LongAdder remoteCoalescedLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public TwoLevelCache(
+        String name,
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+        Cache remoteCache,
+        CacheInvalidationTopic invalidationTopic,
+        CacheLoadLock loadLock
+    ) {
+        this(name, localCache, remoteCache, invalidationTopic, loadLock, null);
+    }
+
+    public TwoLevelCache(
+        String name,
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+        Cache remoteCache,
+        CacheInvalidationTopic invalidationTopic,
+        CacheLoadLock loadLock,
+        RefreshAheadPolicy refreshAhead
+    ) {
+        this(name, localCache, remoteCache, invalidationTopic, loadLock, refreshAhead, false);
+    }
+
+    public TwoLevelCache(
+        String name,
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+        Cache remoteCache,
+        CacheInvalidationTopic invalidationTopic,
+        CacheLoadLock loadLock,
+        RefreshAheadPolicy refreshAhead,
+        boolean localNegativeEntries
+    ) {
+        super(true);
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationTopic = invalidationTopic;
+        this.loadLock = loadLock;
+        this.refreshAhead = refreshAhead;
+        this.localNegativeEntries = localNegativeEntries;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object storeValue = localCache.getIfPresent(key);
+        if (storeValue != null) {
+            localHits.increment();
+            return storeValue;
+        }
+        localMisses.increment();
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        storeValue = fromRemoteValue(remoteValue.get());
+        localCache.put(key, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object storeValue = lookup(key);
+        if (storeValue != null) {
+            if (refreshAhead != null && storeValue instanceof ExpiringValue value && refreshAhead.shouldRefresh(value.expiresAt())) {
+                refreshAsync(key, valueLoader, value.expiresAt());
+            }
+            return (T) fromStoreValue(storeValue);
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightLoad = inFlightLoads.putIfAbsent(key, load);
+        if (inFlightLoad != null) {
+            localCoalescedLoads.increment();
+            return (T) fromStoreValue(await(key, valueLoader, inFlightLoad));
+        }
+        try {
+            storeValue = loadLock == null
+                ? loadStoreValue(key, valueLoader)
+                : loadLock.callWithLock(name, key, () -> loadStoreValue(key, valueLoader));
+            load.complete(storeValue);
+            return (T) fromStoreValue(storeValue);
+        } catch (Throwable e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlightLoads.remove(key, load);
+        }
+    }
+
+    private Object loadStoreValue(Object key, Callable<?> valueLoader) throws Exception {
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue != null) {
+            // Loaded by another node while this one was waiting for the lock
+            remoteCoalescedLoads.increment();
+            Object storeValue = fromRemoteValue(remoteValue.get());
+            localCache.put(key, storeValue);
+            return storeValue;
+        }
+        Object storeValue = toStoreValue(valueLoader.call());
+        putStoreValue(key, storeValue);
+        return storeValue;
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader, long expiresAt) {
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (inFlightLoads.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        try {
+            refreshAhead
+                .getExecutor()
+                .execute(() -> {
+                    try {
+                        refresh.complete(
+                            loadLock == null
+                                ? refreshStoreValue(key, valueLoader, expiresAt)
+                                : loadLock.callWithLock(name, key, () -> refreshStoreValue(key, valueLoader, expiresAt))
+                        );
+                    } catch (Throwable e) {
+                        LOG.warn("Could not refresh {} in cache {}: {}", key, name, e.getMessage());
+                        refresh.completeExceptionally(e);
+                    } finally {
+                        inFlightLoads.remove(key, refresh);
+                    }
+                });
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Skipped the refresh of {} in cache {}: {}", key, name, e.getMessage());
+            inFlightLoads.remove(key, refresh);
+            refresh.completeExceptionally(e);
+        }
+    }
+
+    private Object refreshStoreValue(Object key, Callable<?> valueLoader, long expiresAt) throws Exception {
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue != null && remoteValue.get() instanceof ExpiringValue value && value.expiresAt() > expiresAt) {
+            // Refreshed by another node while this one was waiting for the lock
+            localCache.put(key, value);
+            return value;
+        }
+        Object storeValue = toStoreValue(valueLoader.call());
+        putStoreValue(key, storeValue);
+        refreshes.increment();
+        return storeValue;
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> load) {
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        putStoreValue(key, toStoreValue(value));
+    }
+
+    /**
+     * Store a value unless the remote tier already has one. As the value of the other nodes does not change, they are
+     * not notified.
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        ValueWrapper existingValue = remoteCache.putIfAbsent(key, super.fromStoreValue(storeValue));
+        if (existingValue != null) {
+            Object existingStoreValue = fromRemoteValue(existingValue.get());
+            localCache.put(key, existingStoreValue);
+            return toValueWrapper(existingStoreValue);
+        }
+        localCache.put(key, storeValue);
+        puts.increment();
+        return null;
+    }
+
+    private void putStoreValue(Object key, Object storeValue) {
+        if (localNegativeEntries && storeValue == NullValue.INSTANCE) {
+            localCache.put(key, storeValue);
+            puts.increment();
+            return;
+        }
+        remoteCache.put(key, super.fromStoreValue(storeValue));
+        localCache.put(key, storeValue);
+        puts.increment();
+        invalidationTopic.publishEvict(name, key);
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        Object storeValue = super.toStoreValue(userValue instanceof User user ? CachedUser.of(user) : userValue);
+        if (localNegativeEntries && storeValue == NullValue.INSTANCE) {
+            // Negative entries expire soon enough not to be refreshed
+            return storeValue;
+        }
+        return refreshAhead == null ? storeValue : new ExpiringValue(storeValue, refreshAhead.expiresAt());
+    }
+
+    private Object fromRemoteValue(Object remoteValue) {
+        if (remoteValue instanceof ExpiringValue) {
+            return remoteValue;
+        }
+        return super.toStoreValue(remoteValue instanceof User user ? CachedUser.of(user) : remoteValue);
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        Object value = super.fromStoreValue(storeValue instanceof ExpiringValue expiringValue ? expiringValue.value() : storeValue);
+        return value instanceof CachedUser cachedUser ? cachedUser.toUser() : value;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(key);
+        invalidationTopic.publishEvict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        invalidationTopic.publishClear(name);
+    }
+
+    /**
+     * Drop the local copy of an entry, after another node changed it.
+     *
+     * @param key the key of the entry.
+     */
+    public void evictLocal(Object key) {
+        localCache.invalidate(key);
+    }
+
+    /**
+     * Drop all local copies, after another node cleared the cache.
+     */
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    public long getLocalHitCount() {
+        return localHits.sum();
+    }
+
+    public long getLocalMissCount() {
+        return localMisses.sum();
+    }
+
+    public long getRemoteHitCount() {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMissCount() {
+        return remoteMisses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    /**
+     * @return the number of loads avoided by waiting for a load in flight on this node.
+     */
+    public long getLocalCoalescedLoadCount() {
+        return localCoalescedLoads.sum();
+    }
+
+    /**
+     * @return the number of loads avoided by reading the value another node loaded while holding the load lock.
+     */
+    public long getRemoteCoalescedLoadCount() {
+        return remoteCoalescedLoads.sum();
+    }
+
+    /**
+     * @return the number of entries reloaded ahead of their expiration.
+     */
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public long getLocalSize() {
+        return localCache.estimatedSize();
+    }
+
+    public long getLocalEvictionCount() {
+        return localCache.stats().evictionCount();
+    }
+}
@@ -0,0 +1,168 @@
+package vn.com.msb.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.cache.Cache;
+import org.springframework.cache.jcache.JCacheCache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.support.NullValue;
+import vn.com.msb.config.ApplicationProperties.Cache.ExpiryPolicy;
+import vn.com.msb.config.ApplicationProperties.Cache.Tier;
+
+/**
+ * {@link org.springframework.cache.CacheManager} creating each cache from its {@link CacheSpec}:
+ * <ul>
+ *     <li>{@link Tier#BOTH} caches wrap a cache of the JCache (Redis) cache manager into a {@link TwoLevelCache},</li>
+ *     <li>{@link Tier#LOCAL} caches are {@link TwoLevelCache}s without remote tier, so that evictions still reach
+ *     every node,</li>
+ *     <li>{@link Tier#REMOTE} caches are the JCache caches themselves.</li>
+ * </ul>
+ * The caches with a refresh window are refreshed ahead of their expiration on the given executor, and the caches with
+ * a negative time to live keep their {@code null} values in their local tier only, for that time.
+ */
+public class TwoLevelCacheManager extends AbstractCacheManager {
+
+    private final javax.cache.CacheManager remoteCacheManager;
+
+    private final Collection<String> localCacheNames;
+
+    private final Function<String, CacheSpec> cacheSpecs;
+
+    private final CacheInvalidationTopic invalidationTopic;
+
+    private final CacheLoadLock loadLock;
+
+    private final Executor refreshExecutor;
+
+    /**
+     * @param remoteCacheManager the cache manager holding the remote tier of the caches.
+     * @param localCacheNames the names of the {@link Tier#LOCAL} caches, which the remote cache manager does not know.
+     * @param cacheSpecs the settings of each cache, by cache name.
+     * @param invalidationTopic the topic sharing evictions between the nodes.
+     * @param loadLock the lock taken while loading an entry of a cache having a remote tier.
+     * @param refreshExecutor the executor refreshing entries ahead of their expiration.
+     */
+    public TwoLevelCacheManager(
+        javax.cache.CacheManager remoteCacheManager,
+        Collection<String> localCacheNames,
+        Function<String, CacheSpec> cacheSpecs,
+        CacheInvalidationTopic invalidationTopic,
+        CacheLoadLock loadLock,
+        Executor refreshExecutor
+    ) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localCacheNames = localCacheNames;
+        this.cacheSpecs = cacheSpecs;
+        this.invalidationTopic = invalidationTopic;
+        this.loadLock = loadLock;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        invalidationTopic.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return Stream.concat(StreamSupport.stream(remoteCacheManager.getCacheNames().spliterator(), false), localCacheNames.stream())
+            .distinct()
+            .map(this::createCache)
+            .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return remoteCacheManager.getCache(name) != null ? createCache(name) : null;
+    }
+
+    private Cache createCache(String name) {
+        CacheSpec spec = cacheSpecs.apply(name);
+        if (spec.tier() == Tier.REMOTE) {
+            return new JCacheCache(remoteCacheManager.getCache(name));
+        }
+        RefreshAheadPolicy refreshAhead = spec.refreshWindow() == null
+            ? null
+            : new RefreshAheadPolicy(spec.timeToLive(), spec.refreshWindow(), refreshExecutor);
+        if (spec.tier() == Tier.LOCAL) {
+            return new TwoLevelCache(
+                name,
+                createLocalCache(spec),
+                new NoOpCache(name),
+                invalidationTopic,
+                null,
+                refreshAhead,
+                spec.negativeTimeToLive() != null
+            );
+        }
+        return new TwoLevelCache(
+            name,
+            createLocalCache(spec),
+            new JCacheCache(remoteCacheManager.getCache(name)),
+            invalidationTopic,
+            loadLock,
+            refreshAhead,
+            spec.negativeTimeToLive() != null
+        );
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> createLocalCache(CacheSpec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(spec.maxEntries()).recordStats();
+        boolean expireAfterAccess = spec.expiryPolicy() == ExpiryPolicy.ACCESSED || spec.expiryPolicy() == ExpiryPolicy.TOUCHED;
+        if (spec.negativeTimeToLive() != null) {
+            builder.expireAfter(
+                new NegativeEntryExpiry(spec.localTimeToLive(), spec.tier() == Tier.LOCAL && expireAfterAccess, spec.negativeTimeToLive())
+            );
+        } else if (spec.localTimeToLive() != null) {
+            // The local copies of remote entries always expire after write, to bound the effect of a lost invalidation
+            if (spec.tier() == Tier.LOCAL && expireAfterAccess) {
+                builder.expireAfterAccess(spec.localTimeToLive());
+            } else {
+                builder.expireAfterWrite(spec.localTimeToLive());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Expires the {@code null} values after the negative time to live, and the other values as configured.
+     */
+    private record NegativeEntryExpiry(Duration timeToLive, boolean afterAccess, Duration negativeTimeToLive)
+        implements Expiry<Object, Object> {
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            if (value == NullValue.INSTANCE) {
+                return negativeTimeToLive.toNanos();
+            }
+            return timeToLive == null ? Long.MAX_VALUE : timeToLive.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return afterAccess && value != NullValue.INSTANCE ? timeToLive.toNanos() : currentDuration;
+        }
+    }
+
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (lookupCache(message.cacheName()) instanceof TwoLevelCache cache) {
+            if (message.key() == null) {
+                cache.clearLocal();
+            } else {
+                cache.evictLocal(message.key());
+            }
+        }
+    }
+}
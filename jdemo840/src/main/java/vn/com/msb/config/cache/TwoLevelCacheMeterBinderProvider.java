@@ -0,0 +1,98 @@
+package vn.com.msb.config.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import java.util.function.ToDoubleFunction;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Exposes the statistics of the {@link TwoLevelCache}s.
+ * <p>
+ * On top of the standard {@code cache.*} meters, {@code cache.tier.gets} counts the hits and misses of each tier,
+ * tagged with {@code tier=local|remote}, and {@code cache.load.coalesced} counts the callers which got a missing
+ * entry from a load already in flight, tagged with {@code scope=local|remote}. {@code cache.refreshes} counts the
+ * entries reloaded ahead of their expiration.
+ */
+public class TwoLevelCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoLevelCache> {
+
+    public static final String TIER_GETS_METER_NAME = "cache.tier.gets";
+
+    public static final String COALESCED_LOADS_METER_NAME = "cache.load.coalesced";
+
+    public static final String REFRESHES_METER_NAME = "cache.refreshes";
+
+    @Override
+    public MeterBinder getMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+        return new TwoLevelCacheMetrics(cache, tags);
+    }
+
+    static class TwoLevelCacheMetrics extends CacheMeterBinder<TwoLevelCache> {
+
+        TwoLevelCacheMetrics(TwoLevelCache cache, Iterable<Tag> tags) {
+            super(cache, cache.getName(), tags);
+        }
+
+        @Override
+        protected Long size() {
+            return getCache() == null ? null : getCache().getLocalSize();
+        }
+
+        @Override
+        protected long hitCount() {
+            return getCache() == null ? 0 : getCache().getLocalHitCount() + getCache().getRemoteHitCount();
+        }
+
+        @Override
+        protected Long missCount() {
+            return getCache() == null ? null : getCache().getRemoteMissCount();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return getCache() == null ? null : getCache().getLocalEvictionCount();
+        }
+
+        @Override
+        protected long putCount() {
+            return getCache() == null ? 0 : getCache().getPutCount();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            TwoLevelCache cache = getCache();
+            if (cache == null) {
+                return;
+            }
+            tierGets(registry, cache, "local", "hit", TwoLevelCache::getLocalHitCount);
+            tierGets(registry, cache, "local", "miss", TwoLevelCache::getLocalMissCount);
+            tierGets(registry, cache, "remote", "hit", TwoLevelCache::getRemoteHitCount);
+            tierGets(registry, cache, "remote", "miss", TwoLevelCache::getRemoteMissCount);
+            coalescedLoads(registry, cache, "local", TwoLevelCache::getLocalCoalescedLoadCount);
+            coalescedLoads(registry, cache, "remote", TwoLevelCache::getRemoteCoalescedLoadCount);
+            FunctionCounter.builder(REFRESHES_METER_NAME, cache, TwoLevelCache::getRefreshCount)
+                .tags(getTagsWithCacheName())
+                .description("The number of entries reloaded ahead of their expiration")
+                .register(registry);
+        }
+
+        private void tierGets(MeterRegistry registry, TwoLevelCache cache, String tier, String result, ToDoubleFunction<TwoLevelCache> f) {
+            FunctionCounter.builder(TIER_GETS_METER_NAME, cache, f)
+                .tags(getTagsWithCacheName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .description("The number of times cache lookup methods have returned a cached (hit) or uncached (miss) value, per tier")
+                .register(registry);
+        }
+
+        private void coalescedLoads(MeterRegistry registry, TwoLevelCache cache, String scope, ToDoubleFunction<TwoLevelCache> f) {
+            FunctionCounter.builder(COALESCED_LOADS_METER_NAME, cache, f)
+                .tags(getTagsWithCacheName())
+                .tag("scope", scope)
+                .description("The number of cache misses served by a load in flight on this node (local) or on another node (remote)")
+                .register(registry);
+        }
+    }
+}
@@ -13,16 +13,28 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String THROTTLED_REQUESTS_METER_NAME = "security.authentication.throttled-requests";
+    public static final String THROTTLED_REQUESTS_METER_DESCRIPTION =
+        "Indicates the count of the login and password reset requests rejected for exceeding a limit.";
+    public static final String THROTTLED_REQUESTS_METER_BASE_UNIT = "requests";
+    public static final String THROTTLED_REQUESTS_METER_LIMIT_DIMENSION = "limit";
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
+    private final Counter loginThrottledByIpCounter;
+    private final Counter loginThrottledByLoginCounter;
+    private final Counter passwordResetThrottledCounter;
 
     public SecurityMetersService(MeterRegistry registry) {
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.loginThrottledByIpCounter = throttledRequestsCounterForLimitBuilder("login-by-ip").register(registry);
+        this.loginThrottledByLoginCounter = throttledRequestsCounterForLimitBuilder("login-failures-by-login").register(registry);
+        this.passwordResetThrottledCounter = throttledRequestsCounterForLimitBuilder("password-reset").register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -32,6 +44,13 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder throttledRequestsCounterForLimitBuilder(String limit) {
+        return Counter.builder(THROTTLED_REQUESTS_METER_NAME)
+            .baseUnit(THROTTLED_REQUESTS_METER_BASE_UNIT)
+            .description(THROTTLED_REQUESTS_METER_DESCRIPTION)
+            .tag(THROTTLED_REQUESTS_METER_LIMIT_DIMENSION, limit);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -47,4 +66,16 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackLoginThrottledByIp() {
+        this.loginThrottledByIpCounter.increment();
+    }
+
+    public void trackLoginThrottledByLogin() {
+        this.loginThrottledByLoginCounter.increment();
+    }
+
+    public void trackPasswordResetThrottled() {
+        this.passwordResetThrottledCounter.increment();
+    }
 }
@@ -0,0 +1,41 @@
+package vn.com.msb.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.com.msb.domain.RefreshToken;
+
+/**
+ * Spring Data JPA repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    @EntityGraph(attributePaths = "user")
+    Optional<RefreshToken> findOneWithUserByTokenHash(String tokenHash);
+
+    /**
+     * Revoke a token unless another request already did.
+     *
+     * @return 1 if this call revoked the token, 0 otherwise.
+     */
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.id = :id and t.revoked = false")
+    int revokeById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.family = :family and t.revoked = false")
+    int revokeAllByFamily(@Param("family") String family);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.user.id = :userId and t.revoked = false")
+    int revokeAllByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteAllByExpiresAtBefore(@Param("now") Instant now);
+}
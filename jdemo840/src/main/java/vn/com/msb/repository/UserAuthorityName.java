@@ -0,0 +1,9 @@
+package vn.com.msb.repository;
+
+/**
+ * The name of an authority of a user, selected without loading either of them.
+ *
+ * @param userId the id of the user.
+ * @param authorityName the name of the authority.
+ */
+public record UserAuthorityName(Long userId, String authorityName) {}
@@ -0,0 +1,10 @@
+package vn.com.msb.repository;
+
+/**
+ * The keys of a user in the user caches, selected without loading the user.
+ *
+ * @param id the id of the user.
+ * @param login the login of the user, key of {@link UserRepository#USERS_BY_LOGIN_CACHE}.
+ * @param email the email of the user, key of {@link UserRepository#USERS_BY_EMAIL_CACHE}.
+ */
+public record UserCacheKeys(Long id, String login, String email) {}
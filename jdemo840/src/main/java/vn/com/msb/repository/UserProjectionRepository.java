@@ -0,0 +1,55 @@
+package vn.com.msb.repository;
+
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import vn.com.msb.domain.User;
+
+/**
+ * Projections of the {@link User} entity, by page, by keyset or streamed, see {@link UserProjectionRepositoryImpl}.
+ * <p>
+ * The projections are constructed with the persistence creator of their type, whose parameters are named after the
+ * properties of the users.
+ */
+public interface UserProjectionRepository {
+    /**
+     * Find a page of users, projected on a type constructed from their columns.
+     *
+     * @param pageable the page of the users.
+     * @param activatedOnly whether only the activated users are returned.
+     * @param type the type of the projections.
+     * @param <T> the type of the projections.
+     * @return the projections.
+     */
+    <T> Page<T> findAllProjected(Pageable pageable, boolean activatedOnly, Class<T> type);
+
+    /**
+     * Find the users following a position, projected on a type constructed from their columns.
+     *
+     * @param position the keys of the last user of the previous window, or the initial position.
+     * @param sort the order of the users, followed by their id.
+     * @param limit the maximum number of users.
+     * @param activatedOnly whether only the activated users are returned.
+     * @param type the type of the projections.
+     * @param <T> the type of the projections.
+     * @return the projections, whose positions carry the values of the sort properties and of the id.
+     */
+    <T> Window<T> findAllByKeyset(KeysetScrollPosition position, Sort sort, int limit, boolean activatedOnly, Class<T> type);
+
+    /**
+     * Stream all the users, ordered by id, projected on a type constructed from their columns, with the names of their
+     * authorities.
+     * <p>
+     * The users are read through a forward-only cursor of a stateless session, in a read-only transaction of its own:
+     * the rows are fetched by {@code hibernate.jdbc.fetch_size} as they are consumed, and none of them is kept.
+     *
+     * @param type the type of the projections.
+     * @param consumer the consumer of each projection and of the names of the authorities of its user.
+     * @param <T> the type of the projections.
+     */
+    <T> void streamAllWithAuthorityNames(Class<T> type, BiConsumer<T, Set<String>> consumer);
+}
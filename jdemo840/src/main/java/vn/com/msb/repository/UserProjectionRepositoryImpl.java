@@ -0,0 +1,227 @@
+package vn.com.msb.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.model.PreferredConstructorDiscoverer;
+import org.springframework.data.support.PageableExecutionUtils;
+import vn.com.msb.domain.User;
+
+/**
+ * Projections of the users: only the columns of the persistence creator of the requested type are selected, and no
+ * entity is loaded into the persistence context. The queries are written as JPQL, whose interpretation Hibernate
+ * caches, rather than built with the criteria API on every call as the derived queries of Spring Data are.
+ * <p>
+ * With keyset pagination, each window starts after the sort keys of the last user of the previous one, so that the
+ * database seeks to it instead of reading and discarding the rows of the previous windows, and no count is run. The id
+ * ends the order, to tell apart the users with the same sort keys. Most of the sortable properties are nullable, and
+ * the databases order the nulls differently: the nulls are ordered last, and the predicate of the next window matches
+ * them explicitly.
+ * <p>
+ * The exports stream the users with their authorities in a single query, whose rows are grouped by user as they are
+ * read.
+ */
+class UserProjectionRepositoryImpl implements UserProjectionRepository {
+
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    UserProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public <T> Page<T> findAllProjected(Pageable pageable, boolean activatedOnly, Class<T> type) {
+        PreferredConstructor<T, ?> constructor = persistenceCreator(type);
+        List<String> selection = new ArrayList<>();
+        constructor.getParameters().forEach(parameter -> selection.add(parameter.getName()));
+
+        String from = activatedOnly ? " from User u where u.activated = true" : " from User u";
+        StringBuilder jpql = select(selection).append(from);
+        appendOrderBy(jpql, pageable.getSort().toList(), false);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        if (pageable.isPaged()) {
+            query.setFirstResult(Math.toIntExact(pageable.getOffset())).setMaxResults(pageable.getPageSize());
+        }
+        List<T> content = instantiate(constructor, query.getResultList());
+        return PageableExecutionUtils.getPage(content, pageable, () ->
+            entityManager.createQuery("select count(u)" + from, Long.class).getSingleResult()
+        );
+    }
+
+    @Override
+    public <T> Window<T> findAllByKeyset(KeysetScrollPosition position, Sort sort, int limit, boolean activatedOnly, Class<T> type) {
+        PreferredConstructor<T, ?> constructor = persistenceCreator(type);
+        List<Sort.Order> orders = new ArrayList<>();
+        sort.filter(order -> !ID.equals(order.getProperty())).forEach(orders::add);
+        Sort.Order idOrder = sort.getOrderFor(ID);
+        orders.add(idOrder != null ? idOrder : Sort.Order.asc(ID));
+
+        // The parameters of the constructor, followed by the sort properties they miss to locate the next window
+        List<String> selection = new ArrayList<>();
+        constructor.getParameters().forEach(parameter -> selection.add(parameter.getName()));
+        orders.stream().map(Sort.Order::getProperty).filter(property -> !selection.contains(property)).forEach(selection::add);
+
+        StringBuilder jpql = select(selection).append(" from User u where 1 = 1");
+        if (activatedOnly) {
+            jpql.append(" and u.activated = true");
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        if (!position.isInitial()) {
+            jpql.append(" and (").append(afterPredicate(orders, position.getKeys(), parameters)).append(')');
+        }
+        appendOrderBy(jpql, orders, true);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        parameters.forEach(query::setParameter);
+        // One more user tells whether there is a next window
+        List<Object[]> rows = query.setMaxResults(limit + 1).getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<Object[]> window = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(instantiate(constructor, window), index -> positionOf(window.get(index), selection, orders), hasNext);
+    }
+
+    @Override
+    public <T> void streamAllWithAuthorityNames(Class<T> type, BiConsumer<T, Set<String>> consumer) {
+        PreferredConstructor<T, ?> constructor = persistenceCreator(type);
+        List<String> selection = new ArrayList<>();
+        constructor.getParameters().forEach(parameter -> selection.add(parameter.getName()));
+        if (!selection.contains(ID)) {
+            selection.add(ID);
+        }
+        int idIndex = selection.indexOf(ID);
+        int authorityIndex = selection.size();
+        // The rows of the authorities of a user follow each other, and are gathered before reading the next user
+        String jpql = select(selection).append(", a.name from User u left join u.authorities a order by u.id").toString();
+
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.doWork(connection -> connection.setReadOnly(true));
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Object[]> rows = session.createSelectionQuery(jpql, Object[].class).scroll(ScrollMode.FORWARD_ONLY)) {
+                Object[] user = null;
+                Set<String> authorities = null;
+                while (rows.next()) {
+                    Object[] row = rows.get();
+                    if (user == null || !user[idIndex].equals(row[idIndex])) {
+                        if (user != null) {
+                            consumer.accept(instantiate(constructor, user), authorities);
+                        }
+                        user = row;
+                        authorities = new LinkedHashSet<>();
+                    }
+                    if (row[authorityIndex] != null) {
+                        authorities.add((String) row[authorityIndex]);
+                    }
+                }
+                if (user != null) {
+                    consumer.accept(instantiate(constructor, user), authorities);
+                }
+            } finally {
+                // Nothing was written
+                transaction.rollback();
+            }
+        }
+    }
+
+    private static <T> PreferredConstructor<T, ?> persistenceCreator(Class<T> type) {
+        PreferredConstructor<T, ?> constructor = PreferredConstructorDiscoverer.discover(type);
+        if (constructor == null) {
+            throw new IllegalArgumentException("No persistence creator found on " + type.getName());
+        }
+        return constructor;
+    }
+
+    private static <T> List<T> instantiate(PreferredConstructor<T, ?> constructor, List<Object[]> rows) {
+        List<T> content = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            content.add(instantiate(constructor, row));
+        }
+        return content;
+    }
+
+    private static <T> T instantiate(PreferredConstructor<T, ?> constructor, Object[] row) {
+        int parameterCount = constructor.getParameterCount();
+        Object[] arguments = row.length == parameterCount ? row : Arrays.copyOf(row, parameterCount);
+        return BeanUtils.instantiateClass(constructor.getConstructor(), arguments);
+    }
+
+    private StringBuilder select(List<String> selection) {
+        StringBuilder jpql = new StringBuilder("select ");
+        for (int i = 0; i < selection.size(); i++) {
+            jpql.append(i > 0 ? ", " : "").append(path(selection.get(i)));
+        }
+        return jpql;
+    }
+
+    private void appendOrderBy(StringBuilder jpql, List<Sort.Order> orders, boolean nullsLast) {
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            jpql.append(i > 0 ? ", " : " order by ").append(path(order.getProperty())).append(order.isAscending() ? " asc" : " desc");
+            if (nullsLast) {
+                jpql.append(" nulls last");
+            }
+        }
+    }
+
+    /*
+     * (p1 after v1) or (p1 = v1 and p2 after v2) or ... (p1 = v1 and ... and id after vid), where "p after v" is
+     * "p > v or p is null" in ascending order, and nothing follows a null but the other nulls.
+     */
+    private String afterPredicate(List<Sort.Order> orders, Map<String, Object> keys, Map<String, Object> parameters) {
+        List<String> disjunction = new ArrayList<>();
+        StringBuilder equalPrefix = new StringBuilder();
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            String path = path(order.getProperty());
+            Object value = keys.get(order.getProperty());
+            String parameter = "k" + i;
+            if (value != null) {
+                parameters.put(parameter, value);
+                String after = path + (order.isAscending() ? " > :" : " < :") + parameter;
+                disjunction.add(equalPrefix + (ID.equals(order.getProperty()) ? after : "(" + after + " or " + path + " is null)"));
+                equalPrefix.append(path).append(" = :").append(parameter).append(" and ");
+            } else {
+                equalPrefix.append(path).append(" is null and ");
+            }
+        }
+        return disjunction.isEmpty() ? "1 = 0" : String.join(" or ", disjunction);
+    }
+
+    private String path(String property) {
+        // The properties are written into the queries, only the attributes of the users are accepted
+        entityManager.getMetamodel().entity(User.class).getAttribute(property);
+        return "u." + property;
+    }
+
+    private static ScrollPosition positionOf(Object[] row, List<String> selection, List<Sort.Order> orders) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : orders) {
+            keys.put(order.getProperty(), row[selection.indexOf(order.getProperty())]);
+        }
+        return ScrollPosition.forward(keys);
+    }
+}
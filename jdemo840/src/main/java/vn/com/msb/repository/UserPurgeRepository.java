@@ -0,0 +1,21 @@
+package vn.com.msb.repository;
+
+import java.util.Collection;
+import java.util.List;
+import vn.com.msb.domain.User;
+
+/**
+ * Bulk deletions of the {@link User} entity, see {@link UserPurgeRepositoryImpl}.
+ */
+public interface UserPurgeRepository {
+    /**
+     * Delete users that are still not activated, with their authorities, without loading them.
+     * <p>
+     * Runs in the transaction of the caller, or in one of its own, which locks the users still not activated until it
+     * ends: a user activated in the meantime is neither deleted nor reported.
+     *
+     * @param ids the ids of the users, at most 1000 as Oracle does not accept longer lists.
+     * @return the ids of the deleted users, fewer than the given ids if some were activated in the meantime.
+     */
+    List<Long> deleteNotActivatedByIdIn(Collection<Long> ids);
+}
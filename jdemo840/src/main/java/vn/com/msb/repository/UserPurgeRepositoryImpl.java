@@ -0,0 +1,44 @@
+package vn.com.msb.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.Cache;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.msb.domain.User;
+
+/**
+ * The users still not activated are selected and locked first, so that the ids of the deleted users are known and
+ * none of them can be activated before it is deleted. They are then deleted by two statements: Hibernate deletes the
+ * rows of {@code jhi_user_authority} of the users before the users themselves. The bulk statements bypass the
+ * second-level cache, whose region of the authorities of the users is evicted: the entries of the deleted users would
+ * otherwise stay until they expire. The refresh tokens of the users are deleted by the database, on cascade.
+ */
+class UserPurgeRepositoryImpl implements UserPurgeRepository {
+
+    private static final String AUTHORITIES_ROLE = User.class.getName() + ".authorities";
+
+    private final EntityManager entityManager;
+
+    UserPurgeRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> deleteNotActivatedByIdIn(Collection<Long> ids) {
+        List<Long> notActivatedIds = entityManager
+            .createQuery("select u.id from User u where u.id in :ids and u.activated = false", Long.class)
+            .setParameter("ids", ids)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .getResultList();
+        if (notActivatedIds.isEmpty()) {
+            return notActivatedIds;
+        }
+        entityManager.createQuery("delete from User u where u.id in :ids").setParameter("ids", notActivatedIds).executeUpdate();
+        // One invalidation for all the users, rather than one per user sent to every node
+        entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class).evictCollectionData(AUTHORITIES_ROLE);
+        return notActivatedIds;
+    }
+}
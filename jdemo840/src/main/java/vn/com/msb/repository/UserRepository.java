@@ -1,12 +1,15 @@
 package vn.com.msb.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vn.com.msb.domain.User;
 
@@ -14,23 +17,49 @@ import vn.com.msb.domain.User;
  * Spring Data JPA repository for the {@link User} entity.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserProjectionRepository, UserPurgeRepository {
     String USERS_BY_LOGIN_CACHE = "usersByLogin";
 
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
     Optional<User> findOneByActivationKey(String activationKey);
     List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
+
+    @Query(
+        "select new vn.com.msb.repository.UserCacheKeys(u.id, u.login, u.email) from User u" +
+        " where u.activated = false and u.activationKey is not null and u.createdDate < :createdBefore and u.id > :afterId" +
+        " order by u.id"
+    )
+    List<UserCacheKeys> findNotActivatedUsersCreatedBefore(
+        @Param("createdBefore") Instant createdBefore,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
     Optional<User> findOneByResetKey(String resetKey);
     Optional<User> findOneByEmailIgnoreCase(String email);
     Optional<User> findOneByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, sync = true)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE)
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, sync = true)
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
-    Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+    @Query("select new vn.com.msb.repository.UserAuthorityName(u.id, a.name) from User u join u.authorities a where u.id in :ids")
+    List<UserAuthorityName> findAllAuthorityNamesByUserIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select u.login from User u where u.login in :logins")
+    List<String> findAllLoginsByLoginIn(@Param("logins") Collection<String> logins);
+
+    // The emails are stored in lower case, and compared as they are to use their unique index
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findAllEmailsByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query("select u.id from User u where u.activated = true order by u.lastModifiedDate desc nulls last")
+    List<Long> findIdsOfLastModifiedActivatedUsers(Pageable pageable);
+
+    @EntityGraph(attributePaths = "authorities")
+    List<User> findAllWithAuthoritiesByIdIn(Collection<Long> ids);
 }
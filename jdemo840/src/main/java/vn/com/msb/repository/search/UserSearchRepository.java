@@ -1,6 +1,8 @@
 package vn.com.msb.repository.search;
 
+import co.elastic.clients.elasticsearch._types.query_dsl.IdsQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import java.util.List;
 import java.util.stream.Stream;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
@@ -23,9 +25,26 @@ interface UserSearchRepositoryInternal {
     @Transactional
     void index(User entity);
 
+    /**
+     * Index users in a single bulk request, as they are: unlike {@link #index(User)}, they are not read again from the
+     * database, so their authorities must be initialized.
+     *
+     * @param entities the users.
+     */
+    @Async
+    void indexAll(List<User> entities);
+
     @Async
     @Transactional
     void deleteFromIndex(User entity);
+
+    /**
+     * Delete users from the index with a single delete-by-query request.
+     *
+     * @param ids the ids of the users.
+     */
+    @Async
+    void deleteAllFromIndex(List<Long> ids);
 }
 
 class UserSearchRepositoryInternalImpl implements UserSearchRepositoryInternal {
@@ -49,8 +68,19 @@ class UserSearchRepositoryInternalImpl implements UserSearchRepositoryInternal {
         repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
     }
 
+    @Override
+    public void indexAll(List<User> entities) {
+        elasticsearchTemplate.save(entities);
+    }
+
     @Override
     public void deleteFromIndex(User entity) {
         elasticsearchTemplate.delete(entity);
     }
+
+    @Override
+    public void deleteAllFromIndex(List<Long> ids) {
+        List<String> values = ids.stream().map(String::valueOf).toList();
+        elasticsearchTemplate.delete(new NativeQuery(IdsQuery.of(q -> q.values(values))._toQuery()), User.class);
+    }
 }
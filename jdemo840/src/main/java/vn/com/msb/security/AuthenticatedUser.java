@@ -0,0 +1,66 @@
+package vn.com.msb.security;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * The user of a request authenticated by an access token, as described by the claims of the token.
+ * <p>
+ * Building it takes no lookup: the claims may be as old as the token, which is what the endpoints annotated with
+ * {@link FreshUser} check.
+ */
+public final class AuthenticatedUser implements AuthenticatedPrincipal, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String login;
+
+    private final Set<String> authorities;
+
+    private final Jwt token;
+
+    public AuthenticatedUser(Long id, String login, Set<String> authorities, Jwt token) {
+        this.id = id;
+        this.login = login;
+        this.authorities = Set.copyOf(authorities);
+        this.token = token;
+    }
+
+    /**
+     * @return the id of the user, or {@code null} for the tokens issued before it was added to the claims.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    @Override
+    public String getName() {
+        return login;
+    }
+
+    public Set<String> getAuthorities() {
+        return authorities;
+    }
+
+    public Map<String, Object> getClaims() {
+        return token.getClaims();
+    }
+
+    public Jwt getToken() {
+        return token;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{id=" + id + ", login='" + login + "', authorities=" + authorities + "}";
+    }
+}
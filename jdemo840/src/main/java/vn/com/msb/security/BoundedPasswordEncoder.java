@@ -0,0 +1,161 @@
+package vn.com.msb.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} running another, deliberately slow, encoder on its own pool of threads, so that a burst of
+ * logins cannot take the CPU away from the other requests.
+ * <p>
+ * At most {@code poolSize} passwords are hashed at the same time, and at most {@code queueCapacity} wait for their
+ * turn: beyond that, the password is not hashed at all and a {@link PasswordEncoderBusyException} is thrown, which the
+ * REST API turns into {@code 429 Too Many Requests}.
+ * <p>
+ * {@value #QUEUE_WAIT_METER_NAME} times the wait of the passwords in the queue, {@value #REJECTED_METER_NAME} counts
+ * the rejected passwords, and the usual {@code executor.*} meters of the {@value #EXECUTOR_NAME} executor give the
+ * state of the pool.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    public static final String EXECUTOR_NAME = "passwordEncoder";
+
+    public static final String QUEUE_WAIT_METER_NAME = "security.password.queue.wait";
+
+    public static final String REJECTED_METER_NAME = "security.password.rejected";
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private Timer queueWaitTimer;
+
+    private Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("password-encoder-")
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        queueWaitTimer = Timer.builder(QUEUE_WAIT_METER_NAME)
+            .description("Time spent by the passwords waiting to be hashed")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        rejectedCounter = Counter.builder(REJECTED_METER_NAME)
+            .description("Number of passwords rejected because too many were waiting to be hashed")
+            .register(registry);
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Collections.emptyList()).bindTo(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hash several passwords in parallel, on at most half of the threads of the pool so that the logins keep the others.
+     *
+     * @param rawPasswords the passwords.
+     * @return the hashes, in the order of the passwords.
+     * @throws PasswordEncoderBusyException if the queue is full of the passwords of other requests.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int parallelism = Math.max(1, executor.getMaximumPoolSize() / 2);
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                if (futures.size() - encoded.size() == parallelism) {
+                    encoded.add(await(futures.get(encoded.size())));
+                }
+                futures.add(submit(() -> delegate.encode(rawPassword)));
+            }
+            while (encoded.size() < futures.size()) {
+                encoded.add(await(futures.get(encoded.size())));
+            }
+        } catch (RuntimeException e) {
+            futures.subList(encoded.size(), futures.size()).forEach(future -> future.cancel(true));
+            throw e;
+        }
+        return encoded;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T call(Callable<T> task) {
+        return await(submit(task));
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                if (queueWaitTimer != null) {
+                    queueWaitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                }
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            if (rejectedCounter != null) {
+                rejectedCounter.increment();
+            }
+            throw new PasswordEncoderBusyException("Too many passwords waiting to be hashed", e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordEncoderBusyException("Interrupted while waiting for the password to be hashed", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Stop the threads, once the passwords being hashed are.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
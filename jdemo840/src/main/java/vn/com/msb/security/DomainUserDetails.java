@@ -0,0 +1,25 @@
+package vn.com.msb.security;
+
+import java.util.Collection;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * The {@link org.springframework.security.core.userdetails.UserDetails} of a user of the database, which carries its
+ * id into the access tokens.
+ */
+public class DomainUserDetails extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    public DomainUserDetails(Long id, String login, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(login, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,19 @@
+package vn.com.msb.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the endpoints that cannot trust the claims of the access token to be current.
+ * <p>
+ * Before such an endpoint runs, {@link FreshUserInterceptor} checks that the user is still activated and still has the
+ * authorities of its token. Otherwise the request gets a {@code 401 (Unauthorized)} response, and the client refreshes
+ * its token to get the current authorities. The other endpoints trust the token until it expires.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface FreshUser {}
@@ -0,0 +1,56 @@
+package vn.com.msb.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import vn.com.msb.domain.Authority;
+import vn.com.msb.domain.User;
+import vn.com.msb.repository.UserRepository;
+
+/**
+ * Checks the user of the endpoints annotated with {@link FreshUser} against the database, through the cache of the
+ * users by login which is evicted on every change of a user.
+ * <p>
+ * Only the users authenticated by an access token are checked, the others were just loaded from the database.
+ */
+public class FreshUserInterceptor implements HandlerInterceptor {
+
+    private final Logger log = LoggerFactory.getLogger(FreshUserInterceptor.class);
+
+    private final UserRepository userRepository;
+
+    public FreshUserInterceptor(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (
+            handler instanceof HandlerMethod handlerMethod &&
+            (handlerMethod.hasMethodAnnotation(FreshUser.class) || handlerMethod.getBeanType().isAnnotationPresent(FreshUser.class))
+        ) {
+            SecurityUtils.getCurrentUser().ifPresent(this::check);
+        }
+        return true;
+    }
+
+    private void check(AuthenticatedUser authenticatedUser) {
+        Optional<User> user = userRepository.findOneWithAuthoritiesByLogin(authenticatedUser.getLogin());
+        if (user.isEmpty() || !user.orElseThrow().isActivated()) {
+            log.debug("User {} was deleted or deactivated since its token was issued", authenticatedUser.getLogin());
+            throw new BadCredentialsException("User not found or not activated");
+        }
+        Set<String> authorities = user.orElseThrow().getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
+        if (!authorities.equals(authenticatedUser.getAuthorities())) {
+            log.debug("Authorities of User {} changed since its token was issued", authenticatedUser.getLogin());
+            throw new BadCredentialsException("Authorities changed");
+        }
+    }
+}
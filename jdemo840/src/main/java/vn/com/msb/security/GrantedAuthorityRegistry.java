@@ -0,0 +1,97 @@
+package vn.com.msb.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Shared, immutable {@link GrantedAuthority} instances, and the authorities of each authorities claim value.
+ * <p>
+ * A request authenticated by a token used to split the authorities claim and allocate an authority per name. The
+ * values of the claim are few, one per combination of authorities, so their authorities are now built once and then
+ * looked up. Beyond {@code maxEntries} names or claim values, the new ones are built on each call instead of cached.
+ */
+public final class GrantedAuthorityRegistry {
+
+    private static final Authorities NONE = new Authorities(List.of(), Set.of());
+
+    private final int maxEntries;
+
+    private final ConcurrentMap<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Object, Authorities> authoritiesByClaim = new ConcurrentHashMap<>();
+
+    /**
+     * The authorities of a claim value.
+     *
+     * @param authorities the shared authorities, in the order of the claim.
+     * @param names their names.
+     */
+    public record Authorities(List<GrantedAuthority> authorities, Set<String> names) {}
+
+    public GrantedAuthorityRegistry(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param name the name of an authority.
+     * @return the shared authority of this name.
+     */
+    public GrantedAuthority authority(String name) {
+        GrantedAuthority authority = authorities.get(name);
+        if (authority != null) {
+            return authority;
+        }
+        if (authorities.size() >= maxEntries) {
+            return new SimpleGrantedAuthority(name);
+        }
+        return authorities.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * @param claim the value of an authorities claim: names separated by spaces, or a collection of names.
+     * @return the authorities of the claim, none if the claim is neither.
+     */
+    public Authorities fromClaim(Object claim) {
+        if (!(claim instanceof String) && !(claim instanceof Collection<?>)) {
+            return NONE;
+        }
+        Authorities cached = authoritiesByClaim.get(claim);
+        if (cached != null) {
+            return cached;
+        }
+        Authorities built;
+        if (claim instanceof String names) {
+            built = build(List.of(names.split(" ")));
+        } else {
+            built = build((Collection<?>) claim);
+        }
+        if (authoritiesByClaim.size() < maxEntries) {
+            // A collection claim may be mutable, a copy is the key
+            Object key = claim instanceof Collection<?> names ? new ArrayList<>(names) : claim;
+            authoritiesByClaim.putIfAbsent(key, built);
+        }
+        return built;
+    }
+
+    private Authorities build(Collection<?> names) {
+        List<GrantedAuthority> grantedAuthorities = new ArrayList<>(names.size());
+        Set<String> uniqueNames = new LinkedHashSet<>();
+        for (Object name : names) {
+            if (name instanceof String authorityName && !authorityName.isBlank() && uniqueNames.add(authorityName)) {
+                grantedAuthorities.add(authority(authorityName));
+            }
+        }
+        return new Authorities(List.copyOf(grantedAuthorities), Set.copyOf(uniqueNames));
+    }
+
+    int size() {
+        return authoritiesByClaim.size();
+    }
+}
@@ -0,0 +1,21 @@
+package vn.com.msb.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown when too many passwords are waiting to be hashed, see {@link BoundedPasswordEncoder}.
+ */
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Too many authentication requests")
+public class PasswordEncoderBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordEncoderBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordEncoderBusyException(String message, Throwable t) {
+        super(message, t);
+    }
+}
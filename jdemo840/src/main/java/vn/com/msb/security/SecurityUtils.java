@@ -20,6 +20,8 @@ public final class SecurityUtils {
 
     public static final String AUTHORITIES_KEY = "auth";
 
+    public static final String USER_ID_KEY = "uid";
+
     private SecurityUtils() {}
 
     /**
@@ -35,6 +37,8 @@ public final class SecurityUtils {
     private static String extractPrincipal(Authentication authentication) {
         if (authentication == null) {
             return null;
+        } else if (authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.getLogin();
         } else if (authentication.getPrincipal() instanceof UserDetails springSecurityUser) {
             return springSecurityUser.getUsername();
         } else if (authentication.getPrincipal() instanceof Jwt jwt) {
@@ -45,6 +49,18 @@ public final class SecurityUtils {
         return null;
     }
 
+    /**
+     * Get the current user, when authenticated by an access token.
+     *
+     * @return the current user, as described by the claims of its token.
+     */
+    public static Optional<AuthenticatedUser> getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser
+            ? Optional.of(authenticatedUser)
+            : Optional.empty();
+    }
+
     /**
      * Get the JWT of the current user.
      *
@@ -0,0 +1,40 @@
+package vn.com.msb.security.jwt;
+
+import static vn.com.msb.security.SecurityUtils.AUTHORITIES_KEY;
+import static vn.com.msb.security.SecurityUtils.USER_ID_KEY;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import vn.com.msb.security.AuthenticatedUser;
+import vn.com.msb.security.GrantedAuthorityRegistry;
+
+/**
+ * Authenticates the requests from the claims of their access token only: the login is the subject, the authorities are
+ * the {@code auth} claim and the user id is the {@code uid} claim.
+ * <p>
+ * The authorities of each value of the {@code auth} claim are shared by the requests, see
+ * {@link GrantedAuthorityRegistry}.
+ */
+public class AuthenticatedUserConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final GrantedAuthorityRegistry authorityRegistry;
+
+    public AuthenticatedUserConverter() {
+        this(new GrantedAuthorityRegistry(DEFAULT_MAX_ENTRIES));
+    }
+
+    public AuthenticatedUserConverter(GrantedAuthorityRegistry authorityRegistry) {
+        this.authorityRegistry = authorityRegistry;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        GrantedAuthorityRegistry.Authorities authorities = authorityRegistry.fromClaim(jwt.getClaims().get(AUTHORITIES_KEY));
+        Number id = jwt.getClaim(USER_ID_KEY);
+        AuthenticatedUser user = new AuthenticatedUser(id != null ? id.longValue() : null, jwt.getSubject(), authorities.names(), jwt);
+        return new AuthenticatedUserToken(jwt, user, authorities.authorities());
+    }
+}
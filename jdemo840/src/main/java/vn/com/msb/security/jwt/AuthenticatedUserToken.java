@@ -0,0 +1,28 @@
+package vn.com.msb.security.jwt;
+
+import java.util.Collection;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import vn.com.msb.security.AuthenticatedUser;
+
+/**
+ * {@link JwtAuthenticationToken} whose principal is the {@link AuthenticatedUser} described by the token, instead of
+ * the token itself.
+ */
+public class AuthenticatedUserToken extends JwtAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AuthenticatedUser user;
+
+    public AuthenticatedUserToken(Jwt jwt, AuthenticatedUser user, Collection<? extends GrantedAuthority> authorities) {
+        super(jwt, authorities, user.getLogin());
+        this.user = user;
+    }
+
+    @Override
+    public AuthenticatedUser getPrincipal() {
+        return user;
+    }
+}
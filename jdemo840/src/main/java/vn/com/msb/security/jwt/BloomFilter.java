@@ -0,0 +1,84 @@
+package vn.com.msb.security.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of tagged strings, safe for concurrent use and allocation free.
+ * <p>
+ * The bit indexes are derived from a single 64-bit hash with the Kirsch-Mitzenmacher double hashing scheme.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions the number of strings beyond which the false positive probability degrades.
+     * @param falsePositiveProbability the false positive probability at the expected number of insertions.
+     */
+    BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2))));
+        this.bits = new AtomicLongArray(Math.toIntExact((m + 63) >>> 6));
+        this.bitCount = (long) bits.length() << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    void put(char tag, String value) {
+        long hash = hash(tag, value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            long current = bits.get(word);
+            while ((current & mask) == 0) {
+                long witness = bits.compareAndExchange(word, current, current | mask);
+                if (witness == current) {
+                    break;
+                }
+                current = witness;
+            }
+        }
+    }
+
+    boolean mightContain(char tag, String value) {
+        long hash = hash(tag, value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    // FNV-1a over the tag and the chars, finished with the MurmurHash3 mixer to spread the entropy over both halves
+    private static long hash(char tag, String value) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ tag) * 0x100000001b3L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
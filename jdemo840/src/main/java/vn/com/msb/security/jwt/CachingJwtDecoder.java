@@ -0,0 +1,134 @@
+package vn.com.msb.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * {@link JwtDecoder} remembering the tokens verified by another decoder, so that a client sending the same token with
+ * every request only pays for its verification once.
+ * <p>
+ * Tokens are keyed by their SHA-256 digest, and only returned from the cache before their expiration time: an expired
+ * token goes to the other decoder again, which rejects it as usual. Tokens without expiration time and rejected tokens
+ * are not cached.
+ * <p>
+ * {@code security.authentication.jwt.decode} times the decoding of the tokens, tagged with {@code cache=hit|miss}, and
+ * the usual {@code cache.*} meters of the {@value #CACHE_NAME} cache give its hit rate.
+ */
+public class CachingJwtDecoder implements JwtDecoder, MeterBinder {
+
+    public static final String CACHE_NAME = "verifiedJwts";
+
+    public static final String DECODE_METER_NAME = "security.authentication.jwt.decode";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final JwtDecoder delegate;
+
+    private final Clock clock;
+
+    private final Cache<ByteBuffer, Jwt> cache;
+
+    private Timer hitTimer;
+
+    private Timer missTimer;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxEntries) {
+        this(delegate, maxEntries, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, long maxEntries, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder().maximumSize(maxEntries).expireAfter(new JwtExpiry(clock)).recordStats().build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        ByteBuffer key = digest(token);
+        Jwt jwt = cache.getIfPresent(key);
+        if (jwt != null && jwt.getTokenValue().equals(token) && clock.instant().isBefore(jwt.getExpiresAt())) {
+            record(hitTimer, start);
+            return jwt;
+        }
+        try {
+            jwt = delegate.decode(token);
+            if (jwt.getExpiresAt() != null) {
+                cache.put(key, jwt);
+            }
+            return jwt;
+        } finally {
+            record(missTimer, start);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        hitTimer = decodeTimer(registry, "hit");
+        missTimer = decodeTimer(registry, "miss");
+    }
+
+    private static Timer decodeTimer(MeterRegistry registry, String cache) {
+        return Timer.builder(DECODE_METER_NAME)
+            .description("The time taken to decode and verify the tokens presented by the clients")
+            .tag("cache", cache)
+            .register(registry);
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Expires the entries at the expiration time of their token.
+     */
+    private record JwtExpiry(Clock clock) implements Expiry<ByteBuffer, Jwt> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Jwt jwt, long currentTime) {
+            return timeToLive(jwt.getExpiresAt());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return timeToLive(jwt.getExpiresAt());
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long timeToLive(Instant expiresAt) {
+            return Math.max(0, Duration.between(clock.instant(), expiresAt).toNanos());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package vn.com.msb.security.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.SecretKey;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+
+/**
+ * The keys signing and verifying the JWTs: either a secret shared by the signer and the verifiers, or key pairs
+ * identified by their key id ({@code kid}), whose public keys are published as a JWK set.
+ * <p>
+ * With key pairs, the active key signs the new tokens and every key verifies them, so that a key can be rotated by
+ * adding the new key, making it the active key, and removing the previous key once the tokens it signed have expired.
+ */
+public final class JwtKeySet {
+
+    private final JwsAlgorithm algorithm;
+
+    private final String activeKeyId;
+
+    private final JWKSource<SecurityContext> signingKeys;
+
+    private final JWKSet publicKeys;
+
+    private final Map<String, Key> verificationKeys;
+
+    private JwtKeySet(
+        JwsAlgorithm algorithm,
+        String activeKeyId,
+        JWKSource<SecurityContext> signingKeys,
+        JWKSet publicKeys,
+        Map<String, Key> verificationKeys
+    ) {
+        this.algorithm = algorithm;
+        this.activeKeyId = activeKeyId;
+        this.signingKeys = signingKeys;
+        this.publicKeys = publicKeys;
+        this.verificationKeys = Collections.unmodifiableMap(verificationKeys);
+    }
+
+    /**
+     * Create the key set of a shared secret, whose tokens have no key id.
+     */
+    public static JwtKeySet of(SecretKey secretKey, MacAlgorithm algorithm) {
+        Map<String, Key> verificationKeys = new LinkedHashMap<>();
+        verificationKeys.put(null, secretKey);
+        return new JwtKeySet(algorithm, null, new ImmutableSecret<>(secretKey), new JWKSet(), verificationKeys);
+    }
+
+    /**
+     * Create the key set of key pairs.
+     *
+     * @param algorithm the algorithm of the keys, RSxxx or ESxxx.
+     * @param activeKeyId the id of the key signing the new tokens.
+     * @param signingKey the private key signing the new tokens.
+     * @param publicKeys the public keys verifying the tokens by key id, including the active key.
+     */
+    public static JwtKeySet of(SignatureAlgorithm algorithm, String activeKeyId, PrivateKey signingKey, Map<String, PublicKey> publicKeys) {
+        PublicKey activeKey = publicKeys.get(activeKeyId);
+        if (activeKey == null) {
+            throw new IllegalArgumentException("No public key for the active key " + activeKeyId);
+        }
+        List<JWK> publicJwks = publicKeys.entrySet().stream().map(key -> toJwk(algorithm, key.getKey(), key.getValue(), null)).toList();
+        JWK signingJwk = toJwk(algorithm, activeKeyId, activeKey, signingKey);
+        Map<String, Key> verificationKeys = new LinkedHashMap<>();
+        verificationKeys.put(activeKeyId, activeKey);
+        verificationKeys.putAll(publicKeys);
+        return new JwtKeySet(
+            algorithm,
+            activeKeyId,
+            new ImmutableJWKSet<>(new JWKSet(signingJwk)),
+            new JWKSet(publicJwks),
+            verificationKeys
+        );
+    }
+
+    /**
+     * Create the key set of the keys of a key store: the private key of the active alias signs the tokens, and the
+     * certificate of each alias holding a key of the algorithm family verifies them. The other aliases are ignored.
+     *
+     * @param keyStore the loaded key store.
+     * @param password the password of the private key of the active alias.
+     * @param algorithm the algorithm of the keys, RSxxx or ESxxx.
+     * @param activeKeyId the alias of the key signing the new tokens.
+     */
+    public static JwtKeySet load(KeyStore keyStore, char[] password, SignatureAlgorithm algorithm, String activeKeyId) {
+        try {
+            if (!(keyStore.getKey(activeKeyId, password) instanceof PrivateKey signingKey)) {
+                throw new IllegalArgumentException("No private key " + activeKeyId + " in the JWT key store");
+            }
+            Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (certificate != null && isKeyOf(algorithm, certificate.getPublicKey())) {
+                    publicKeys.put(alias, certificate.getPublicKey());
+                }
+            }
+            return of(algorithm, activeKeyId, signingKey, publicKeys);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Could not read the keys of the JWT key store", e);
+        }
+    }
+
+    private static boolean isKeyOf(SignatureAlgorithm algorithm, PublicKey key) {
+        return algorithm.getName().startsWith("RS") ? key instanceof RSAPublicKey : key instanceof ECPublicKey;
+    }
+
+    private static JWK toJwk(SignatureAlgorithm algorithm, String keyId, PublicKey publicKey, PrivateKey privateKey) {
+        if (algorithm.getName().startsWith("RS") && publicKey instanceof RSAPublicKey rsaKey) {
+            RSAKey.Builder jwk = new RSAKey.Builder(rsaKey)
+                .keyID(keyId)
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.parse(algorithm.getName()));
+            return privateKey == null ? jwk.build() : jwk.privateKey(privateKey).build();
+        }
+        if (algorithm.getName().startsWith("ES") && publicKey instanceof ECPublicKey ecKey) {
+            ECKey.Builder jwk = new ECKey.Builder(Curve.forECParameterSpec(ecKey.getParams()), ecKey)
+                .keyID(keyId)
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.parse(algorithm.getName()));
+            return privateKey == null ? jwk.build() : jwk.privateKey(privateKey).build();
+        }
+        throw new IllegalArgumentException("Key " + keyId + " is not a " + algorithm.getName() + " key");
+    }
+
+    public JwsAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return the id of the key signing the new tokens, {@code null} for a shared secret.
+     */
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * @return the header of the new tokens.
+     */
+    public JwsHeader createHeader() {
+        JwsHeader.Builder header = JwsHeader.with(algorithm);
+        if (activeKeyId != null) {
+            header.keyId(activeKeyId);
+        }
+        return header.build();
+    }
+
+    /**
+     * @return the keys of the {@link org.springframework.security.oauth2.jwt.NimbusJwtEncoder}.
+     */
+    public JWKSource<SecurityContext> getSigningKeys() {
+        return signingKeys;
+    }
+
+    /**
+     * @return the public keys, empty for a shared secret.
+     */
+    public JWKSet getPublicKeys() {
+        return publicKeys;
+    }
+
+    /**
+     * @return the keys verifying the tokens by key id, the active key first. The key id of a shared secret is
+     * {@code null}.
+     */
+    public Map<String, Key> getVerificationKeys() {
+        return verificationKeys;
+    }
+}
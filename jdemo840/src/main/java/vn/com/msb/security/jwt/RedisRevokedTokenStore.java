@@ -0,0 +1,71 @@
+package vn.com.msb.security.jwt;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link RevokedTokenStore} keeping the revocations in a Redis map whose entries expire with their tokens, and
+ * broadcasting them on a Redis pub/sub channel.
+ */
+public class RedisRevokedTokenStore implements RevokedTokenStore {
+
+    public static final String MAP_NAME = "jwt:revoked";
+
+    public static final String TOPIC_NAME = "jwt:revocation";
+
+    private final Logger log = LoggerFactory.getLogger(RedisRevokedTokenStore.class);
+
+    private final RMapCache<String, Long> revocations;
+
+    private final RTopic topic;
+
+    public RedisRevokedTokenStore(RedissonClient redissonClient) {
+        this.revocations = redissonClient.getMapCache(MAP_NAME, new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE));
+        this.topic = redissonClient.getTopic(TOPIC_NAME);
+    }
+
+    @Override
+    public void put(String key, long value, Instant expiresAt) {
+        long ttl = Math.max(1, Duration.between(Instant.now(), expiresAt).toMillis());
+        revocations.fastPut(key, value, ttl, TimeUnit.MILLISECONDS);
+        topic
+            .publishAsync(new Revocation(key, value))
+            .whenComplete((receivers, e) -> {
+                if (e != null) {
+                    log.warn("Could not publish the revocation of {}: {}", key, e.getMessage());
+                }
+            });
+    }
+
+    @Override
+    public Long get(String key) {
+        return revocations.get(key);
+    }
+
+    @Override
+    public Map<String, Long> getAll() {
+        return revocations.readAllMap();
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, Long> listener) {
+        topic.addListener(Revocation.class, (channel, revocation) -> listener.accept(revocation.key(), revocation.value()));
+    }
+
+    /**
+     * Message broadcast to the nodes when a token or subject is revoked.
+     */
+    record Revocation(String key, long value) implements Serializable {}
+}
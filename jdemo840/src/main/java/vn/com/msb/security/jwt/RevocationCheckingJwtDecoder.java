@@ -0,0 +1,39 @@
+package vn.com.msb.security.jwt;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * {@link JwtDecoder} rejecting the tokens of a {@link TokenRevocationList}, once another decoder has verified them.
+ * <p>
+ * It wraps the {@link CachingJwtDecoder}, so that a token revoked after its verification is rejected as well.
+ */
+public class RevocationCheckingJwtDecoder implements JwtDecoder {
+
+    private static final BadJwtException REVOKED = new BadJwtException("Token revoked") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    private final JwtDecoder delegate;
+
+    private final TokenRevocationList revocationList;
+
+    public RevocationCheckingJwtDecoder(JwtDecoder delegate, TokenRevocationList revocationList) {
+        this.delegate = delegate;
+        this.revocationList = revocationList;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = delegate.decode(token);
+        if (revocationList.isRevoked(jwt)) {
+            throw REVOKED;
+        }
+        return jwt;
+    }
+}
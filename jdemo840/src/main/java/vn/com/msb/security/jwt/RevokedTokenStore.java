@@ -0,0 +1,36 @@
+package vn.com.msb.security.jwt;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Shared store of the revocations of a {@link TokenRevocationList}, which also notifies the other nodes of the new
+ * revocations.
+ */
+public interface RevokedTokenStore {
+    /**
+     * Store a revocation, and notify the other nodes.
+     *
+     * @param key the revoked token id or subject, prefixed with its kind.
+     * @param value the expiration time of the token, or the time before which the tokens of the subject are revoked, in
+     * epoch seconds.
+     * @param expiresAt the time after which the revocation can be forgotten.
+     */
+    void put(String key, long value, Instant expiresAt);
+
+    /**
+     * @return the value of a revocation, or {@code null} if the key is not revoked.
+     */
+    Long get(String key);
+
+    /**
+     * @return all the current revocations, to fill the list of a starting node.
+     */
+    Map<String, Long> getAll();
+
+    /**
+     * @param listener called with the revocations stored by the nodes.
+     */
+    void subscribe(BiConsumer<String, Long> listener);
+}
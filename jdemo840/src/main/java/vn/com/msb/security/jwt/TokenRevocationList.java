@@ -0,0 +1,197 @@
+package vn.com.msb.security.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Revoked access tokens, checked on every request without any remote lookup.
+ * <p>
+ * Tokens are revoked by id ({@code jti}), on logout, or by subject, when the user changes their password: the tokens of
+ * the subject issued before that time are then revoked. The revocations are kept in a {@link RevokedTokenStore} shared
+ * by the nodes, and each node keeps them in Bloom filters: a request only reaches the store when the filter answers
+ * that its token might be revoked, which is the case for the revoked tokens and for a small fraction of the others.
+ * <p>
+ * There is one filter per window of expiration times, a token id going to the filter of the expiration time of its
+ * token and a subject to the filters of the expiration times its revoked tokens can have. The filters of the windows
+ * that ended are dropped, so that the revocations are forgotten with their tokens.
+ * <p>
+ * {@code security.authentication.jwt.revocation.lookups} counts the lookups of the store, tagged with
+ * {@code revoked=true|false}: the latter are the false positives of the filters, and the tokens issued to a subject
+ * after the revocation of its previous tokens.
+ */
+public class TokenRevocationList implements MeterBinder {
+
+    public static final String LOOKUP_METER_NAME = "security.authentication.jwt.revocation.lookups";
+
+    static final char TOKEN_ID = 'j';
+
+    static final char SUBJECT = 's';
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenStore store;
+
+    private final long windowSeconds;
+
+    private final long tokenValiditySeconds;
+
+    private final long clockSkewSeconds;
+
+    private final long expectedRevocations;
+
+    private final double falsePositiveProbability;
+
+    private final Clock clock;
+
+    private final ConcurrentNavigableMap<Long, BloomFilter> filters = new ConcurrentSkipListMap<>();
+
+    private Counter revokedLookups;
+
+    private Counter falsePositiveLookups;
+
+    /**
+     * @param store the revocations shared by the nodes.
+     * @param tokenValidity the validity of the access tokens, and the width of the windows of the filters.
+     * @param expectedRevocations the number of revocations per window beyond which the filters give more false positives.
+     * @param falsePositiveProbability the fraction of the tokens that are looked up in the store although not revoked.
+     */
+    public TokenRevocationList(RevokedTokenStore store, Duration tokenValidity, long expectedRevocations, double falsePositiveProbability) {
+        this(
+            store,
+            tokenValidity,
+            expectedRevocations,
+            falsePositiveProbability,
+            VerifyingJwtDecoder.DEFAULT_CLOCK_SKEW,
+            Clock.systemUTC()
+        );
+    }
+
+    TokenRevocationList(
+        RevokedTokenStore store,
+        Duration tokenValidity,
+        long expectedRevocations,
+        double falsePositiveProbability,
+        Duration clockSkew,
+        Clock clock
+    ) {
+        this.store = store;
+        this.tokenValiditySeconds = tokenValidity.toSeconds();
+        this.windowSeconds = Math.max(60, tokenValiditySeconds);
+        this.clockSkewSeconds = clockSkew.toSeconds();
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.clock = clock;
+    }
+
+    /**
+     * Load the current revocations and follow the ones of the other nodes.
+     */
+    public void start() {
+        store.subscribe(this::add);
+        try {
+            store.getAll().forEach(this::add);
+        } catch (RuntimeException e) {
+            log.warn("Could not load the revoked tokens, only the new revocations are checked: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        revokedLookups = Counter.builder(LOOKUP_METER_NAME).tag("revoked", "true").register(registry);
+        falsePositiveLookups = Counter.builder(LOOKUP_METER_NAME).tag("revoked", "false").register(registry);
+    }
+
+    /**
+     * Revoke a token.
+     *
+     * @param jwt the token, which needs an id and an expiration time.
+     */
+    public void revoke(Jwt jwt) {
+        if (jwt.getId() == null || jwt.getExpiresAt() == null) {
+            return;
+        }
+        long expiresAt = jwt.getExpiresAt().getEpochSecond();
+        store.put(TOKEN_ID + jwt.getId(), expiresAt, Instant.ofEpochSecond(expiresAt + clockSkewSeconds));
+        add(TOKEN_ID + jwt.getId(), expiresAt);
+    }
+
+    /**
+     * Revoke the tokens of a subject issued until now.
+     *
+     * @param subject the subject of the tokens, the login of their user.
+     */
+    public void revokeAll(String subject) {
+        long now = clock.instant().getEpochSecond();
+        store.put(SUBJECT + subject, now, Instant.ofEpochSecond(now + tokenValiditySeconds + clockSkewSeconds));
+        add(SUBJECT + subject, now);
+    }
+
+    /**
+     * @param jwt a token with a valid signature.
+     * @return whether the token was revoked.
+     */
+    public boolean isRevoked(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return false;
+        }
+        BloomFilter filter = filters.get(Math.floorDiv(expiresAt.getEpochSecond(), windowSeconds));
+        if (filter == null) {
+            return false;
+        }
+        String id = jwt.getId();
+        if (id != null && filter.mightContain(TOKEN_ID, id) && confirm(TOKEN_ID + id) != null) {
+            return true;
+        }
+        String subject = jwt.getSubject();
+        if (subject != null && filter.mightContain(SUBJECT, subject)) {
+            Long revokedBefore = confirm(SUBJECT + subject);
+            // Tokens without issue time cannot be told apart from the ones issued later
+            return revokedBefore != null && (jwt.getIssuedAt() == null || jwt.getIssuedAt().getEpochSecond() < revokedBefore);
+        }
+        return false;
+    }
+
+    private Long confirm(String key) {
+        Long value;
+        try {
+            value = store.get(key);
+        } catch (RuntimeException e) {
+            // The filters rarely match a token that is not revoked, fail closed
+            log.warn("Could not check the revocation of {}, rejecting the token: {}", key, e.getMessage());
+            value = Long.MAX_VALUE;
+        }
+        Counter counter = value != null ? revokedLookups : falsePositiveLookups;
+        if (counter != null) {
+            counter.increment();
+        }
+        return value;
+    }
+
+    private void add(String key, Long value) {
+        long currentWindow = Math.floorDiv(clock.instant().getEpochSecond() - clockSkewSeconds, windowSeconds);
+        // Drop the windows whose tokens all expired
+        filters.headMap(currentWindow).clear();
+        char kind = key.charAt(0);
+        String revoked = key.substring(1);
+        // The revoked tokens of a subject expire at the latest one validity after their revocation
+        long lastExpiration = kind == SUBJECT ? value + tokenValiditySeconds : value;
+        long lastWindow = Math.floorDiv(lastExpiration, windowSeconds);
+        for (long window = Math.max(currentWindow, Math.floorDiv(value, windowSeconds)); window <= lastWindow; window++) {
+            filters.computeIfAbsent(window, w -> new BloomFilter(expectedRevocations, falsePositiveProbability)).put(kind, revoked);
+        }
+    }
+
+    int windowCount() {
+        return filters.size();
+    }
+}
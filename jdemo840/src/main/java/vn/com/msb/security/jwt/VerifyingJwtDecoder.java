@@ -0,0 +1,475 @@
+package vn.com.msb.security.jwt;
+
+import com.nimbusds.jwt.SignedJWT;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import vn.com.msb.management.SecurityMetersService;
+
+/**
+ * {@link JwtDecoder} verifying the tokens signed by the keys of a {@link JwtKeySet} through a sequence of checks, each
+ * rejecting the tokens with one of the {@link Failure} causes tracked by the {@link SecurityMetersService}:
+ * <ol>
+ *     <li>the token must be made of three base64url segments, with a JSON object as header ({@link Failure#MALFORMED}),</li>
+ *     <li>the header must declare the algorithm of the key set ({@link Failure#UNSUPPORTED}),</li>
+ *     <li>the key id of the header must be one of the key set, and the signature must match
+ *     ({@link Failure#INVALID_SIGNATURE}),</li>
+ *     <li>the claims must be valid JSON ({@link Failure#MALFORMED}),</li>
+ *     <li>the token must not have expired, give or take the clock skew ({@link Failure#EXPIRED}).</li>
+ * </ol>
+ * The first three checks run on per-thread buffers, with a {@link Mac} or {@link Signature} initialized once per key
+ * and thread, and the rejections are preallocated exceptions without stack trace, so that rejecting a forged or
+ * garbage token allocates next to nothing. Only the tokens with a valid signature are parsed, as
+ * {@link org.springframework.security.oauth2.jwt.NimbusJwtDecoder} does.
+ */
+public class VerifyingJwtDecoder implements JwtDecoder {
+
+    /**
+     * The clock skew tolerated by {@link org.springframework.security.oauth2.jwt.JwtTimestampValidator} by default.
+     */
+    public static final Duration DEFAULT_CLOCK_SKEW = Duration.ofSeconds(60);
+
+    public enum Failure {
+        MALFORMED,
+        UNSUPPORTED,
+        INVALID_SIGNATURE,
+        EXPIRED,
+    }
+
+    private static final RejectedJwtException MALFORMED = new RejectedJwtException(Failure.MALFORMED, "Malformed token");
+
+    private static final RejectedJwtException UNSUPPORTED = new RejectedJwtException(Failure.UNSUPPORTED, "Unsupported algorithm");
+
+    private static final RejectedJwtException INVALID_SIGNATURE = new RejectedJwtException(Failure.INVALID_SIGNATURE, "Invalid signature");
+
+    private static final RejectedJwtException EXPIRED = new RejectedJwtException(Failure.EXPIRED, "Jwt expired");
+
+    private static final byte[] ALG = "\"alg\"".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] KID = "\"kid\"".getBytes(StandardCharsets.US_ASCII);
+
+    // Value of each base64url character, -1 for the other characters
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final byte[] algorithm;
+
+    // The active key first, it verifies the tokens without key id
+    private final Verifier[] verifiers;
+
+    private final SecurityMetersService metersService;
+
+    private final Clock clock;
+
+    private final Duration clockSkew;
+
+    private final Converter<Map<String, Object>, Map<String, Object>> claimSetConverter = MappedJwtClaimSetConverter.withDefaults(
+        Collections.emptyMap()
+    );
+
+    private final ThreadLocal<Buffers> buffers;
+
+    public VerifyingJwtDecoder(SecretKey secretKey, MacAlgorithm algorithm, SecurityMetersService metersService) {
+        this(JwtKeySet.of(secretKey, algorithm), metersService);
+    }
+
+    public VerifyingJwtDecoder(JwtKeySet keySet, SecurityMetersService metersService) {
+        this(keySet, metersService, Clock.systemUTC(), DEFAULT_CLOCK_SKEW);
+    }
+
+    VerifyingJwtDecoder(JwtKeySet keySet, SecurityMetersService metersService, Clock clock, Duration clockSkew) {
+        this.algorithm = keySet.getAlgorithm().getName().getBytes(StandardCharsets.US_ASCII);
+        this.metersService = metersService;
+        this.clock = clock;
+        this.clockSkew = clockSkew;
+        String jcaAlgorithm = jcaAlgorithm(keySet.getAlgorithm().getName());
+        this.verifiers = keySet
+            .getVerificationKeys()
+            .entrySet()
+            .stream()
+            .map(key ->
+                key.getValue() instanceof PublicKey publicKey
+                    ? new SignatureVerifier(key.getKey(), jcaAlgorithm, publicKey)
+                    : new MacVerifier(key.getKey(), jcaAlgorithm, key.getValue())
+            )
+            .toArray(Verifier[]::new);
+        int maxSignatureLength = Arrays.stream(verifiers).mapToInt(verifier -> verifier.signatureLength).max().orElse(0);
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(maxSignatureLength));
+    }
+
+    // RS256 is SHA256withRSA for the JCA, ES256 SHA256withECDSA with a signature made of R and S as in a JWS
+    private static String jcaAlgorithm(String algorithm) {
+        String bits = algorithm.substring(2);
+        return switch (algorithm.substring(0, 2)) {
+            case "HS" -> "HmacSHA" + bits;
+            case "RS" -> "SHA" + bits + "withRSA";
+            case "ES" -> "SHA" + bits + "withECDSAinP1363Format";
+            default -> throw new IllegalArgumentException("Unsupported JWT algorithm " + algorithm);
+        };
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null) {
+            throw reject(MALFORMED);
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || payloadEnd == token.length() - 1 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw reject(MALFORMED);
+        }
+        Buffers buffers = this.buffers.get();
+        byte[] header = buffers.header(headerEnd);
+        int headerLength = decodeBase64Url(token, 0, headerEnd, header);
+        if (headerLength < 0 || !isJsonObject(header, headerLength)) {
+            throw reject(MALFORMED);
+        }
+        long algorithmValue = findString(header, headerLength, ALG);
+        if (algorithmValue < 0 || !valueEquals(header, algorithmValue, algorithm)) {
+            throw reject(UNSUPPORTED);
+        }
+        Verifier verifier = findVerifier(header, findString(header, headerLength, KID));
+        if (verifier == null) {
+            throw reject(INVALID_SIGNATURE);
+        }
+        byte[] signingInput = buffers.signingInput(payloadEnd);
+        for (int i = 0; i < payloadEnd; i++) {
+            char c = token.charAt(i);
+            if (c != '.' && (c >= 128 || BASE64URL[c] < 0)) {
+                throw reject(MALFORMED);
+            }
+            signingInput[i] = (byte) c;
+        }
+        int signatureLength = decodeBase64Url(token, payloadEnd + 1, token.length(), buffers.signature);
+        if (signatureLength != verifier.signatureLength || !verifier.verify(signingInput, payloadEnd, buffers.signature)) {
+            throw reject(INVALID_SIGNATURE);
+        }
+
+        Jwt jwt = createJwt(token);
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt != null && clock.instant().minus(clockSkew).isAfter(expiresAt)) {
+            throw reject(EXPIRED);
+        }
+        Instant notBefore = jwt.getNotBefore();
+        if (notBefore != null && clock.instant().plus(clockSkew).isBefore(notBefore)) {
+            throw new BadJwtException("Jwt used before " + notBefore);
+        }
+        return jwt;
+    }
+
+    private Jwt createJwt(String token) {
+        try {
+            SignedJWT signedJwt = SignedJWT.parse(token);
+            Map<String, Object> headers = signedJwt.getHeader().toJSONObject();
+            Map<String, Object> claims = claimSetConverter.convert(signedJwt.getJWTClaimsSet().getClaims());
+            return Jwt.withTokenValue(token).headers(h -> h.putAll(headers)).claims(c -> c.putAll(claims)).build();
+        } catch (ParseException | IllegalArgumentException e) {
+            throw reject(MALFORMED);
+        }
+    }
+
+    private RejectedJwtException reject(RejectedJwtException rejection) {
+        switch (rejection.getFailure()) {
+            case MALFORMED -> metersService.trackTokenMalformed();
+            case UNSUPPORTED -> metersService.trackTokenUnsupported();
+            case INVALID_SIGNATURE -> metersService.trackTokenInvalidSignature();
+            case EXPIRED -> metersService.trackTokenExpired();
+        }
+        return rejection;
+    }
+
+    private static boolean isJsonObject(byte[] json, int length) {
+        int start = 0;
+        while (start < length && isWhitespace(json[start])) {
+            start++;
+        }
+        int end = length - 1;
+        while (end > start && isWhitespace(json[end])) {
+            end--;
+        }
+        return end > start && json[start] == '{' && json[end] == '}';
+    }
+
+    private Verifier findVerifier(byte[] header, long keyIdValue) {
+        if (keyIdValue < 0) {
+            return verifiers[0];
+        }
+        for (Verifier verifier : verifiers) {
+            if (verifier.keyId == null || valueEquals(header, keyIdValue, verifier.keyId)) {
+                return verifier;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Look for a {@code "name" : "value"} member, the header being parsed once the signature is verified.
+     *
+     * @return the start index of the value in the high 32 bits and its end index in the low 32 bits, -1 if there is
+     * no such string member.
+     */
+    private static long findString(byte[] json, int length, byte[] name) {
+        for (int i = indexOf(json, length, name, 0); i >= 0; i = indexOf(json, length, name, i + 1)) {
+            int j = skipWhitespace(json, length, i + name.length);
+            if (j >= length || json[j] != ':') {
+                continue;
+            }
+            j = skipWhitespace(json, length, j + 1);
+            if (j >= length || json[j] != '"') {
+                return -1;
+            }
+            for (int end = j + 1; end < length; end++) {
+                if (json[end] == '"') {
+                    return ((long) (j + 1) << 32) | end;
+                }
+            }
+            return -1;
+        }
+        return -1;
+    }
+
+    private static boolean valueEquals(byte[] json, long value, byte[] expected) {
+        int start = (int) (value >>> 32);
+        int end = (int) value;
+        return Arrays.equals(json, start, end, expected, 0, expected.length);
+    }
+
+    private static int indexOf(byte[] bytes, int length, byte[] sequence, int from) {
+        for (int i = from; i <= length - sequence.length; i++) {
+            if (Arrays.equals(bytes, i, i + sequence.length, sequence, 0, sequence.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(byte[] bytes, int length, int from) {
+        int i = from;
+        while (i < length && isWhitespace(bytes[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Decode the unpadded base64url characters of a string.
+     *
+     * @return the number of bytes written, -1 if the characters are not valid base64url or do not fit.
+     */
+    static int decodeBase64Url(String s, int from, int to, byte[] out) {
+        int length = to - from;
+        if (length % 4 == 1 || length * 3 / 4 > out.length) {
+            return -1;
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[written++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * The per-thread buffers of the decoder.
+     */
+    private static final class Buffers {
+
+        private final byte[] signature;
+
+        private byte[] header = new byte[256];
+
+        private byte[] signingInput = new byte[1024];
+
+        Buffers(int maxSignatureLength) {
+            signature = new byte[maxSignatureLength];
+        }
+
+        byte[] header(int length) {
+            if (header.length < length) {
+                header = new byte[length];
+            }
+            return header;
+        }
+
+        byte[] signingInput(int length) {
+            if (signingInput.length < length) {
+                signingInput = new byte[length];
+            }
+            return signingInput;
+        }
+    }
+
+    /**
+     * Verifies the signatures of a key, ready to use in each thread.
+     */
+    private abstract static class Verifier {
+
+        final byte[] keyId;
+
+        final int signatureLength;
+
+        Verifier(String keyId, int signatureLength) {
+            this.keyId = keyId == null ? null : keyId.getBytes(StandardCharsets.UTF_8);
+            this.signatureLength = signatureLength;
+        }
+
+        /**
+         * @param signature the decoded signature, whose first {@link #signatureLength} bytes are checked.
+         */
+        abstract boolean verify(byte[] signingInput, int length, byte[] signature);
+    }
+
+    private static final class MacVerifier extends Verifier {
+
+        private final ThreadLocal<Mac> mac;
+
+        private final ThreadLocal<byte[]> expectedSignature;
+
+        MacVerifier(String keyId, String jcaAlgorithm, Key key) {
+            this(keyId, new SecretKeySpec(key.getEncoded(), jcaAlgorithm));
+        }
+
+        private MacVerifier(String keyId, SecretKeySpec key) {
+            super(keyId, createMac(key).getMacLength());
+            this.mac = ThreadLocal.withInitial(() -> createMac(key));
+            this.expectedSignature = ThreadLocal.withInitial(() -> new byte[signatureLength]);
+        }
+
+        private static Mac createMac(SecretKeySpec key) {
+            try {
+                Mac mac = Mac.getInstance(key.getAlgorithm());
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not initialize " + key.getAlgorithm(), e);
+            }
+        }
+
+        @Override
+        boolean verify(byte[] signingInput, int length, byte[] signature) {
+            Mac mac = this.mac.get();
+            byte[] expectedSignature = this.expectedSignature.get();
+            mac.update(signingInput, 0, length);
+            try {
+                mac.doFinal(expectedSignature, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            // Constant time comparison
+            int difference = 0;
+            for (int i = 0; i < signatureLength; i++) {
+                difference |= signature[i] ^ expectedSignature[i];
+            }
+            return difference == 0;
+        }
+    }
+
+    private static final class SignatureVerifier extends Verifier {
+
+        private final ThreadLocal<Signature> signature;
+
+        SignatureVerifier(String keyId, String jcaAlgorithm, PublicKey publicKey) {
+            super(keyId, signatureLength(publicKey));
+            this.signature = ThreadLocal.withInitial(() -> {
+                try {
+                    Signature signature = Signature.getInstance(jcaAlgorithm);
+                    signature.initVerify(publicKey);
+                    return signature;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Could not initialize " + jcaAlgorithm, e);
+                }
+            });
+        }
+
+        private static int signatureLength(PublicKey publicKey) {
+            if (publicKey instanceof RSAPublicKey rsaKey) {
+                return (rsaKey.getModulus().bitLength() + 7) / 8;
+            }
+            if (publicKey instanceof ECPublicKey ecKey) {
+                return 2 * ((ecKey.getParams().getCurve().getField().getFieldSize() + 7) / 8);
+            }
+            throw new IllegalArgumentException("Unsupported key type " + publicKey.getAlgorithm());
+        }
+
+        @Override
+        boolean verify(byte[] signingInput, int length, byte[] signature) {
+            Signature verifier = this.signature.get();
+            try {
+                verifier.update(signingInput, 0, length);
+                return verifier.verify(signature, 0, signatureLength);
+            } catch (SignatureException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * A rejection of the {@link VerifyingJwtDecoder}. The instances are shared, so they do not capture a stack trace.
+     */
+    public static final class RejectedJwtException extends BadJwtException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Failure failure;
+
+        RejectedJwtException(Failure failure, String message) {
+            super(message);
+            this.failure = failure;
+        }
+
+        public Failure getFailure() {
+            return failure;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
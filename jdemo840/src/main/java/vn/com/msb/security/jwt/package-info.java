@@ -0,0 +1,4 @@
+/**
+ * JWT decoding and verification.
+ */
+package vn.com.msb.security.jwt;
@@ -0,0 +1,102 @@
+package vn.com.msb.security.throttle;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link SlidingWindowCounter} of a single node.
+ * <p>
+ * The keys are spread over stripes, each guarded by its own lock, so that concurrent requests rarely contend. Each
+ * stripe keeps its most recently used keys only, which bounds the memory a flood of spoofed keys can take: the keys
+ * evicted that way are forgotten, as if they had no events.
+ */
+public class LocalSlidingWindowCounter implements SlidingWindowCounter {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final long windowMillis;
+
+    private final Clock clock;
+
+    /**
+     * @param window the width of the sliding window.
+     * @param maxEntries the number of keys beyond which the least recently used ones are forgotten.
+     */
+    public LocalSlidingWindowCounter(Duration window, int maxEntries) {
+        this(window, maxEntries, Clock.systemUTC());
+    }
+
+    LocalSlidingWindowCounter(Duration window, int maxEntries, Clock clock) {
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+        int maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxEntriesPerStripe);
+        }
+    }
+
+    @Override
+    public long increment(String key) {
+        return count(key, 1);
+    }
+
+    @Override
+    public long get(String key) {
+        return count(key, 0);
+    }
+
+    private long count(String key, int delta) {
+        long now = clock.millis();
+        long window = now / windowMillis;
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            Counts counts = stripe.get(key);
+            if (counts == null) {
+                if (delta == 0) {
+                    return 0;
+                }
+                counts = new Counts();
+                counts.window = window;
+                stripe.put(key, counts);
+            }
+            if (counts.window != window) {
+                counts.previous = counts.window == window - 1 ? counts.current : 0;
+                counts.current = 0;
+                counts.window = window;
+            }
+            counts.current += delta;
+            return SlidingWindowCounter.estimate(counts.previous, counts.current, windowMillis, now % windowMillis);
+        }
+    }
+
+    private static final class Counts {
+
+        private long window;
+
+        private long previous;
+
+        private long current;
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Counts> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        private Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Counts> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package vn.com.msb.security.throttle;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import vn.com.msb.config.ApplicationProperties;
+import vn.com.msb.management.SecurityMetersService;
+
+/**
+ * Limits the login and password reset attempts, before any password is hashed or any user is looked up.
+ * <p>
+ * The limits are:
+ * <ul>
+ *     <li>the login attempts per IP address, failed or not,</li>
+ *     <li>the failed login attempts per login, so that guessing the password of one user is slowed down whatever the
+ *     number of addresses of the attacker, without locking the user out once the attacker stops,</li>
+ *     <li>the password reset requests per IP address and per email, which each send an email.</li>
+ * </ul>
+ * The rejected attempts count too, so that a client has to slow down to get through again.
+ */
+public class LoginThrottle {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final Logger log = LoggerFactory.getLogger(LoginThrottle.class);
+
+    private final ApplicationProperties.Security.Throttle properties;
+
+    private final SecurityMetersService metersService;
+
+    private final SlidingWindowCounter loginsByIp;
+
+    private final SlidingWindowCounter failedLoginsByLogin;
+
+    private final SlidingWindowCounter passwordResetsByIp;
+
+    private final SlidingWindowCounter passwordResetsByEmail;
+
+    /**
+     * @param properties the limits.
+     * @param metersService the service counting the rejected attempts.
+     * @param counterFactory creates a counter from its name and window.
+     */
+    public LoginThrottle(
+        ApplicationProperties.Security.Throttle properties,
+        SecurityMetersService metersService,
+        BiFunction<String, Duration, SlidingWindowCounter> counterFactory
+    ) {
+        this.properties = properties;
+        this.metersService = metersService;
+        this.loginsByIp = counterFactory.apply("login-ip", properties.getLoginByIp().getWindow());
+        this.failedLoginsByLogin = counterFactory.apply("login-failure", properties.getLoginFailuresByLogin().getWindow());
+        this.passwordResetsByIp = counterFactory.apply("reset-ip", properties.getPasswordResetByIp().getWindow());
+        this.passwordResetsByEmail = counterFactory.apply("reset-email", properties.getPasswordResetByEmail().getWindow());
+    }
+
+    /**
+     * Count a login attempt.
+     *
+     * @param login the login or email of the user.
+     * @param ipAddress the address of the client.
+     * @throws ThrottledException if the client or the login exceeded their limit.
+     */
+    public void checkLogin(String login, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (loginsByIp.increment(ipAddress) > properties.getLoginByIp().getLimit()) {
+            log.debug("Too many login attempts from {}", ipAddress);
+            metersService.trackLoginThrottledByIp();
+            throw new ThrottledException("Too many login attempts from this address");
+        }
+        if (failedLoginsByLogin.get(normalize(login)) >= properties.getLoginFailuresByLogin().getLimit()) {
+            log.debug("Too many failed login attempts for {}", login);
+            metersService.trackLoginThrottledByLogin();
+            throw new ThrottledException("Too many failed login attempts for this user");
+        }
+    }
+
+    /**
+     * Count a failed login attempt.
+     *
+     * @param login the login or email of the user.
+     */
+    public void loginFailed(String login) {
+        if (properties.isEnabled()) {
+            failedLoginsByLogin.increment(normalize(login));
+        }
+    }
+
+    /**
+     * Count a password reset request.
+     *
+     * @param email the email of the user.
+     * @param ipAddress the address of the client.
+     * @throws ThrottledException if the client or the email exceeded their limit.
+     */
+    public void checkPasswordReset(String email, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        boolean ipExceeded = passwordResetsByIp.increment(ipAddress) > properties.getPasswordResetByIp().getLimit();
+        if (ipExceeded || passwordResetsByEmail.increment(normalize(email)) > properties.getPasswordResetByEmail().getLimit()) {
+            log.debug("Too many password reset requests from {}", ipAddress);
+            metersService.trackPasswordResetThrottled();
+            throw new ThrottledException("Too many password reset requests");
+        }
+    }
+
+    private static String normalize(String key) {
+        String lowercaseKey = key == null ? "" : key.trim().toLowerCase(Locale.ENGLISH);
+        return lowercaseKey.length() > MAX_KEY_LENGTH ? lowercaseKey.substring(0, MAX_KEY_LENGTH) : lowercaseKey;
+    }
+}
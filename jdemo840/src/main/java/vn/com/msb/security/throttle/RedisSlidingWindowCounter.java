@@ -0,0 +1,83 @@
+package vn.com.msb.security.throttle;
+
+import java.time.Duration;
+import java.util.List;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link SlidingWindowCounter} shared by the nodes through Redis.
+ * <p>
+ * Each fixed window of a key is a Redis counter expiring after the next window, both read and incremented by a single
+ * script call. The two counters of a key share a hash tag, so that they live on the same Redis Cluster node. When
+ * Redis cannot be reached, the events are counted by the fallback counter of this node instead.
+ */
+public class RedisSlidingWindowCounter implements SlidingWindowCounter {
+
+    private static final String KEY_PREFIX = "throttle:";
+
+    // KEYS: current window, previous window; ARGV: increment, time to live of the current window in millis
+    private static final String SCRIPT =
+        "local current = tonumber(redis.call('get', KEYS[1]) or '0') " +
+        "if ARGV[1] ~= '0' then " +
+        "  current = redis.call('incrby', KEYS[1], ARGV[1]) " +
+        "  if current == tonumber(ARGV[1]) then redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+        "end " +
+        "return {current, tonumber(redis.call('get', KEYS[2]) or '0')}";
+
+    private final Logger log = LoggerFactory.getLogger(RedisSlidingWindowCounter.class);
+
+    private final RScript script;
+
+    private final String name;
+
+    private final long windowMillis;
+
+    private final SlidingWindowCounter fallback;
+
+    /**
+     * @param redissonClient the Redis client.
+     * @param name the name of the counter, which prefixes its Redis keys.
+     * @param window the width of the sliding window.
+     * @param fallback the counter used while Redis is unavailable.
+     */
+    public RedisSlidingWindowCounter(RedissonClient redissonClient, String name, Duration window, SlidingWindowCounter fallback) {
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.name = name;
+        this.windowMillis = window.toMillis();
+        this.fallback = fallback;
+    }
+
+    @Override
+    public long increment(String key) {
+        return count(key, 1);
+    }
+
+    @Override
+    public long get(String key) {
+        return count(key, 0);
+    }
+
+    private long count(String key, int delta) {
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        String prefix = KEY_PREFIX + "{" + name + ":" + key + "}:";
+        try {
+            List<Long> counts = script.eval(
+                RScript.Mode.READ_WRITE,
+                SCRIPT,
+                RScript.ReturnType.MULTI,
+                List.of(prefix + window, prefix + (window - 1)),
+                String.valueOf(delta),
+                String.valueOf(2 * windowMillis)
+            );
+            return SlidingWindowCounter.estimate(counts.get(1), counts.get(0), windowMillis, now % windowMillis);
+        } catch (RuntimeException e) {
+            log.warn("Could not count {} in Redis, counting on this node: {}", name, e.getMessage());
+            return delta == 0 ? fallback.get(key) : fallback.increment(key);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package vn.com.msb.security.throttle;
+
+/**
+ * Counts events per key over a sliding window.
+ * <p>
+ * The window slides by interpolation between two fixed windows: the count is the count of the current window plus
+ * the count of the previous one weighted by the part of the sliding window that overlaps it. This needs two counters
+ * per key, and over-counts or under-counts only when the events of the previous window were unevenly spread.
+ */
+public interface SlidingWindowCounter {
+    /**
+     * Count an event.
+     *
+     * @param key the key, such as a login or an IP address.
+     * @return the number of events of the key in the sliding window, this one included.
+     */
+    long increment(String key);
+
+    /**
+     * @param key the key.
+     * @return the number of events of the key in the sliding window.
+     */
+    long get(String key);
+
+    /**
+     * @return the sliding window estimate from the counts of the current and previous fixed windows.
+     */
+    static long estimate(long previous, long current, long windowMillis, long elapsedMillis) {
+        return current + (previous * (windowMillis - elapsedMillis)) / windowMillis;
+    }
+}
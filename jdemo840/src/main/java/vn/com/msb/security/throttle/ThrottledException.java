@@ -0,0 +1,17 @@
+package vn.com.msb.security.throttle;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown when a client exceeds a limit of the {@link LoginThrottle}.
+ */
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Too many attempts, try again later")
+public class ThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Throttling of the login and password reset requests.
+ */
+package vn.com.msb.security.throttle;
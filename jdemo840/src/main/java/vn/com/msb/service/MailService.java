@@ -3,6 +3,7 @@ package vn.com.msb.service;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Locale;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -112,6 +113,18 @@ public class MailService {
         this.sendEmailFromTemplateSync(user, "mail/creationEmail", "email.activation.title");
     }
 
+    /**
+     * Send the creation emails of users one after the other, in a single task rather than one each, so that large
+     * imports do not fill the queue of the executor.
+     *
+     * @param users the created users.
+     */
+    @Async
+    public void sendCreationEmails(List<User> users) {
+        log.debug("Sending creation emails to {} users", users.size());
+        users.forEach(user -> this.sendEmailFromTemplateSync(user, "mail/creationEmail", "email.activation.title"));
+    }
+
     @Async
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
@@ -0,0 +1,146 @@
+package vn.com.msb.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.msb.config.ApplicationProperties;
+import vn.com.msb.domain.RefreshToken;
+import vn.com.msb.domain.User;
+import vn.com.msb.repository.RefreshTokenRepository;
+import vn.com.msb.repository.UserRepository;
+
+/**
+ * Service issuing the refresh tokens, which are exchanged for new access tokens.
+ * <p>
+ * The access tokens are short-lived and verified without any lookup, the refresh tokens are opaque and checked against
+ * the database: revoking a session only affects the refresh requests. Each refresh token is used once, the refresh
+ * returning a new token of the same family; a token presented again after its use reveals that it was stolen, and
+ * revokes its whole family.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final ApplicationProperties.Security.RefreshToken properties;
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        UserRepository userRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.properties = applicationProperties.getSecurity().getRefreshToken();
+    }
+
+    /**
+     * A refresh token exchanged for a new one.
+     *
+     * @param login the login of the user.
+     * @param refreshToken the new refresh token.
+     * @param rememberMe whether the user checked "remember me" when logging in.
+     */
+    public record Rotation(String login, String refreshToken, boolean rememberMe) {}
+
+    /**
+     * Create the first refresh token of a new family, for a user who just logged in.
+     *
+     * @param login the login of the user.
+     * @param rememberMe whether the user checked "remember me".
+     * @return the refresh token.
+     */
+    public String create(String login, boolean rememberMe) {
+        User user = userRepository.findOneByLogin(login).orElseThrow(() -> new IllegalStateException("User " + login + " was not found"));
+        return create(user, UUID.randomUUID().toString(), rememberMe);
+    }
+
+    /**
+     * Exchange a refresh token for a new one of the same family.
+     *
+     * @param token the refresh token.
+     * @return the new refresh token, or empty if the token is unknown, expired or revoked.
+     */
+    public Optional<Rotation> rotate(String token) {
+        Optional<RefreshToken> refreshToken = refreshTokenRepository.findOneWithUserByTokenHash(hash(token));
+        if (refreshToken.isEmpty() || refreshToken.orElseThrow().getExpiresAt().isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        RefreshToken current = refreshToken.orElseThrow();
+        // The conditional update fails if the token was already used, even by a concurrent request
+        if (current.isRevoked() || refreshTokenRepository.revokeById(current.getId()) == 0) {
+            log.warn("Reuse of a revoked refresh token, revoking the refresh tokens of User {}", current.getUser().getLogin());
+            refreshTokenRepository.revokeAllByFamily(current.getFamily());
+            return Optional.empty();
+        }
+        User user = current.getUser();
+        String next = create(user, current.getFamily(), current.isRememberMe());
+        return Optional.of(new Rotation(user.getLogin(), next, current.isRememberMe()));
+    }
+
+    /**
+     * Revoke the family of a refresh token, when its user logs out.
+     *
+     * @param token the refresh token.
+     */
+    public void revoke(String token) {
+        refreshTokenRepository
+            .findOneWithUserByTokenHash(hash(token))
+            .ifPresent(refreshToken -> refreshTokenRepository.revokeAllByFamily(refreshToken.getFamily()));
+    }
+
+    /**
+     * Expired tokens are deleted every day, at 02:00 (am). The revoked tokens are kept until then, to detect their
+     * reuse.
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeExpiredTokens() {
+        int count = refreshTokenRepository.deleteAllByExpiresAtBefore(Instant.now());
+        log.debug("Deleted {} expired refresh tokens", count);
+    }
+
+    private String create(User user, String family, boolean rememberMe) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant now = Instant.now();
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setFamily(family);
+        refreshToken.setUser(user);
+        refreshToken.setRememberMe(rememberMe);
+        refreshToken.setCreatedDate(now);
+        refreshToken.setExpiresAt(now.plus(rememberMe ? properties.getValidityForRememberMe() : properties.getValidity()));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
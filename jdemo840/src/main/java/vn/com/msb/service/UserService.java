@@ -1,36 +1,79 @@
 package vn.com.msb.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Validator;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import tech.jhipster.security.RandomUtil;
 import vn.com.msb.config.Constants;
 import vn.com.msb.domain.Authority;
 import vn.com.msb.domain.User;
 import vn.com.msb.repository.AuthorityRepository;
+import vn.com.msb.repository.RefreshTokenRepository;
+import vn.com.msb.repository.UserAuthorityName;
+import vn.com.msb.repository.UserCacheKeys;
 import vn.com.msb.repository.UserRepository;
 import vn.com.msb.repository.search.UserSearchRepository;
 import vn.com.msb.security.AuthoritiesConstants;
+import vn.com.msb.security.BoundedPasswordEncoder;
 import vn.com.msb.security.SecurityUtils;
+import vn.com.msb.security.jwt.TokenRevocationList;
 import vn.com.msb.service.dto.AdminUserDTO;
 import vn.com.msb.service.dto.UserDTO;
+import vn.com.msb.service.dto.UserImportResultDTO;
+import vn.com.msb.service.dto.UserImportResultDTO.Status;
 
 /**
  * Service class for managing users.
  */
 @Service
 @Transactional
-public class UserService {
+public class UserService implements UserDetailsPasswordService {
+
+    /**
+     * The maximum number of users of {@link #importUsers(List, int)}: their logins and emails are queried in lists,
+     * which Oracle limits to 1000 values, and Hibernate pads to the next power of 2.
+     */
+    public static final int IMPORT_CHUNK_SIZE = 500;
+
+    public static final String PURGED_USERS_METER_NAME = "users.purge.deleted";
+
+    public static final String PURGE_CHUNKS_METER_NAME = "users.purge.chunks";
+
+    private static final int PURGE_CHUNK_SIZE = 500;
+
+    /**
+     * The outcome of {@link #importUsers(List, int)}.
+     *
+     * @param results the outcome of each user, in their order.
+     * @param users the created users, with their authorities.
+     */
+    public record ImportedUsers(List<UserImportResultDTO> results, List<User> users) {}
 
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
@@ -42,20 +85,43 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final TokenRevocationList tokenRevocationList;
+
     private final CacheManager cacheManager;
 
+    private final Validator validator;
+
+    private final Counter purgedUsersCounter;
+
+    private final Timer purgeChunkTimer;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         UserSearchRepository userSearchRepository,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        RefreshTokenRepository refreshTokenRepository,
+        TokenRevocationList tokenRevocationList,
+        CacheManager cacheManager,
+        Validator validator,
+        MeterRegistry meterRegistry
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.userSearchRepository = userSearchRepository;
         this.authorityRepository = authorityRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationList = tokenRevocationList;
         this.cacheManager = cacheManager;
+        this.validator = validator;
+        this.purgedUsersCounter = Counter.builder(PURGED_USERS_METER_NAME)
+            .description("Number of not activated users deleted")
+            .register(meterRegistry);
+        this.purgeChunkTimer = Timer.builder(PURGE_CHUNKS_METER_NAME)
+            .description("Time spent deleting a chunk of not activated users")
+            .register(meterRegistry);
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -82,14 +148,22 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                // Log out the sessions opened with the previous password
+                refreshTokenRepository.revokeAllByUserId(user.getId());
+                tokenRevocationList.revokeAll(user.getLogin());
                 this.clearUserCaches(user);
                 return user;
             });
     }
 
     public Optional<User> requestPasswordReset(String mail) {
+        String email = mail.toLowerCase(Locale.ENGLISH);
+        // The cached lookup answers for the unknown emails without querying the database
+        if (userRepository.findOneWithAuthoritiesByEmailIgnoreCase(email).filter(User::isActivated).isEmpty()) {
+            return Optional.empty();
+        }
         return userRepository
-            .findOneByEmailIgnoreCase(mail)
+            .findOneByEmailIgnoreCase(email)
             .filter(User::isActivated)
             .map(user -> {
                 user.setResetKey(RandomUtil.generateResetKey());
@@ -188,6 +262,135 @@ public class UserService {
         return user;
     }
 
+    /**
+     * Create users as {@link #createUser(AdminUserDTO)} does, and report the outcome of each.
+     * <p>
+     * The users whose login or email is used, by an existing user or by a previous one of the import, are rejected,
+     * along with the invalid ones: the used logins and emails are found with one short query each. Only the passwords of
+     * the users to create are then hashed, in parallel and with no transaction nor connection held. The users are finally
+     * inserted in a transaction of their own, in batches of {@code hibernate.jdbc.batch_size}, and once committed they
+     * are indexed with one bulk request and their cached entries are evicted at once.
+     * <p>
+     * A concurrent creation of one of the logins or emails, between their check and the insert, rolls the insert back
+     * with a {@link org.springframework.dao.DataIntegrityViolationException}. Calling it again with the same users then
+     * rejects the ones created meanwhile: the REST resource does so once, and reports the users as
+     * {@link Status#CONFLICT} if the second call fails too.
+     *
+     * @param userDTOs the users to create, at most {@link #IMPORT_CHUNK_SIZE}.
+     * @param firstRow the number of the first user in the whole import.
+     * @return the outcome of each user, and the created users.
+     * @throws vn.com.msb.security.PasswordEncoderBusyException if too many passwords wait to be hashed, before any
+     * user is created.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportedUsers importUsers(List<AdminUserDTO> userDTOs, int firstRow) {
+        List<UserImportResultDTO> results = new ArrayList<>(Collections.nCopies(userDTOs.size(), null));
+        List<Integer> validRows = new ArrayList<>();
+        for (int i = 0; i < userDTOs.size(); i++) {
+            AdminUserDTO userDTO = userDTOs.get(i);
+            String violations = userDTO.getId() != null
+                ? "A new user cannot already have an ID"
+                : validator
+                    .validate(userDTO)
+                    .stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            if (violations.isEmpty()) {
+                validRows.add(i);
+            } else {
+                results.set(i, UserImportResultDTO.rejected(firstRow + i, userDTO.getLogin(), Status.INVALID, violations));
+            }
+        }
+        Set<String> logins = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> authorityNames = new HashSet<>();
+        for (int i : validRows) {
+            AdminUserDTO userDTO = userDTOs.get(i);
+            logins.add(userDTO.getLogin().toLowerCase());
+            if (userDTO.getEmail() != null) {
+                emails.add(userDTO.getEmail().toLowerCase());
+            }
+            if (userDTO.getAuthorities() != null) {
+                authorityNames.addAll(userDTO.getAuthorities());
+            }
+        }
+        Set<String> usedLogins = new HashSet<>(userRepository.findAllLoginsByLoginIn(logins));
+        Set<String> usedEmails = emails.isEmpty() ? new HashSet<>() : new HashSet<>(userRepository.findAllEmailsByEmailIn(emails));
+        Map<String, Authority> authorities = authorityRepository
+            .findAllById(authorityNames)
+            .stream()
+            .collect(Collectors.toMap(Authority::getName, Function.identity()));
+
+        List<User> users = new ArrayList<>(validRows.size());
+        List<Integer> createdRows = new ArrayList<>(validRows.size());
+        for (int i : validRows) {
+            AdminUserDTO userDTO = userDTOs.get(i);
+            String login = userDTO.getLogin().toLowerCase();
+            String email = userDTO.getEmail() != null ? userDTO.getEmail().toLowerCase() : null;
+            if (usedLogins.contains(login)) {
+                results.set(i, UserImportResultDTO.rejected(firstRow + i, login, Status.LOGIN_ALREADY_USED, "Login name already used!"));
+            } else if (email != null && usedEmails.contains(email)) {
+                results.set(i, UserImportResultDTO.rejected(firstRow + i, login, Status.EMAIL_ALREADY_USED, "Email is already in use!"));
+            } else {
+                usedLogins.add(login);
+                if (email != null) {
+                    usedEmails.add(email);
+                }
+                User user = new User();
+                user.setLogin(login);
+                user.setFirstName(userDTO.getFirstName());
+                user.setLastName(userDTO.getLastName());
+                user.setEmail(email);
+                user.setImageUrl(userDTO.getImageUrl());
+                user.setLangKey(userDTO.getLangKey() == null ? Constants.DEFAULT_LANGUAGE : userDTO.getLangKey());
+                user.setResetKey(RandomUtil.generateResetKey());
+                user.setResetDate(Instant.now());
+                user.setActivated(true);
+                if (userDTO.getAuthorities() != null) {
+                    user.setAuthorities(
+                        userDTO.getAuthorities().stream().map(authorities::get).filter(Objects::nonNull).collect(Collectors.toSet())
+                    );
+                }
+                users.add(user);
+                createdRows.add(i);
+            }
+        }
+
+        // The hashes are the costly part, only the users to create get one
+        List<String> encryptedPasswords = encodeRandomPasswords(users.size());
+        for (int u = 0; u < users.size(); u++) {
+            users.get(u).setPassword(encryptedPasswords.get(u));
+        }
+
+        if (!users.isEmpty()) {
+            // Inserted in batches, the ids being allocated by blocks of the sequence, and flushed in the transaction of
+            // the repository so that a used login or email fails as a DataIntegrityViolationException
+            userRepository.saveAllAndFlush(users);
+            for (int u = 0; u < users.size(); u++) {
+                User user = users.get(u);
+                int i = createdRows.get(u);
+                results.set(i, UserImportResultDTO.created(firstRow + i, user.getLogin(), user.getId()));
+            }
+            // Committed: the new logins and emails may have been cached as unknown until then
+            userSearchRepository.indexAll(users);
+            evictUserCaches(
+                users.stream().map(User::getLogin).toList(),
+                users.stream().map(User::getEmail).filter(Objects::nonNull).toList()
+            );
+        }
+        log.debug("Imported {} of {} users", users.size(), userDTOs.size());
+        return new ImportedUsers(results, users);
+    }
+
+    private List<String> encodeRandomPasswords(int count) {
+        List<String> rawPasswords = Stream.generate(RandomUtil::generatePassword).limit(count).toList();
+        if (passwordEncoder instanceof BoundedPasswordEncoder boundedPasswordEncoder) {
+            return boundedPasswordEncoder.encodeAll(rawPasswords);
+        }
+        return rawPasswords.parallelStream().map(passwordEncoder::encode).toList();
+    }
+
     /**
      * Update all information for a specific user, and return the modified user.
      *
@@ -276,19 +479,104 @@ public class UserService {
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
                 user.setPassword(encryptedPassword);
+                refreshTokenRepository.revokeAllByUserId(user.getId());
+                tokenRevocationList.revokeAll(user.getLogin());
                 this.clearUserCaches(user);
                 log.debug("Changed password for User: {}", user);
             });
     }
 
+    /**
+     * Store the new hash of the password of a user who just logged in with a password hashed with another algorithm,
+     * or a lower strength, than the configured one.
+     *
+     * @param userDetails the authenticated user.
+     * @param newPassword the password hashed with the configured algorithm.
+     * @return the user with the new hash.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository
+            .findOneByLogin(userDetails.getUsername())
+            .ifPresent(user -> {
+                user.setPassword(newPassword);
+                this.clearUserCaches(user);
+                log.debug("Upgraded the password hash of User: {}", user);
+            });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
+    }
+
     @Transactional(readOnly = true)
     public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(AdminUserDTO::new);
+        Page<AdminUserDTO> page = userRepository.findAllProjected(pageable, false, AdminUserDTO.class);
+        setAuthorities(page.getContent());
+        return page;
+    }
+
+    /**
+     * Get the users following a position, without counting them.
+     *
+     * @param position the position of the last user of the previous window, or the initial position.
+     * @param sort the order of the users.
+     * @param size the maximum number of users.
+     * @return the users.
+     */
+    @Transactional(readOnly = true)
+    public Window<AdminUserDTO> getAllManagedUsers(KeysetScrollPosition position, Sort sort, int size) {
+        Window<AdminUserDTO> window = userRepository.findAllByKeyset(position, sort, size, false, AdminUserDTO.class);
+        setAuthorities(window.getContent());
+        return window;
     }
 
     @Transactional(readOnly = true)
     public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
-        return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+        return userRepository.findAllProjected(pageable, true, UserDTO.class);
+    }
+
+    /**
+     * Get the activated users following a position, without counting them.
+     *
+     * @param position the position of the last user of the previous window, or the initial position.
+     * @param sort the order of the users.
+     * @param size the maximum number of users.
+     * @return the users.
+     */
+    @Transactional(readOnly = true)
+    public Window<UserDTO> getAllPublicUsers(KeysetScrollPosition position, Sort sort, int size) {
+        return userRepository.findAllByKeyset(position, sort, size, true, UserDTO.class);
+    }
+
+    /**
+     * Set the authorities of projected users, with a single query instead of loading their entities.
+     */
+    private void setAuthorities(List<AdminUserDTO> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Map<Long, AdminUserDTO> usersById = new HashMap<>();
+        for (AdminUserDTO user : users) {
+            user.setAuthorities(new HashSet<>());
+            usersById.put(user.getId(), user);
+        }
+        for (UserAuthorityName authority : userRepository.findAllAuthorityNamesByUserIdIn(usersById.keySet())) {
+            usersById.get(authority.userId()).getAuthorities().add(authority.authorityName());
+        }
+    }
+
+    /**
+     * Export all the users with their authorities, ordered by id.
+     * <p>
+     * The users are read from the database as they are consumed, so that the memory used does not depend on their
+     * number. The cursor has a connection and a transaction of its own, none is held for the caller.
+     *
+     * @param consumer the consumer of the users.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportUsers(Consumer<AdminUserDTO> consumer) {
+        userRepository.streamAllWithAuthorityNames(AdminUserDTO.class, (user, authorities) -> {
+            user.setAuthorities(authorities);
+            consumer.accept(user);
+        });
     }
 
     @Transactional(readOnly = true)
@@ -305,17 +593,41 @@ public class UserService {
      * Not activated users should be automatically deleted after 3 days.
      * <p>
      * This is scheduled to get fired everyday, at 01:00 (am).
+     * <p>
+     * The users are deleted by chunks of {@value #PURGE_CHUNK_SIZE}, each in a transaction of its own so that the locks
+     * are released as it goes: their ids, logins and emails are selected in the order of the ids, then the users are
+     * deleted in bulk if they are still not activated, and only the deleted ones are removed from the index by one
+     * request and have their cached entries evicted.
+     * {@value #PURGED_USERS_METER_NAME} counts the deleted users, and {@value #PURGE_CHUNKS_METER_NAME} times the
+     * chunks.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-                userSearchRepository.deleteFromIndex(user);
-                this.clearUserCaches(user);
-            });
+        Instant createdBefore = Instant.now().minus(3, ChronoUnit.DAYS);
+        long afterId = Long.MIN_VALUE;
+        List<UserCacheKeys> chunk;
+        do {
+            chunk = userRepository.findNotActivatedUsersCreatedBefore(createdBefore, afterId, Pageable.ofSize(PURGE_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).id();
+            List<Long> ids = chunk.stream().map(UserCacheKeys::id).toList();
+            List<Long> deletedIds = purgeChunkTimer.record(() -> userRepository.deleteNotActivatedByIdIn(ids));
+            if (!deletedIds.isEmpty()) {
+                // The users activated since they were selected are still indexed and cached
+                Set<Long> deleted = Set.copyOf(deletedIds);
+                List<UserCacheKeys> deletedUsers = chunk.stream().filter(user -> deleted.contains(user.id())).toList();
+                userSearchRepository.deleteAllFromIndex(deletedIds);
+                evictUserCaches(
+                    deletedUsers.stream().map(UserCacheKeys::login).toList(),
+                    deletedUsers.stream().map(UserCacheKeys::email).filter(Objects::nonNull).toList()
+                );
+            }
+            purgedUsersCounter.increment(deletedIds.size());
+            log.debug("Deleted {} not activated users, up to id {}", deletedIds.size(), afterId);
+        } while (chunk.size() == PURGE_CHUNK_SIZE);
     }
 
     /**
@@ -328,9 +640,33 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
-        if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+        String login = user.getLogin();
+        String email = user.getEmail();
+        evictUserCaches(login, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Concurrent requests may cache the previous state, such as the absence of a new user, until the commit
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evictUserCaches(login, email);
+                    }
+                }
+            );
+        }
+    }
+
+    private void evictUserCaches(Collection<String> logins, Collection<String> emails) {
+        Cache usersByLogin = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE));
+        logins.forEach(usersByLogin::evict);
+        Cache usersByEmail = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE));
+        emails.forEach(usersByEmail::evict);
+    }
+
+    private void evictUserCaches(String login, String email) {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(login);
+        if (email != null) {
+            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(email);
         }
     }
 }
@@ -5,6 +5,7 @@ import java.io.Serializable;
 import java.time.Instant;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.data.annotation.PersistenceCreator;
 import vn.com.msb.config.Constants;
 import vn.com.msb.domain.Authority;
 import vn.com.msb.domain.User;
@@ -71,6 +72,38 @@ public class AdminUserDTO implements Serializable {
         this.authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
     }
 
+    /**
+     * Constructor of the projections selecting the columns of the users, which leave the authorities to set.
+     */
+    @PersistenceCreator
+    public AdminUserDTO(
+        Long id,
+        String login,
+        String firstName,
+        String lastName,
+        String email,
+        String imageUrl,
+        boolean activated,
+        String langKey,
+        String createdBy,
+        Instant createdDate,
+        String lastModifiedBy,
+        Instant lastModifiedDate
+    ) {
+        this.id = id;
+        this.login = login;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.imageUrl = imageUrl;
+        this.activated = activated;
+        this.langKey = langKey;
+        this.createdBy = createdBy;
+        this.createdDate = createdDate;
+        this.lastModifiedBy = lastModifiedBy;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     public Long getId() {
         return id;
     }
@@ -1,6 +1,7 @@
 package vn.com.msb.service.dto;
 
 import java.io.Serializable;
+import org.springframework.data.annotation.PersistenceCreator;
 import vn.com.msb.domain.User;
 
 /**
@@ -24,6 +25,15 @@ public class UserDTO implements Serializable {
         this.login = user.getLogin();
     }
 
+    /**
+     * Constructor of the projections selecting the columns of the users.
+     */
+    @PersistenceCreator
+    public UserDTO(Long id, String login) {
+        this.id = id;
+        this.login = login;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,31 @@
+package vn.com.msb.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the outcome of the import of a user.
+ *
+ * @param row the number of the user in the import, from 1.
+ * @param login the login of the user, if it could be read.
+ * @param id the id of the created user.
+ * @param status the outcome of the import.
+ * @param message the reason why the user was not created.
+ */
+public record UserImportResultDTO(int row, String login, Long id, Status status, String message) implements Serializable {
+    public enum Status {
+        CREATED,
+        INVALID,
+        LOGIN_ALREADY_USED,
+        EMAIL_ALREADY_USED,
+        CONFLICT,
+        BUSY,
+    }
+
+    public static UserImportResultDTO created(int row, String login, Long id) {
+        return new UserImportResultDTO(row, login, id, Status.CREATED, null);
+    }
+
+    public static UserImportResultDTO rejected(int row, String login, Status status, String message) {
+        return new UserImportResultDTO(row, login, null, status, message);
+    }
+}
@@ -1,5 +1,6 @@
 package vn.com.msb.web.rest;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.*;
 import org.apache.commons.lang3.StringUtils;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import vn.com.msb.domain.User;
 import vn.com.msb.repository.UserRepository;
 import vn.com.msb.security.SecurityUtils;
+import vn.com.msb.security.throttle.LoginThrottle;
 import vn.com.msb.service.MailService;
 import vn.com.msb.service.UserService;
 import vn.com.msb.service.dto.AdminUserDTO;
@@ -40,10 +42,13 @@ public class AccountResource {
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final LoginThrottle loginThrottle;
+
+    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService, LoginThrottle loginThrottle) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.loginThrottle = loginThrottle;
     }
 
     /**
@@ -138,9 +143,13 @@ public class AccountResource {
      * {@code POST   /account/reset-password/init} : Send an email to reset the password of the user.
      *
      * @param mail the mail of the user.
+     * @param request the request, whose client address is throttled.
+     * @throws vn.com.msb.security.throttle.ThrottledException {@code 429 (Too Many Requests)} if the client or the mail made too
+     * many requests.
      */
     @PostMapping(path = "/account/reset-password/init")
-    public void requestPasswordReset(@RequestBody String mail) {
+    public void requestPasswordReset(@RequestBody String mail, HttpServletRequest request) {
+        loginThrottle.checkPasswordReset(mail, request.getRemoteAddr());
         Optional<User> user = userService.requestPasswordReset(mail);
         if (user.isPresent()) {
             mailService.sendPasswordResetMail(user.orElseThrow());
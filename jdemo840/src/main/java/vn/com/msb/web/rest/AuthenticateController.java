@@ -1,13 +1,14 @@
 package vn.com.msb.web.rest;
 
 import static vn.com.msb.security.SecurityUtils.AUTHORITIES_KEY;
-import static vn.com.msb.security.SecurityUtils.JWT_ALGORITHM;
+import static vn.com.msb.security.SecurityUtils.USER_ID_KEY;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,17 +16,29 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.web.bind.annotation.*;
+import vn.com.msb.security.DomainUserDetails;
+import vn.com.msb.security.jwt.JwtKeySet;
+import vn.com.msb.security.jwt.TokenRevocationList;
+import vn.com.msb.security.throttle.LoginThrottle;
+import vn.com.msb.service.RefreshTokenService;
 import vn.com.msb.web.rest.vm.LoginVM;
+import vn.com.msb.web.rest.vm.RefreshTokenVM;
 
 /**
  * Controller to authenticate users.
@@ -34,36 +47,120 @@ import vn.com.msb.web.rest.vm.LoginVM;
 @RequestMapping("/api")
 public class AuthenticateController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final Logger log = LoggerFactory.getLogger(AuthenticateController.class);
 
     private final JwtEncoder jwtEncoder;
 
+    private final JwtKeySet jwtKeySet;
+
+    /**
+     * The validity of the access tokens, kept short as they cannot be revoked: a user is logged out when their refresh
+     * token is revoked, once their access token expires.
+     */
     @Value("${jhipster.security.authentication.jwt.token-validity-in-seconds:0}")
     private long tokenValidityInSeconds;
 
-    @Value("${jhipster.security.authentication.jwt.token-validity-in-seconds-for-remember-me:0}")
-    private long tokenValidityInSecondsForRememberMe;
-
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public AuthenticateController(JwtEncoder jwtEncoder, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final UserDetailsService userDetailsService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final JwtDecoder jwtDecoder;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final LoginThrottle loginThrottle;
+
+    public AuthenticateController(
+        JwtEncoder jwtEncoder,
+        JwtKeySet jwtKeySet,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        UserDetailsService userDetailsService,
+        RefreshTokenService refreshTokenService,
+        JwtDecoder jwtDecoder,
+        TokenRevocationList tokenRevocationList,
+        LoginThrottle loginThrottle
+    ) {
         this.jwtEncoder = jwtEncoder;
+        this.jwtKeySet = jwtKeySet;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.jwtDecoder = jwtDecoder;
+        this.tokenRevocationList = tokenRevocationList;
+        this.loginThrottle = loginThrottle;
     }
 
     @PostMapping("/authenticate")
-    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM) {
+    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        // Before the password is hashed
+        loginThrottle.checkLogin(loginVM.getUsername(), request.getRemoteAddr());
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
             loginVM.getUsername(),
             loginVM.getPassword()
         );
 
-        Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        Authentication authentication;
+        try {
+            authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        } catch (AuthenticationException e) {
+            loginThrottle.loginFailed(loginVM.getUsername());
+            throw e;
+        }
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = this.createToken(authentication, loginVM.isRememberMe());
+        String jwt = this.createToken(authentication);
+        String refreshToken = refreshTokenService.create(authentication.getName(), loginVM.isRememberMe());
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.setBearerAuth(jwt);
-        return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+        return new ResponseEntity<>(new JWTToken(jwt, refreshToken), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * {@code POST /authenticate/refresh} : exchange a refresh token for a new access token and a new refresh token.
+     * <p>
+     * The authorities of the new access token are read again, and a deactivated user is rejected.
+     *
+     * @param refreshTokenVM the refresh token, which cannot be used again.
+     * @return the new tokens, or status {@code 401 (Unauthorized)} if the refresh token is unknown, expired or revoked.
+     */
+    @PostMapping("/authenticate/refresh")
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        RefreshTokenService.Rotation rotation = refreshTokenService
+            .rotate(refreshTokenVM.getRefreshToken())
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        UserDetails userDetails = userDetailsService.loadUserByUsername(rotation.login());
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(userDetails, null, userDetails.getAuthorities());
+        String jwt = this.createToken(authentication);
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setBearerAuth(jwt);
+        return new ResponseEntity<>(new JWTToken(jwt, rotation.refreshToken()), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * {@code POST /authenticate/revoke} : revoke a refresh token, and the tokens it was exchanged for, on logout.
+     * <p>
+     * The access token sent along, if still valid, is revoked as well.
+     *
+     * @param refreshTokenVM the refresh token.
+     * @param authorization the {@code Authorization} header.
+     */
+    @PostMapping("/authenticate/revoke")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revoke(
+        @Valid @RequestBody RefreshTokenVM refreshTokenVM,
+        @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
+        refreshTokenService.revoke(refreshTokenVM.getRefreshToken());
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            try {
+                tokenRevocationList.revoke(jwtDecoder.decode(authorization.substring(BEARER_PREFIX.length())));
+            } catch (JwtException e) {
+                log.debug("Access token not revoked: {}", e.getMessage());
+            }
+        }
     }
 
     /**
@@ -78,27 +175,26 @@ public class AuthenticateController {
         return request.getRemoteUser();
     }
 
-    public String createToken(Authentication authentication, boolean rememberMe) {
+    public String createToken(Authentication authentication) {
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(" "));
 
         Instant now = Instant.now();
-        Instant validity;
-        if (rememberMe) {
-            validity = now.plus(this.tokenValidityInSecondsForRememberMe, ChronoUnit.SECONDS);
-        } else {
-            validity = now.plus(this.tokenValidityInSeconds, ChronoUnit.SECONDS);
-        }
+        Instant validity = now.plus(this.tokenValidityInSeconds, ChronoUnit.SECONDS);
 
         // @formatter:off
-        JwtClaimsSet claims = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+            .id(UUID.randomUUID().toString())
             .issuedAt(now)
             .expiresAt(validity)
             .subject(authentication.getName())
-            .claim(AUTHORITIES_KEY, authorities)
-            .build();
+            .claim(AUTHORITIES_KEY, authorities);
+        // The endpoints identify the user from the token, without loading it
+        if (authentication.getPrincipal() instanceof DomainUserDetails userDetails) {
+            claims.claim(USER_ID_KEY, userDetails.getId());
+        }
 
-        JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
-        return this.jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
+        JwsHeader jwsHeader = jwtKeySet.createHeader();
+        return this.jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader, claims.build())).getTokenValue();
     }
 
     /**
@@ -108,8 +204,11 @@ public class AuthenticateController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -120,5 +219,14 @@ public class AuthenticateController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
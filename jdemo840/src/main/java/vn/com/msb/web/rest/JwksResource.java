@@ -0,0 +1,41 @@
+package vn.com.msb.web.rest;
+
+import java.time.Duration;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import vn.com.msb.security.jwt.JwtKeySet;
+
+/**
+ * REST controller publishing the public keys verifying the JWTs, so that other services can verify them without
+ * calling back.
+ */
+@RestController
+public class JwksResource {
+
+    private final Logger log = LoggerFactory.getLogger(JwksResource.class);
+
+    private final JwtKeySet jwtKeySet;
+
+    public JwksResource(JwtKeySet jwtKeySet) {
+        this.jwtKeySet = jwtKeySet;
+    }
+
+    /**
+     * {@code GET  /.well-known/jwks.json} : get the public keys verifying the JWTs.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the JWK set in body, without keys when the
+     * tokens are signed with a shared secret.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        log.debug("REST request to get the JWK set");
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+            .body(jwtKeySet.getPublicKeys().toJSONObject(true));
+    }
+}
@@ -8,15 +8,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.PaginationUtil;
+import vn.com.msb.domain.User;
 import vn.com.msb.repository.search.UserSearchRepository;
 import vn.com.msb.service.UserService;
 import vn.com.msb.service.dto.UserDTO;
+import vn.com.msb.web.util.KeysetPaginationUtil;
 
 @RestController
 @RequestMapping("/api")
@@ -54,6 +57,40 @@ public class PublicUserResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * {@code GET /users?cursor=} : get the users following a cursor with only public information, without counting them.
+     * <p>
+     * The first page is requested with an empty cursor, and the {@code Link} header of each page carries the cursor of
+     * the next one, which keeps the sort of the first page.
+     *
+     * @param cursor the cursor of the page, empty for the first page.
+     * @param pageable the size of the pages, and the sort of the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users, or with status
+     * {@code 400 (Bad Request)} if the cursor is invalid.
+     */
+    @GetMapping(path = "/users", params = KeysetPaginationUtil.CURSOR_PARAMETER)
+    public ResponseEntity<List<UserDTO>> getAllPublicUsersAfter(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAMETER) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a window of public User names");
+        Optional<KeysetPaginationUtil.Cursor> position = KeysetPaginationUtil.decode(cursor, pageable.getSort(), User.class).filter(
+            decoded -> KeysetPaginationUtil.onlyContainsAllowedProperties(decoded.sort(), ALLOWED_ORDERED_PROPERTIES)
+        );
+        if (position.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Sort sort = position.orElseThrow().sort();
+        Window<UserDTO> window = userService.getAllPublicUsers(position.orElseThrow().position(), sort, pageable.getPageSize());
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            sort,
+            window
+        );
+        return new ResponseEntity<>(window.getContent(), headers, HttpStatus.OK);
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
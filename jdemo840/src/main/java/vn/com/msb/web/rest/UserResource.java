@@ -1,22 +1,41 @@
 package vn.com.msb.web.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Collections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -25,12 +44,17 @@ import vn.com.msb.config.Constants;
 import vn.com.msb.domain.User;
 import vn.com.msb.repository.UserRepository;
 import vn.com.msb.security.AuthoritiesConstants;
+import vn.com.msb.security.FreshUser;
+import vn.com.msb.security.PasswordEncoderBusyException;
 import vn.com.msb.service.MailService;
 import vn.com.msb.service.UserService;
 import vn.com.msb.service.dto.AdminUserDTO;
+import vn.com.msb.service.dto.UserImportResultDTO;
 import vn.com.msb.web.rest.errors.BadRequestAlertException;
 import vn.com.msb.web.rest.errors.EmailAlreadyUsedException;
 import vn.com.msb.web.rest.errors.LoginAlreadyUsedException;
+import vn.com.msb.web.util.CsvWriter;
+import vn.com.msb.web.util.KeysetPaginationUtil;
 
 /**
  * REST controller for managing users.
@@ -87,10 +111,13 @@ public class UserResource {
 
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final ObjectMapper objectMapper;
+
+    public UserResource(UserService userService, UserRepository userRepository, MailService mailService, ObjectMapper objectMapper) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -106,6 +133,7 @@ public class UserResource {
      * @throws BadRequestAlertException {@code 400 (Bad Request)} if the login or email is already in use.
      */
     @PostMapping("/users")
+    @FreshUser
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
     public ResponseEntity<User> createUser(@Valid @RequestBody AdminUserDTO userDTO) throws URISyntaxException {
         log.debug("REST request to save User : {}", userDTO);
@@ -126,6 +154,100 @@ public class UserResource {
         }
     }
 
+    /**
+     * {@code POST  /admin/users/bulk}  : Creates users, as {@link #createUser(AdminUserDTO)} does for each.
+     * <p>
+     * The users are read as a JSON array, or one JSON object per line, and created by chunks of
+     * {@link UserService#IMPORT_CHUNK_SIZE} as they are read, each in a transaction of its own. The creation emails of a
+     * chunk are sent by a single task once it is committed.
+     * <p>
+     * Reading stops at the first malformed user, which is reported invalid. The import can be sent again as a whole:
+     * the users already created are then reported with their login already used.
+     * <p>
+     * A chunk failing on a login or an email created concurrently is imported again once, and its users are reported in
+     * conflict if it fails again, the other chunks being imported.
+     * <p>
+     * When too many passwords wait to be hashed, the users of the chunk are reported busy, none of them being created,
+     * and reading stops there: the outcome of the users before them is returned, and the import can be sent again from
+     * the first busy user.
+     *
+     * @param inputStream the users to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each user, in their order.
+     * @throws IOException if the users cannot be read.
+     */
+    @PostMapping(path = "/users/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @FreshUser
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<List<UserImportResultDTO>> importUsers(InputStream inputStream) throws IOException {
+        log.debug("REST request to import Users");
+        List<UserImportResultDTO> results = new ArrayList<>();
+        List<AdminUserDTO> chunk = new ArrayList<>(UserService.IMPORT_CHUNK_SIZE);
+        try (MappingIterator<AdminUserDTO> userDTOs = objectMapper.readerFor(AdminUserDTO.class).readValues(inputStream)) {
+            while (userDTOs.hasNextValue()) {
+                chunk.add(userDTOs.nextValue());
+                if (chunk.size() == UserService.IMPORT_CHUNK_SIZE) {
+                    if (!importUsers(chunk, results)) {
+                        return ResponseEntity.ok(results);
+                    }
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            if (!importUsers(chunk, results)) {
+                return ResponseEntity.ok(results);
+            }
+            int row = results.size() + 1;
+            results.add(UserImportResultDTO.rejected(row, null, UserImportResultDTO.Status.INVALID, e.getOriginalMessage()));
+            return ResponseEntity.ok(results);
+        }
+        importUsers(chunk, results);
+        return ResponseEntity.ok(results);
+    }
+
+    // Whether the import can go on with the next chunk
+    private boolean importUsers(List<AdminUserDTO> chunk, List<UserImportResultDTO> results) {
+        if (chunk.isEmpty()) {
+            return true;
+        }
+        int firstRow = results.size() + 1;
+        UserService.ImportedUsers imported;
+        try {
+            try {
+                imported = userService.importUsers(chunk, firstRow);
+            } catch (DataIntegrityViolationException e) {
+                // A login or an email was taken since it was checked, which the second attempt sees
+                imported = userService.importUsers(chunk, firstRow);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Could not import the users from row {}: {}", firstRow, e.getMessage());
+            String message = "Logins or emails were created concurrently, the user was not imported";
+            rejectAll(chunk, firstRow, UserImportResultDTO.Status.CONFLICT, message, results);
+            return true;
+        } catch (PasswordEncoderBusyException e) {
+            log.warn("Stopped the import at row {}: {}", firstRow, e.getMessage());
+            String message = "Too many passwords waiting to be hashed, the user was not imported";
+            rejectAll(chunk, firstRow, UserImportResultDTO.Status.BUSY, message, results);
+            return false;
+        }
+        results.addAll(imported.results());
+        if (!imported.users().isEmpty()) {
+            mailService.sendCreationEmails(imported.users());
+        }
+        return true;
+    }
+
+    private static void rejectAll(
+        List<AdminUserDTO> chunk,
+        int firstRow,
+        UserImportResultDTO.Status status,
+        String message,
+        List<UserImportResultDTO> results
+    ) {
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(UserImportResultDTO.rejected(firstRow + i, chunk.get(i).getLogin(), status, message));
+        }
+    }
+
     /**
      * {@code PUT /admin/users} : Updates an existing User.
      *
@@ -135,6 +257,7 @@ public class UserResource {
      * @throws LoginAlreadyUsedException {@code 400 (Bad Request)} if the login is already in use.
      */
     @PutMapping({ "/users", "/users/{login}" })
+    @FreshUser
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
     public ResponseEntity<AdminUserDTO> updateUser(
         @PathVariable(name = "login", required = false) @Pattern(regexp = Constants.LOGIN_REGEX) String login,
@@ -176,10 +299,136 @@ public class UserResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * {@code GET /admin/users?cursor=} : get the users following a cursor, without counting them.
+     * <p>
+     * The first page is requested with an empty cursor, and the {@code Link} header of each page carries the cursor of
+     * the next one, which keeps the sort of the first page.
+     *
+     * @param cursor the cursor of the page, empty for the first page.
+     * @param pageable the size of the pages, and the sort of the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users, or with status
+     * {@code 400 (Bad Request)} if the cursor is invalid.
+     */
+    @GetMapping(path = "/users", params = KeysetPaginationUtil.CURSOR_PARAMETER)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<List<AdminUserDTO>> getAllUsersAfter(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAMETER) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a window of User for an admin");
+        Optional<KeysetPaginationUtil.Cursor> position = KeysetPaginationUtil.decode(cursor, pageable.getSort(), User.class).filter(
+            decoded -> KeysetPaginationUtil.onlyContainsAllowedProperties(decoded.sort(), ALLOWED_ORDERED_PROPERTIES)
+        );
+        if (position.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Sort sort = position.orElseThrow().sort();
+        Window<AdminUserDTO> window = userService.getAllManagedUsers(position.orElseThrow().position(), sort, pageable.getPageSize());
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            sort,
+            window
+        );
+        return new ResponseEntity<>(window.getContent(), headers, HttpStatus.OK);
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
 
+    /**
+     * {@code GET /admin/users/export} : export all users, with their authorities.
+     * <p>
+     * The users are written as they are read from the database, ordered by id, so that the whole user base is exported
+     * in one request whatever its size.
+     *
+     * @param format the format of the export: {@code ndjson}, a JSON object per line, or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users, or with status {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/users/export")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(name = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export all User as {}", format);
+        return switch (format) {
+            case "ndjson" -> export("users.ndjson", MediaType.APPLICATION_NDJSON, this::writeNdjson);
+            case "csv" -> export("users.csv", new MediaType("text", "csv", StandardCharsets.UTF_8), this::writeCsv);
+            default -> ResponseEntity.badRequest().build();
+        };
+    }
+
+    private static ResponseEntity<StreamingResponseBody> export(String filename, MediaType mediaType, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .contentType(mediaType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+
+    private void writeNdjson(OutputStream outputStream) throws IOException {
+        // Flushing is left to the buffer of the response, not done after each user
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            userService.exportUsers(user -> {
+                try {
+                    writer.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        CsvWriter csvWriter = new CsvWriter(writer);
+        csvWriter.writeRecord(
+            "id",
+            "login",
+            "firstName",
+            "lastName",
+            "email",
+            "imageUrl",
+            "activated",
+            "langKey",
+            "createdBy",
+            "createdDate",
+            "lastModifiedBy",
+            "lastModifiedDate",
+            "authorities"
+        );
+        try {
+            userService.exportUsers(user -> {
+                try {
+                    csvWriter.writeRecord(
+                        user.getId(),
+                        user.getLogin(),
+                        user.getFirstName(),
+                        user.getLastName(),
+                        user.getEmail(),
+                        user.getImageUrl(),
+                        user.isActivated(),
+                        user.getLangKey(),
+                        user.getCreatedBy(),
+                        user.getCreatedDate(),
+                        user.getLastModifiedBy(),
+                        user.getLastModifiedDate(),
+                        String.join(" ", user.getAuthorities())
+                    );
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csvWriter.flush();
+    }
+
     /**
      * {@code GET /admin/users/:login} : get the "login" user.
      *
@@ -200,6 +449,7 @@ public class UserResource {
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
     @DeleteMapping("/users/{login}")
+    @FreshUser
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
     public ResponseEntity<Void> deleteUser(@PathVariable("login") @Pattern(regexp = Constants.LOGIN_REGEX) String login) {
         log.debug("REST request to delete User: {}", login);
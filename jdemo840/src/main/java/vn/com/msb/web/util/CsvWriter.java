@@ -0,0 +1,60 @@
+package vn.com.msb.web.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer of CSV records (RFC 4180), for the exports opened in spreadsheets.
+ * <p>
+ * The fields are quoted when they contain a separator, a quote or a line break. The ones starting like a formula are
+ * prefixed with a quote, so that the spreadsheets display them instead of evaluating them.
+ */
+public final class CsvWriter implements Flushable {
+
+    private static final String FORMULA_STARTS = "=+-@\t\r";
+
+    private final Writer writer;
+
+    /**
+     * @param writer the writer of the records, which is not closed.
+     */
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Write a record.
+     *
+     * @param fields the fields of the record, written with {@link String#valueOf(Object)}, a null one as an empty field.
+     * @throws IOException if the record cannot be written.
+     */
+    public void writeRecord(Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (fields[i] != null) {
+                writeField(String.valueOf(fields[i]));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(String field) throws IOException {
+        // Not a formula in the spreadsheets
+        String value = !field.isEmpty() && FORMULA_STARTS.indexOf(field.charAt(0)) >= 0 ? "'" + field : field;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,172 @@
+package vn.com.msb.web.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for keyset pagination, where each page starts after the sort keys of the last element of the previous
+ * one instead of at an offset.
+ * <p>
+ * The position of a page is an opaque cursor, which carries the sort and the keys of the last element of the previous
+ * page. The first page is requested with an empty cursor, and the {@code Link} header of each page carries the cursor
+ * of the next one; there is no total count.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String CURSOR_PARAMETER = "cursor";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final TypeReference<Map<String, Object>> CURSOR_TYPE = new TypeReference<>() {};
+
+    private static final String SORT = "s";
+
+    private static final String KEYS = "k";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * The position decoded from a cursor.
+     *
+     * @param sort the sort of the pages.
+     * @param position the keys of the last element of the previous page, or the initial position.
+     */
+    public record Cursor(Sort sort, KeysetScrollPosition position) {}
+
+    /**
+     * Decode a cursor.
+     *
+     * @param cursor the cursor sent by the client, empty for the first page.
+     * @param sort the sort of the first page.
+     * @param type the type of the elements, whose properties give the types of the keys.
+     * @return the position, or empty if the cursor is malformed or refers to unknown properties.
+     */
+    public static Optional<Cursor> decode(String cursor, Sort sort, Class<?> type) {
+        if (cursor.isEmpty()) {
+            return Optional.of(new Cursor(sort, ScrollPosition.keyset()));
+        }
+        try {
+            Map<String, Object> content = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), CURSOR_TYPE);
+            if (!(content.get(SORT) instanceof List<?> orders) || !(content.get(KEYS) instanceof Map<?, ?> keys)) {
+                return Optional.empty();
+            }
+            List<Sort.Order> cursorOrders = new ArrayList<>();
+            for (Object order : orders) {
+                String[] parts = String.valueOf(order).split(",");
+                cursorOrders.add(new Sort.Order(Sort.Direction.fromString(parts[parts.length - 1]), parts[0]));
+            }
+            Map<String, Object> typedKeys = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> key : keys.entrySet()) {
+                PropertyDescriptor property = BeanUtils.getPropertyDescriptor(type, String.valueOf(key.getKey()));
+                if (property == null) {
+                    return Optional.empty();
+                }
+                typedKeys.put(property.getName(), convert(key.getValue(), property.getPropertyType()));
+            }
+            if (!cursorOrders.stream().map(Sort.Order::getProperty).allMatch(typedKeys::containsKey)) {
+                return Optional.empty();
+            }
+            return Optional.of(new Cursor(Sort.by(cursorOrders), ScrollPosition.forward(typedKeys)));
+        } catch (IOException | RuntimeException e) {
+            // Whatever the client changed in the cursor
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Encode the position following a window.
+     *
+     * @param sort the sort of the pages.
+     * @param window the window.
+     * @return the cursor of the next window, or empty if the window is the last one.
+     */
+    public static Optional<String> encodeNext(Sort sort, Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return Optional.empty();
+        }
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        position.getKeys().forEach((name, value) -> keys.put(name, value != null ? value.toString() : null));
+        try {
+            byte[] content = OBJECT_MAPPER.writeValueAsBytes(Map.of(SORT, sortParameters(sort), KEYS, keys));
+            return Optional.of(Base64.getUrlEncoder().withoutPadding().encodeToString(content));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generate the headers of a window: a {@code Link} header to the first and next pages.
+     *
+     * @param uriBuilder the builder of the URI of the current request.
+     * @param sort the sort of the pages.
+     * @param window the window.
+     * @return the headers.
+     */
+    public static HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, Sort sort, Window<?> window) {
+        List<String> links = new ArrayList<>();
+        encodeNext(sort, window).ifPresent(next ->
+            // The cursor of the next pages carries their sort
+            links.add(link(uriBuilder.cloneBuilder().replaceQueryParam("sort").replaceQueryParam(CURSOR_PARAMETER, next), "next"))
+        );
+        UriComponentsBuilder first = uriBuilder.cloneBuilder().replaceQueryParam("sort", sortParameters(sort).toArray());
+        links.add(link(first.replaceQueryParam(CURSOR_PARAMETER, ""), "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return headers;
+    }
+
+    /**
+     * @param sort a sort.
+     * @param allowedProperties the properties the elements can be sorted by.
+     * @return whether the sort only uses these properties.
+     */
+    public static boolean onlyContainsAllowedProperties(Sort sort, Collection<String> allowedProperties) {
+        return sort.stream().map(Sort.Order::getProperty).allMatch(allowedProperties::contains);
+    }
+
+    private static String link(UriComponentsBuilder uriBuilder, String relType) {
+        return "<" + uriBuilder.replaceQueryParam("page").build().encode().toUriString() + ">; rel=\"" + relType + "\"";
+    }
+
+    private static List<String> sortParameters(Sort sort) {
+        return sort.stream().map(order -> order.getProperty() + "," + order.getDirection().name().toLowerCase(Locale.ROOT)).toList();
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null || type == String.class) {
+            return value;
+        }
+        String string = value.toString();
+        if (type == Long.class || type == long.class) {
+            return Long.valueOf(string);
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return Boolean.valueOf(string);
+        }
+        if (type == Instant.class) {
+            return Instant.parse(string);
+        }
+        throw new IllegalArgumentException("Unsupported key type " + type.getName());
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Utilities of the REST controllers.
+ */
+package vn.com.msb.web.util;
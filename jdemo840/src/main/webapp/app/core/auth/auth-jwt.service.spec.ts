@@ -9,6 +9,8 @@ describe('Auth JWT', () => {
   let mockStorageService: StateStorageService;
 
   beforeEach(() => {
+    localStorage.clear();
+    sessionStorage.clear();
     TestBed.configureTestingModule({
       imports: [HttpClientTestingModule],
     });
@@ -63,6 +65,52 @@ describe('Auth JWT', () => {
       httpMock.verify();
       expect(mockStorageService.storeAuthenticationToken).toHaveBeenCalledWith('1', false);
     });
+
+    it('should store the refresh token next to the access token', () => {
+      // GIVEN
+      mockStorageService.storeRefreshToken = jest.fn();
+
+      // WHEN
+      service.login({ username: 'John', password: '123', rememberMe: true }).subscribe();
+      httpMock.expectOne('api/authenticate').flush({ id_token: '1', refresh_token: 'r1' });
+
+      // THEN
+      httpMock.verify();
+      expect(mockStorageService.storeRefreshToken).toHaveBeenCalledWith('r1', true);
+    });
+  });
+
+  describe('Refresh', () => {
+    it('should fail without refresh token', () => {
+      // WHEN
+      let failed = false;
+      service.refreshToken().subscribe({ error: () => (failed = true) });
+
+      // THEN
+      httpMock.verify();
+      expect(failed).toBe(true);
+    });
+
+    it('should exchange the refresh token once for concurrent callers', () => {
+      // GIVEN
+      mockStorageService.storeAuthenticationToken('1', true);
+      mockStorageService.storeRefreshToken('r1', true);
+      const tokens: string[] = [];
+
+      // WHEN
+      service.refreshToken().subscribe(token => tokens.push(token));
+      service.refreshToken().subscribe(token => tokens.push(token));
+      const request = httpMock.expectOne('api/authenticate/refresh');
+      request.flush({ id_token: '2', refresh_token: 'r2' });
+
+      // THEN
+      httpMock.verify();
+      expect(request.request.body).toEqual({ refresh_token: 'r1' });
+      expect(tokens).toEqual(['2', '2']);
+      expect(service.getToken()).toEqual('2');
+      expect(mockStorageService.getRefreshToken()).toEqual('r2');
+      expect(mockStorageService.isAuthenticationRemembered()).toBe(true);
+    });
   });
 
   describe('Logout', () => {
@@ -76,5 +124,18 @@ describe('Auth JWT', () => {
       // THEN
       expect(mockStorageService.clearAuthenticationToken).toHaveBeenCalled();
     });
+
+    it('should revoke the refresh token', () => {
+      // GIVEN
+      mockStorageService.storeRefreshToken('r1', false);
+
+      // WHEN
+      service.logout().subscribe();
+
+      // THEN
+      httpMock.expectOne('api/authenticate/revoke').flush(null);
+      httpMock.verify();
+      expect(mockStorageService.getRefreshToken()).toBeNull();
+    });
   });
 });
@@ -1,7 +1,7 @@
 import { inject, Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
-import { map } from 'rxjs/operators';
+import { Observable, throwError } from 'rxjs';
+import { finalize, map, shareReplay } from 'rxjs/operators';
 
 import { Login } from 'app/login/login.model';
 import { ApplicationConfigService } from '../config/application-config.service';
@@ -9,6 +9,7 @@ import { StateStorageService } from './state-storage.service';
 
 type JwtToken = {
   id_token: string;
+  refresh_token?: string;
 };
 
 @Injectable({ providedIn: 'root' })
@@ -16,6 +17,7 @@ export class AuthServerProvider {
   private http = inject(HttpClient);
   private stateStorageService = inject(StateStorageService);
   private applicationConfigService = inject(ApplicationConfigService);
+  private refresh$: Observable<string> | null = null;
 
   getToken(): string {
     return this.stateStorageService.getAuthenticationToken() ?? '';
@@ -27,8 +29,37 @@ export class AuthServerProvider {
       .pipe(map(response => this.authenticateSuccess(response, credentials.rememberMe)));
   }
 
+  /**
+   * Exchanges the refresh token for a new access token. The requests failing at the same time share the same call,
+   * as a refresh token can only be used once.
+   */
+  refreshToken(): Observable<string> {
+    const refreshToken = this.stateStorageService.getRefreshToken();
+    if (!refreshToken) {
+      return throwError(() => new Error('No refresh token'));
+    }
+    this.refresh$ ??= this.http
+      .post<JwtToken>(this.applicationConfigService.getEndpointFor('api/authenticate/refresh'), { refresh_token: refreshToken })
+      .pipe(
+        map(response => {
+          this.authenticateSuccess(response, this.stateStorageService.isAuthenticationRemembered());
+          return response.id_token;
+        }),
+        finalize(() => (this.refresh$ = null)),
+        shareReplay(1),
+      );
+    return this.refresh$;
+  }
+
   logout(): Observable<void> {
     return new Observable(observer => {
+      const refreshToken = this.stateStorageService.getRefreshToken();
+      if (refreshToken) {
+        // The access token expires on its own, the refresh token is revoked server side
+        this.http
+          .post(this.applicationConfigService.getEndpointFor('api/authenticate/revoke'), { refresh_token: refreshToken })
+          .subscribe({ error: () => undefined });
+      }
       this.stateStorageService.clearAuthenticationToken();
       observer.complete();
     });
@@ -36,5 +67,8 @@ export class AuthServerProvider {
 
   private authenticateSuccess(response: JwtToken, rememberMe: boolean): void {
     this.stateStorageService.storeAuthenticationToken(response.id_token, rememberMe);
+    if (response.refresh_token) {
+      this.stateStorageService.storeRefreshToken(response.refresh_token, rememberMe);
+    }
   }
 }
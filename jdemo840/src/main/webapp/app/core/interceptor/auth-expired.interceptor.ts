@@ -1,29 +1,47 @@
 import { inject, Injectable } from '@angular/core';
 import { HttpInterceptor, HttpRequest, HttpHandler, HttpEvent, HttpErrorResponse } from '@angular/common/http';
-import { Observable } from 'rxjs';
-import { tap } from 'rxjs/operators';
+import { Observable, throwError } from 'rxjs';
+import { catchError, switchMap } from 'rxjs/operators';
 import { Router } from '@angular/router';
 
 import { LoginService } from 'app/login/login.service';
+import { AuthServerProvider } from 'app/core/auth/auth-jwt.service';
 import { StateStorageService } from 'app/core/auth/state-storage.service';
 
 @Injectable()
 export class AuthExpiredInterceptor implements HttpInterceptor {
   private loginService = inject(LoginService);
+  private authServerProvider = inject(AuthServerProvider);
   private stateStorageService = inject(StateStorageService);
   private router = inject(Router);
 
   intercept(request: HttpRequest<any>, next: HttpHandler): Observable<HttpEvent<any>> {
     return next.handle(request).pipe(
-      tap({
-        error: (err: HttpErrorResponse) => {
-          if (err.status === 401 && err.url && !err.url.includes('api/account')) {
-            this.stateStorageService.storeUrl(this.router.routerState.snapshot.url);
-            this.loginService.logout();
-            this.router.navigate(['/login']);
-          }
-        },
+      catchError((err: HttpErrorResponse) => {
+        if (err.status !== 401 || !err.url) {
+          return throwError(() => err);
+        }
+        // The access token expired: renew it with the refresh token and retry once
+        if (!err.url.includes('api/authenticate') && this.stateStorageService.getRefreshToken()) {
+          return this.authServerProvider.refreshToken().pipe(
+            catchError(() => {
+              this.expireSession(err);
+              return throwError(() => err);
+            }),
+            switchMap(token => next.handle(request.clone({ setHeaders: { Authorization: `Bearer ${token}` } }))),
+          );
+        }
+        this.expireSession(err);
+        return throwError(() => err);
       }),
     );
   }
+
+  private expireSession(err: HttpErrorResponse): void {
+    if (err.url && !err.url.includes('api/account')) {
+      this.stateStorageService.storeUrl(this.router.routerState.snapshot.url);
+      this.loginService.logout();
+      this.router.navigate(['/login']);
+    }
+  }
 }
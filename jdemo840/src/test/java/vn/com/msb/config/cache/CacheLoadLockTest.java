@@ -0,0 +1,61 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+
+/**
+ * Unit tests for {@link CacheLoadLock}.
+ */
+class CacheLoadLockTest {
+
+    private RLock lock;
+
+    private CacheLoadLock loadLock;
+
+    @BeforeEach
+    public void setup() {
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        lock = mock(RLock.class);
+        when(redissonClient.getLock(anyString())).thenReturn(lock);
+        loadLock = new CacheLoadLock(redissonClient, Duration.ofMillis(100), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testLoaderRunsWhileHoldingTheLock() throws Exception {
+        when(lock.tryLock(100, 1000, TimeUnit.MILLISECONDS)).thenReturn(true);
+
+        assertThat(loadLock.callWithLock("usersByLogin", "admin", () -> "value")).isEqualTo("value");
+
+        verify(lock).unlock();
+    }
+
+    @Test
+    void testLoaderRunsWhenTheLockIsNotAcquired() throws Exception {
+        when(lock.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(false);
+
+        assertThat(loadLock.callWithLock("usersByLogin", "admin", () -> "value")).isEqualTo("value");
+
+        verify(lock, never()).unlock();
+    }
+
+    @Test
+    void testLoaderRunsWhenRedisIsUnavailable() throws Exception {
+        when(lock.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS))).thenThrow(new RedisException("Connection refused"));
+
+        assertThat(loadLock.callWithLock("usersByLogin", "admin", () -> "value")).isEqualTo("value");
+    }
+}
@@ -0,0 +1,116 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.config.JHipsterProperties;
+import vn.com.msb.config.ApplicationProperties.Cache.ExpiryPolicy;
+import vn.com.msb.config.ApplicationProperties.Cache.Settings;
+import vn.com.msb.config.ApplicationProperties.Cache.Tier;
+
+/**
+ * Unit tests for {@link CacheSpec}.
+ */
+class CacheSpecTest {
+
+    private JHipsterProperties.Cache defaults;
+
+    @BeforeEach
+    public void setup() {
+        defaults = new JHipsterProperties().getCache();
+        defaults.getRedis().setExpiration(3600);
+        defaults.getCaffeine().setTimeToLiveSeconds(60);
+        defaults.getCaffeine().setMaxEntries(10000);
+    }
+
+    @Test
+    void testCacheWithoutSettingsUsesDefaults() {
+        CacheSpec spec = CacheSpec.of("test", null, defaults);
+
+        assertThat(spec.tier()).isEqualTo(Tier.BOTH);
+        assertThat(spec.timeToLive()).isEqualTo(Duration.ofHours(1));
+        assertThat(spec.expiryPolicy()).isEqualTo(ExpiryPolicy.CREATED);
+        assertThat(spec.maxEntries()).isEqualTo(10000);
+        assertThat(spec.localTimeToLive()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(spec.refreshWindow()).isNull();
+    }
+
+    @Test
+    void testLocalCacheCopiesLiveForTheTimeToLive() {
+        Settings settings = new Settings();
+        settings.setTier(Tier.LOCAL);
+        settings.setTimeToLive(Duration.ofHours(24));
+        settings.setMaxEntries(100L);
+
+        CacheSpec spec = CacheSpec.of("test", settings, defaults);
+
+        assertThat(spec.localTimeToLive()).isEqualTo(Duration.ofHours(24));
+        assertThat(spec.maxEntries()).isEqualTo(100);
+    }
+
+    @Test
+    void testLocalCopiesDoNotOutliveTheRemoteEntries() {
+        Settings settings = new Settings();
+        settings.setTimeToLive(Duration.ofSeconds(10));
+
+        assertThat(CacheSpec.of("test", settings, defaults).localTimeToLive()).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void testEternalCacheHasNoTimeToLive() {
+        Settings settings = new Settings();
+        settings.setExpiryPolicy(ExpiryPolicy.ETERNAL);
+
+        CacheSpec spec = CacheSpec.of("test", settings, defaults);
+
+        assertThat(spec.timeToLive()).isNull();
+        assertThat(spec.localTimeToLive()).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testRefreshedCacheDefaultsToModifiedExpiryPolicy() {
+        Settings settings = new Settings();
+        settings.setRefreshWindow(Duration.ofMinutes(5));
+
+        assertThat(CacheSpec.of("test", settings, defaults).expiryPolicy()).isEqualTo(ExpiryPolicy.MODIFIED);
+    }
+
+    @Test
+    void testRefreshedCacheMustBeExtendedOnUpdate() {
+        Settings settings = new Settings();
+        settings.setRefreshWindow(Duration.ofMinutes(5));
+        settings.setExpiryPolicy(ExpiryPolicy.CREATED);
+
+        assertThatThrownBy(() -> CacheSpec.of("test", settings, defaults)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRemoteCacheCannotBeRefreshed() {
+        Settings settings = new Settings();
+        settings.setRefreshWindow(Duration.ofMinutes(5));
+        settings.setTier(Tier.REMOTE);
+
+        assertThatThrownBy(() -> CacheSpec.of("test", settings, defaults)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testNegativeTimeToLive() {
+        Settings settings = new Settings();
+        settings.setNegativeTimeToLive(Duration.ofSeconds(30));
+
+        assertThat(CacheSpec.of("test", settings, defaults).negativeTimeToLive()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(CacheSpec.of("test", null, defaults).negativeTimeToLive()).isNull();
+    }
+
+    @Test
+    void testRemoteCacheCannotKeepNegativeEntriesLocally() {
+        Settings settings = new Settings();
+        settings.setTier(Tier.REMOTE);
+        settings.setNegativeTimeToLive(Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> CacheSpec.of("test", settings, defaults)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,135 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import vn.com.msb.config.ApplicationProperties;
+import vn.com.msb.domain.Authority;
+import vn.com.msb.domain.User;
+import vn.com.msb.repository.AuthorityRepository;
+import vn.com.msb.repository.UserRepository;
+
+/**
+ * Unit tests for {@link CacheWarmUp}.
+ */
+class CacheWarmUpTest {
+
+    private final CountDownLatch blockedBatch = new CountDownLatch(1);
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private UserRepository userRepository;
+
+    private AuthorityRepository authorityRepository;
+
+    private ApplicationProperties.Cache.WarmUp settings;
+
+    private CacheWarmUp warmUp;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = new ConcurrentMapCacheManager(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE);
+        userRepository = mock(UserRepository.class);
+        authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(List.of(new Authority().name("ROLE_USER"), new Authority().name("ROLE_ADMIN")));
+        when(userRepository.findIdsOfLastModifiedActivatedUsers(any(Pageable.class))).thenReturn(List.of(1L, 2L, 3L));
+        when(userRepository.findAllWithAuthoritiesByIdIn(any())).thenAnswer(invocation ->
+            invocation.<Collection<Long>>getArgument(0).stream().map(CacheWarmUpTest::createUser).toList()
+        );
+        settings = new ApplicationProperties.Cache.WarmUp();
+        settings.setBatchSize(2);
+        settings.setParallelism(2);
+        warmUp = new CacheWarmUp(cacheManager, userRepository, authorityRepository, settings);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        blockedBatch.countDown();
+    }
+
+    private static User createUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin("user-" + id);
+        user.setEmail("user-" + id + "@localhost");
+        return user;
+    }
+
+    @Test
+    void testUsersAreLoadedIntoTheUserCaches() {
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmUp.onApplicationEvent(mock(ApplicationReadyEvent.class));
+
+        assertThat(warmUp.getState()).isEqualTo(CacheWarmUp.State.COMPLETED);
+        for (long id = 1; id <= 3; id++) {
+            assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("user-" + id)).isNotNull();
+            assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get("user-" + id + "@localhost")).isNotNull();
+        }
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmUp.health().getDetails()).containsEntry("authorities", 2).containsEntry("users", 3).containsEntry("usersToLoad", 3);
+    }
+
+    @Test
+    void testCachedUsersAreKept() {
+        User cachedUser = createUser(1L);
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("user-1", cachedUser);
+
+        warmUp.onApplicationEvent(mock(ApplicationReadyEvent.class));
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("user-1").get()).isSameAs(cachedUser);
+    }
+
+    @Test
+    void testWarmUpStopsAfterItsTimeBudget() {
+        settings.setTimeBudget(Duration.ofMillis(100));
+        doAnswer(invocation -> {
+            blockedBatch.await();
+            return List.of();
+        })
+            .when(userRepository)
+            .findAllWithAuthoritiesByIdIn(any());
+
+        warmUp.onApplicationEvent(mock(ApplicationReadyEvent.class));
+
+        assertThat(warmUp.getState()).isEqualTo(CacheWarmUp.State.TIMED_OUT);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void testFailedBatchesDoNotFailTheWarmUp() {
+        doThrow(new IllegalStateException("Database unavailable")).when(userRepository).findAllWithAuthoritiesByIdIn(any());
+
+        warmUp.onApplicationEvent(mock(ApplicationReadyEvent.class));
+
+        assertThat(warmUp.getState()).isEqualTo(CacheWarmUp.State.COMPLETED);
+        assertThat(warmUp.health().getDetails()).containsEntry("failedBatches", 2);
+    }
+
+    @Test
+    void testDisabledWarmUpIsReady() {
+        settings.setEnabled(false);
+
+        warmUp.onApplicationEvent(mock(ApplicationReadyEvent.class));
+
+        assertThat(warmUp.getState()).isEqualTo(CacheWarmUp.State.DISABLED);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,101 @@
+package vn.com.msb.config.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.SerializationCodec;
+import vn.com.msb.domain.User;
+
+/**
+ * Compares {@link CompactCacheCodec} with the {@link SerializationCodec} previously used for the user caches.
+ * <p>
+ * Run {@link #main(String[])} from the IDE, or after {@code ./mvnw test-compile} with the test classpath; the payload
+ * sizes are printed before the benchmarks start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactCacheCodecBenchmark {
+
+    private final Codec serializationCodec = new SerializationCodec();
+
+    private final Codec compactCodec = new CompactCacheCodec();
+
+    private User user;
+
+    private CachedUser cachedUser;
+
+    private byte[] serializedUser;
+
+    private byte[] compactUser;
+
+    @Setup
+    public void setup() throws Exception {
+        user = CompactCacheCodecTest.createUser();
+        cachedUser = CachedUser.of(user);
+        serializedUser = encode(serializationCodec, user);
+        compactUser = encode(compactCodec, cachedUser);
+    }
+
+    @Benchmark
+    public int encodeSerialization() throws Exception {
+        return encodedSize(serializationCodec, user);
+    }
+
+    @Benchmark
+    public int encodeCompact() throws Exception {
+        return encodedSize(compactCodec, cachedUser);
+    }
+
+    @Benchmark
+    public Object decodeSerialization() throws Exception {
+        return serializationCodec.getValueDecoder().decode(Unpooled.wrappedBuffer(serializedUser), null);
+    }
+
+    @Benchmark
+    public Object decodeCompact() throws Exception {
+        return compactCodec.getValueDecoder().decode(Unpooled.wrappedBuffer(compactUser), null);
+    }
+
+    private static int encodedSize(Codec codec, Object value) throws Exception {
+        ByteBuf buf = codec.getValueEncoder().encode(value);
+        try {
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static byte[] encode(Codec codec, Object value) throws Exception {
+        ByteBuf buf = codec.getValueEncoder().encode(value);
+        try {
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        CompactCacheCodecBenchmark benchmark = new CompactCacheCodecBenchmark();
+        benchmark.setup();
+        System.out.printf("Payload size: SerializationCodec=%d bytes, CompactCacheCodec=%d bytes%n", benchmark.serializedUser.length, benchmark.compactUser.length);
+        new Runner(new OptionsBuilder().include(CompactCacheCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import java.time.Instant;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.SerializationCodec;
+import vn.com.msb.domain.Authority;
+import vn.com.msb.domain.User;
+
+/**
+ * Unit tests for {@link CompactCacheCodec}.
+ */
+class CompactCacheCodecTest {
+
+    private final CompactCacheCodec codec = new CompactCacheCodec();
+
+    static User createUser() {
+        User user = new User();
+        user.setId(1051L);
+        user.setLogin("johndoe");
+        user.setPassword("$2a$10$VEjxo0jq2YG9Rbk2HmX9S.k1uZBGYUHdUcid3g/vfiEl7lwWgOH/K");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("johndoe@localhost");
+        user.setActivated(true);
+        user.setLangKey("en");
+        user.setImageUrl("http://placehold.it/50x50");
+        user.setCreatedBy("system");
+        user.setCreatedDate(Instant.parse("2024-05-01T10:15:30.123456Z"));
+        user.setLastModifiedBy("admin");
+        user.setLastModifiedDate(Instant.parse("2024-05-02T08:00:00Z"));
+        user.setAuthorities(Set.of(new Authority().name("ROLE_USER"), new Authority().name("ROLE_ADMIN"), new Authority().name("ROLE_AUDIT")));
+        return user;
+    }
+
+    @Test
+    void testCachedUserRoundTrip() throws Exception {
+        CachedUser user = CachedUser.of(createUser());
+
+        assertThat(roundTrip(codec, user)).isEqualTo(user);
+    }
+
+    @Test
+    void testNullFieldsRoundTrip() throws Exception {
+        User user = new User();
+        user.setLogin("anonymous");
+        user.setCreatedDate(null);
+        user.setLastModifiedDate(null);
+        CachedUser cachedUser = CachedUser.of(user);
+
+        assertThat(roundTrip(codec, cachedUser)).isEqualTo(cachedUser);
+    }
+
+    @Test
+    void testExpiringValueRoundTrip() throws Exception {
+        ExpiringValue value = new ExpiringValue(CachedUser.of(createUser()), 1714557600000L);
+
+        assertThat(roundTrip(codec, value)).isEqualTo(value);
+        assertThat(encodedSize(codec, value)).isLessThan(encodedSize(codec, value.value()) + 8);
+    }
+
+    @Test
+    void testStringRoundTrip() throws Exception {
+        assertThat(roundTrip(codec, "johndoe@localhost")).isEqualTo("johndoe@localhost");
+    }
+
+    @Test
+    void testOtherValuesFallBackToJavaSerialization() throws Exception {
+        Authority authority = new Authority().name("ROLE_USER");
+
+        assertThat(roundTrip(codec, authority)).isEqualTo(authority);
+    }
+
+    @Test
+    void testReadsValuesWrittenWithSerializationCodec() throws Exception {
+        ByteBuf buf = new SerializationCodec().getValueEncoder().encode(createUser());
+        try {
+            assertThat(codec.getValueDecoder().decode(buf, null)).isInstanceOf(User.class);
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Test
+    void testCachedUserIsSmallerThanSerializedEntity() throws Exception {
+        int compactSize = encodedSize(codec, CachedUser.of(createUser()));
+        int serializedSize = encodedSize(new SerializationCodec(), createUser());
+
+        assertThat(compactSize).isLessThan(serializedSize / 4);
+    }
+
+    static Object roundTrip(Codec codec, Object value) throws Exception {
+        ByteBuf buf = codec.getValueEncoder().encode(value);
+        try {
+            return codec.getValueDecoder().decode(buf, null);
+        } finally {
+            buf.release();
+        }
+    }
+
+    static int encodedSize(Codec codec, Object value) throws Exception {
+        ByteBuf buf = codec.getValueEncoder().encode(value);
+        try {
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RefreshAheadPolicy}.
+ */
+class RefreshAheadPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final RefreshAheadPolicy policy = new RefreshAheadPolicy(
+        Duration.ofHours(1),
+        Duration.ofMinutes(5),
+        Runnable::run,
+        Clock.fixed(NOW, ZoneOffset.UTC)
+    );
+
+    @Test
+    void testExpiresAtIsOneTimeToLiveFromNow() {
+        assertThat(policy.expiresAt()).isEqualTo(NOW.plus(Duration.ofHours(1)).toEpochMilli());
+    }
+
+    @Test
+    void testEntryIsNotRefreshedBeforeTheWindow() {
+        long expiresAt = NOW.plus(Duration.ofMinutes(5)).toEpochMilli();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.shouldRefresh(expiresAt)).isFalse();
+        }
+    }
+
+    @Test
+    void testExpiredEntryIsAlwaysRefreshed() {
+        assertThat(policy.shouldRefresh(NOW.toEpochMilli())).isTrue();
+    }
+
+    @Test
+    void testEntryIsMoreLikelyRefreshedCloseToExpiration() {
+        int early = 0;
+        int late = 0;
+        for (int i = 0; i < 1000; i++) {
+            early += policy.shouldRefresh(NOW.plus(Duration.ofMinutes(4)).toEpochMilli()) ? 1 : 0;
+            late += policy.shouldRefresh(NOW.plus(Duration.ofMinutes(1)).toEpochMilli()) ? 1 : 0;
+        }
+
+        assertThat(early).isPositive();
+        assertThat(late).isGreaterThan(early);
+    }
+
+    @Test
+    void testRefreshWindowMustBeShorterThanTimeToLive() {
+        assertThatThrownBy(() -> new RefreshAheadPolicy(Duration.ofMinutes(5), Duration.ofMinutes(5), Runnable::run)).isInstanceOf(
+            IllegalArgumentException.class
+        );
+    }
+}
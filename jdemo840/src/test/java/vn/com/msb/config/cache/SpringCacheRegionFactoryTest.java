@@ -0,0 +1,80 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Unit tests for {@link SpringCacheRegionFactory}.
+ */
+class SpringCacheRegionFactoryTest {
+
+    private static final String REGION_NAME = "vn.com.msb.domain.Authority";
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private SpringCacheRegionFactory regionFactory;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = new ConcurrentMapCacheManager(REGION_NAME);
+        regionFactory = new SpringCacheRegionFactory(cacheManager);
+    }
+
+    @Test
+    void testRegionIsStoredInTheCacheOfTheSameName() {
+        DomainDataStorageAccess storageAccess = createStorageAccess(REGION_NAME);
+
+        storageAccess.putFromLoad("ROLE_USER", "entry", null);
+
+        assertThat(cacheManager.getCache(REGION_NAME).get("ROLE_USER").get()).isEqualTo("entry");
+        assertThat(storageAccess.getFromCache("ROLE_USER", null)).isEqualTo("entry");
+        assertThat(storageAccess.contains("ROLE_USER")).isTrue();
+    }
+
+    @Test
+    void testLoadDoesNotReplaceExistingEntry() {
+        DomainDataStorageAccess storageAccess = createStorageAccess(REGION_NAME);
+        storageAccess.putIntoCache("ROLE_USER", "entry", null);
+
+        storageAccess.putFromLoad("ROLE_USER", "loaded", null);
+
+        assertThat(storageAccess.getFromCache("ROLE_USER", null)).isEqualTo("entry");
+    }
+
+    @Test
+    void testEvictData() {
+        DomainDataStorageAccess storageAccess = createStorageAccess(REGION_NAME);
+        storageAccess.putIntoCache("ROLE_USER", "entry", null);
+        storageAccess.putIntoCache("ROLE_ADMIN", "entry", null);
+
+        storageAccess.evictData("ROLE_USER");
+
+        assertThat(storageAccess.contains("ROLE_USER")).isFalse();
+        assertThat(storageAccess.contains("ROLE_ADMIN")).isTrue();
+
+        storageAccess.evictData();
+
+        assertThat(storageAccess.contains("ROLE_ADMIN")).isFalse();
+    }
+
+    @Test
+    void testUndeclaredRegionIsRejected() {
+        assertThatThrownBy(() -> createStorageAccess("vn.com.msb.domain.User")).isInstanceOf(CacheException.class);
+    }
+
+    private DomainDataStorageAccess createStorageAccess(String regionName) {
+        DomainDataRegionConfig regionConfig = mock(DomainDataRegionConfig.class);
+        when(regionConfig.getRegionName()).thenReturn(regionName);
+        return regionFactory.createDomainDataStorageAccess(regionConfig, mock(DomainDataRegionBuildingContext.class));
+    }
+}
@@ -0,0 +1,80 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.jcache.JCacheCache;
+import tech.jhipster.config.JHipsterProperties;
+import vn.com.msb.config.ApplicationProperties.Cache.Settings;
+import vn.com.msb.config.ApplicationProperties.Cache.Tier;
+
+/**
+ * Unit tests for {@link TwoLevelCacheManager}.
+ */
+class TwoLevelCacheManagerTest {
+
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        javax.cache.CacheManager remoteCacheManager = mock(javax.cache.CacheManager.class);
+        when(remoteCacheManager.getCacheNames()).thenReturn(List.of("both", "remote"));
+        for (String name : List.of("both", "remote")) {
+            javax.cache.Cache<Object, Object> remoteCache = mock(javax.cache.Cache.class);
+            when(remoteCache.getName()).thenReturn(name);
+            when(remoteCacheManager.getCache(name)).thenReturn(remoteCache);
+        }
+
+        Settings local = new Settings();
+        local.setTier(Tier.LOCAL);
+        local.setNegativeTimeToLive(Duration.ofMinutes(1));
+        Settings remote = new Settings();
+        remote.setTier(Tier.REMOTE);
+        Map<String, Settings> settings = Map.of("local", local, "remote", remote);
+        JHipsterProperties.Cache defaults = new JHipsterProperties().getCache();
+
+        cacheManager = new TwoLevelCacheManager(
+            remoteCacheManager,
+            List.of("local"),
+            name -> CacheSpec.of(name, settings.get(name), defaults),
+            mock(CacheInvalidationTopic.class),
+            mock(CacheLoadLock.class),
+            Runnable::run
+        );
+        cacheManager.afterPropertiesSet();
+    }
+
+    @Test
+    void testCachesAreCreatedForTheirTier() {
+        assertThat(cacheManager.getCacheNames()).containsExactlyInAnyOrder("both", "remote", "local");
+        assertThat(cacheManager.getCache("both")).isInstanceOf(TwoLevelCache.class);
+        assertThat(cacheManager.getCache("remote")).isInstanceOf(JCacheCache.class);
+        assertThat(cacheManager.getCache("local")).isInstanceOf(TwoLevelCache.class);
+    }
+
+    @Test
+    void testLocalCacheLoadsWithoutRemoteTier() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("local");
+
+        assertThat(cache.get("key", () -> "value")).isEqualTo("value");
+        assertThat(cache.get("key", () -> "other")).isEqualTo("value");
+        assertThat(cache.getLocalHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testLocalCacheKeepsNegativeEntries() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("local");
+
+        assertThat(cache.<String>get("unknown", () -> null)).isNull();
+        assertThat(cache.get("unknown")).isNotNull();
+        assertThat(cache.get("key", () -> "value")).isEqualTo("value");
+        assertThat(cache.getLocalSize()).isEqualTo(2);
+    }
+}
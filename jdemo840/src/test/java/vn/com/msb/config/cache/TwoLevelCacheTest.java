@@ -0,0 +1,316 @@
+package vn.com.msb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import vn.com.msb.domain.Authority;
+import vn.com.msb.domain.User;
+
+/**
+ * Unit tests for {@link TwoLevelCache}.
+ */
+class TwoLevelCacheTest {
+
+    private static final String CACHE_NAME = "test";
+
+    private ConcurrentMapCache remoteCache;
+
+    private CacheInvalidationTopic invalidationTopic;
+
+    private CacheLoadLock loadLock;
+
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        remoteCache = new ConcurrentMapCache(CACHE_NAME);
+        invalidationTopic = mock(CacheInvalidationTopic.class);
+        loadLock = mock(CacheLoadLock.class);
+        when(loadLock.callWithLock(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(2, Callable.class).call());
+        cache = new TwoLevelCache(
+            CACHE_NAME,
+            Caffeine.newBuilder().maximumSize(10).recordStats().build(),
+            remoteCache,
+            invalidationTopic,
+            loadLock
+        );
+    }
+
+    @Test
+    void testRemoteHitIsCopiedToLocalTier() {
+        remoteCache.put("key", "value");
+
+        assertThat(cache.get("key").get()).isEqualTo("value");
+        assertThat(cache.getRemoteHitCount()).isEqualTo(1);
+
+        remoteCache.evict("key");
+
+        assertThat(cache.get("key").get()).isEqualTo("value");
+        assertThat(cache.getLocalHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testMissIsLoadedOnceAndStoredInBothTiers() {
+        assertThat(cache.get("key", () -> "value")).isEqualTo("value");
+        assertThat(cache.get("key", () -> "other")).isEqualTo("value");
+
+        assertThat(remoteCache.get("key").get()).isEqualTo("value");
+        assertThat(cache.getRemoteMissCount()).isEqualTo(1);
+        assertThat(cache.getPutCount()).isEqualTo(1);
+        verify(invalidationTopic).publishEvict(CACHE_NAME, "key");
+    }
+
+    @Test
+    void testConcurrentMissesWaitForTheLoadInFlight() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "value";
+        };
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("key", loader));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("key", loader));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getLocalCoalescedLoadCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getLocalCoalescedLoadCount()).isEqualTo(1);
+        verify(loadLock).callWithLock(eq(CACHE_NAME), eq("key"), any());
+    }
+
+    @Test
+    void testValueLoadedByAnotherNodeWhileWaitingForTheLockIsReused() throws Exception {
+        doAnswer(invocation -> {
+            remoteCache.put("key", "remote");
+            return invocation.getArgument(2, Callable.class).call();
+        })
+            .when(loadLock)
+            .callWithLock(any(), any(), any());
+
+        assertThat(cache.get("key", () -> "local")).isEqualTo("remote");
+
+        assertThat(cache.getRemoteCoalescedLoadCount()).isEqualTo(1);
+        assertThat(cache.getPutCount()).isZero();
+        assertThat(cache.get("key").get()).isEqualTo("remote");
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() {
+        assertThatThrownBy(() -> cache.get("key", () -> {
+                throw new IllegalStateException("database down");
+            }))
+            .isInstanceOf(Cache.ValueRetrievalException.class)
+            .hasRootCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get("key", () -> "value")).isEqualTo("value");
+    }
+
+    @Test
+    void testEntryCloseToExpirationIsRefreshedInTheBackground() {
+        Instant now = Instant.parse("2024-05-01T10:00:00Z");
+        RefreshAheadPolicy refreshAhead = new RefreshAheadPolicy(
+            Duration.ofHours(1),
+            Duration.ofMinutes(5),
+            Runnable::run,
+            Clock.fixed(now, ZoneOffset.UTC)
+        );
+        cache = new TwoLevelCache(
+            CACHE_NAME,
+            Caffeine.newBuilder().maximumSize(10).build(),
+            remoteCache,
+            invalidationTopic,
+            loadLock,
+            refreshAhead
+        );
+        remoteCache.put("key", new ExpiringValue("old", now.toEpochMilli()));
+
+        assertThat(cache.get("key", () -> "new")).isEqualTo("old");
+
+        assertThat(cache.getRefreshCount()).isEqualTo(1);
+        assertThat(cache.get("key", () -> "other")).isEqualTo("new");
+        assertThat(remoteCache.get("key").get()).isEqualTo(new ExpiringValue("new", refreshAhead.expiresAt()));
+    }
+
+    @Test
+    void testEntryRefreshedByAnotherNodeIsNotReloaded() {
+        Instant now = Instant.parse("2024-05-01T10:00:00Z");
+        RefreshAheadPolicy refreshAhead = new RefreshAheadPolicy(
+            Duration.ofHours(1),
+            Duration.ofMinutes(5),
+            Runnable::run,
+            Clock.fixed(now, ZoneOffset.UTC)
+        );
+        cache = new TwoLevelCache(
+            CACHE_NAME,
+            Caffeine.newBuilder().maximumSize(10).build(),
+            remoteCache,
+            invalidationTopic,
+            loadLock,
+            refreshAhead
+        );
+        remoteCache.put("key", new ExpiringValue("old", now.toEpochMilli()));
+        cache.get("key");
+        remoteCache.put("key", new ExpiringValue("refreshed", refreshAhead.expiresAt()));
+
+        assertThat(cache.get("key", () -> "new")).isEqualTo("old");
+
+        assertThat(cache.get("key").get()).isEqualTo("refreshed");
+        assertThat(cache.getRefreshCount()).isZero();
+    }
+
+    @Test
+    void testNullValueIsCached() {
+        assertThat(cache.<String>get("key", () -> null)).isNull();
+
+        assertThat(cache.get("key")).isNotNull();
+        assertThat(cache.get("key").get()).isNull();
+    }
+
+    @Test
+    void testNegativeEntryIsOnlyKeptLocally() {
+        cache = new TwoLevelCache(
+            CACHE_NAME,
+            Caffeine.newBuilder().maximumSize(10).recordStats().build(),
+            remoteCache,
+            invalidationTopic,
+            loadLock,
+            new RefreshAheadPolicy(Duration.ofMinutes(10), Duration.ofMinutes(1), Runnable::run),
+            true
+        );
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.<String>get("unknown", () -> loads.incrementAndGet() > 1 ? "loaded" : null)).isNull();
+        assertThat(cache.<String>get("unknown", () -> loads.incrementAndGet() > 1 ? "loaded" : null)).isNull();
+
+        assertThat(loads).hasValue(1);
+        assertThat(remoteCache.get("unknown")).isNull();
+        verify(invalidationTopic, never()).publishEvict(any(), any());
+
+        cache.evict("unknown");
+
+        assertThat(cache.<String>get("unknown", () -> loads.incrementAndGet() > 1 ? "loaded" : null)).isEqualTo("loaded");
+        assertThat(remoteCache.get("unknown")).isNotNull();
+    }
+
+    @Test
+    void testEvictRemovesBothTiersAndNotifiesOtherNodes() {
+        cache.put("key", "value");
+
+        cache.evict("key");
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(remoteCache.get("key")).isNull();
+        verify(invalidationTopic, times(2)).publishEvict(CACHE_NAME, "key");
+    }
+
+    @Test
+    void testClearNotifiesOtherNodes() {
+        cache.put("key", "value");
+
+        cache.clear();
+
+        assertThat(cache.get("key")).isNull();
+        verify(invalidationTopic).publishClear(CACHE_NAME);
+    }
+
+    @Test
+    void testPutIfAbsentKeepsRemoteValueWithoutNotifyingOtherNodes() {
+        remoteCache.put("key", "remote");
+
+        assertThat(cache.putIfAbsent("key", "value").get()).isEqualTo("remote");
+        assertThat(cache.putIfAbsent("other", "value")).isNull();
+
+        assertThat(cache.get("key").get()).isEqualTo("remote");
+        assertThat(remoteCache.get("other").get()).isEqualTo("value");
+        verify(invalidationTopic, never()).publishEvict(any(), any());
+    }
+
+    @Test
+    void testUsersAreStoredAsSnapshots() {
+        User user = CompactCacheCodecTest.createUser();
+
+        cache.put("johndoe", user);
+
+        assertThat(remoteCache.get("johndoe").get()).isEqualTo(CachedUser.of(user));
+        User cachedUser = cache.get("johndoe", User.class);
+        assertThat(cachedUser).isNotSameAs(user).isNotSameAs(cache.get("johndoe", User.class));
+        assertThat(cachedUser.getLogin()).isEqualTo("johndoe");
+        assertThat(cachedUser.getAuthorities()).extracting(Authority::getName).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN", "ROLE_AUDIT");
+    }
+
+    @Test
+    void testEvictLocalKeepsRemoteEntry() {
+        cache.put("key", "value");
+        remoteCache.put("key", "updated");
+
+        cache.evictLocal("key");
+
+        assertThat(cache.get("key").get()).isEqualTo("updated");
+    }
+
+    @Test
+    void testTierMetersAreBound() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new TwoLevelCacheMeterBinderProvider().getMeterBinder(cache, List.of()).bindTo(meterRegistry);
+
+        remoteCache.put("key", "value");
+        cache.get("key");
+        cache.get("key");
+        cache.get("missing");
+
+        assertThat(tierGets(meterRegistry, "local", "hit")).isEqualTo(1);
+        assertThat(tierGets(meterRegistry, "local", "miss")).isEqualTo(2);
+        assertThat(tierGets(meterRegistry, "remote", "hit")).isEqualTo(1);
+        assertThat(tierGets(meterRegistry, "remote", "miss")).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(
+            meterRegistry.get(TwoLevelCacheMeterBinderProvider.COALESCED_LOADS_METER_NAME).tag("scope", "local").functionCounter().count()
+        ).isZero();
+        assertThat(meterRegistry.get(TwoLevelCacheMeterBinderProvider.REFRESHES_METER_NAME).functionCounter().count()).isZero();
+    }
+
+    private double tierGets(MeterRegistry meterRegistry, String tier, String result) {
+        return meterRegistry
+            .get(TwoLevelCacheMeterBinderProvider.TIER_GETS_METER_NAME)
+            .tag("cache", CACHE_NAME)
+            .tag("tier", tier)
+            .tag("result", result)
+            .functionCounter()
+            .count();
+    }
+}
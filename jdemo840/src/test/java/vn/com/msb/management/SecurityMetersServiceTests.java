@@ -13,6 +13,8 @@ class SecurityMetersServiceTests {
 
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
 
+    private static final String THROTTLED_REQUESTS_METER_EXPECTED_NAME = "security.authentication.throttled-requests";
+
     private MeterRegistry meterRegistry;
 
     private SecurityMetersService securityMetersService;
@@ -67,4 +69,19 @@ class SecurityMetersServiceTests {
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
+
+    @Test
+    void testThrottledRequestsCountersByLimit() {
+        assertThat(meterRegistry.find(THROTTLED_REQUESTS_METER_EXPECTED_NAME).counters()).hasSize(3);
+
+        securityMetersService.trackLoginThrottledByIp();
+        securityMetersService.trackLoginThrottledByLogin();
+        securityMetersService.trackLoginThrottledByLogin();
+        securityMetersService.trackPasswordResetThrottled();
+
+        assertThat(meterRegistry.get(THROTTLED_REQUESTS_METER_EXPECTED_NAME).tag("limit", "login-by-ip").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(THROTTLED_REQUESTS_METER_EXPECTED_NAME).tag("limit", "login-failures-by-login").counter().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get(THROTTLED_REQUESTS_METER_EXPECTED_NAME).tag("limit", "password-reset").counter().count()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,70 @@
+package vn.com.msb.security;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Measures the time to check a password for each BCrypt strength, to pick {@code application.security.password.strength}
+ * on the production hardware.
+ * <p>
+ * Run {@link #main(String[])} from the IDE, or after {@code ./mvnw test-compile} with the test classpath, with the
+ * target latency in milliseconds as argument (250 by default): the highest strength checking a password within that
+ * time is printed after the benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BCryptStrengthBenchmark {
+
+    @Param({ "8", "9", "10", "11", "12", "13", "14" })
+    private int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setup() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        encodedPassword = passwordEncoder.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("correct horse battery staple", encodedPassword);
+    }
+
+    public static void main(String[] args) throws Exception {
+        double targetLatency = args.length > 0 ? Double.parseDouble(args[0]) : 250;
+        Collection<RunResult> results = new Runner(
+            new OptionsBuilder().include(BCryptStrengthBenchmark.class.getSimpleName()).build()
+        ).run();
+        results
+            .stream()
+            .filter(result -> result.getPrimaryResult().getScore() <= targetLatency)
+            .mapToInt(result -> Integer.parseInt(result.getParams().getParam("strength")))
+            .max()
+            .ifPresentOrElse(
+                strength -> System.out.printf("Highest strength within %.0f ms: %d%n", targetLatency, strength),
+                () -> System.out.printf("No strength within %.0f ms%n", targetLatency)
+            );
+    }
+}
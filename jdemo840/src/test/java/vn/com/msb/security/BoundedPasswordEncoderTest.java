@@ -0,0 +1,131 @@
+package vn.com.msb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Unit tests for {@link BoundedPasswordEncoder}.
+ */
+class BoundedPasswordEncoderTest {
+
+    private PasswordEncoder delegate;
+
+    private MeterRegistry meterRegistry;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    public void setup() {
+        delegate = mock(PasswordEncoder.class);
+        doAnswer(invocation -> "hashed-" + invocation.getArgument(0)).when(delegate).encode(any());
+        doAnswer(invocation -> ("hashed-" + invocation.getArgument(0)).equals(invocation.getArgument(1)))
+            .when(delegate)
+            .matches(any(), any());
+        meterRegistry = new SimpleMeterRegistry();
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1);
+        passwordEncoder.bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void testDelegatesToEncoder() {
+        assertThat(passwordEncoder.encode("password")).isEqualTo("hashed-password");
+        assertThat(passwordEncoder.matches("password", "hashed-password")).isTrue();
+        assertThat(passwordEncoder.matches("other", "hashed-password")).isFalse();
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.QUEUE_WAIT_METER_NAME).timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testRejectsPasswordsBeyondQueueCapacity() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        })
+            .when(delegate)
+            .matches("slow", "hashed-slow");
+
+        CompletableFuture<Boolean> hashing = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("slow", "hashed-slow"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("queued"));
+        while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> passwordEncoder.encode("rejected")).isInstanceOf(PasswordEncoderBusyException.class);
+        verify(delegate, never()).encode("rejected");
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(hashing.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo("hashed-queued");
+    }
+
+    @Test
+    void testPropagatesEncoderExceptions() {
+        doThrow(new IllegalArgumentException("Encoded password does not look like BCrypt")).when(delegate).matches("password", "plain");
+
+        assertThatThrownBy(() -> passwordEncoder.matches("password", "plain"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Encoded password does not look like BCrypt");
+    }
+
+    @Test
+    void testEncodesAllOnHalfOfThePool() {
+        BoundedPasswordEncoder pooledEncoder = new BoundedPasswordEncoder(delegate, 4, 10);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+            return "hashed-" + invocation.getArgument(0);
+        })
+            .when(delegate)
+            .encode(any());
+        List<String> rawPasswords = IntStream.range(0, 20).mapToObj(i -> "password" + i).toList();
+
+        try {
+            assertThat(pooledEncoder.encodeAll(rawPasswords)).containsExactlyElementsOf(
+                rawPasswords.stream().map(rawPassword -> "hashed-" + rawPassword).toList()
+            );
+        } finally {
+            pooledEncoder.shutdown();
+        }
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testEncodeAllPropagatesEncoderExceptions() {
+        doThrow(new IllegalStateException("Encoder failure")).when(delegate).encode("broken");
+
+        assertThatThrownBy(() -> passwordEncoder.encodeAll(List.of("password", "broken", "other")))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Encoder failure");
+    }
+}
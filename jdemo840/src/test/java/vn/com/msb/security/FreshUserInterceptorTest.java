@@ -0,0 +1,126 @@
+package vn.com.msb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.method.HandlerMethod;
+import vn.com.msb.domain.Authority;
+import vn.com.msb.domain.User;
+import vn.com.msb.repository.UserRepository;
+import vn.com.msb.security.jwt.AuthenticatedUserConverter;
+
+/**
+ * Unit tests for {@link FreshUserInterceptor}.
+ */
+class FreshUserInterceptorTest {
+
+    private UserRepository userRepository;
+
+    private FreshUserInterceptor interceptor;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        user = new User();
+        user.setLogin("admin");
+        user.setActivated(true);
+        user.setAuthorities(authorities(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER));
+        userRepository = mock(UserRepository.class);
+        doReturn(Optional.of(user)).when(userRepository).findOneWithAuthoritiesByLogin("admin");
+        interceptor = new FreshUserInterceptor(userRepository);
+
+        Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "HS512")
+            .subject("admin")
+            .issuedAt(Instant.now())
+            .expiresAt(Instant.now().plusSeconds(60))
+            .claim(SecurityUtils.AUTHORITIES_KEY, AuthoritiesConstants.ADMIN + " " + AuthoritiesConstants.USER)
+            .build();
+        SecurityContextHolder.getContext().setAuthentication(new AuthenticatedUserConverter().convert(jwt));
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Set<Authority> authorities(String... names) {
+        return Set.of(names)
+            .stream()
+            .map(name -> {
+                Authority authority = new Authority();
+                authority.setName(name);
+                return authority;
+            })
+            .collect(Collectors.toSet());
+    }
+
+    private boolean preHandle(String method) throws NoSuchMethodException {
+        HandlerMethod handler = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(method));
+        return interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler);
+    }
+
+    @Test
+    void testAcceptsUnchangedUser() throws Exception {
+        assertThat(preHandle("fresh")).isTrue();
+    }
+
+    @Test
+    void testRejectsChangedAuthorities() {
+        user.setAuthorities(authorities(AuthoritiesConstants.USER));
+
+        assertThatThrownBy(() -> preHandle("fresh")).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void testRejectsDeactivatedOrDeletedUser() {
+        user.setActivated(false);
+        assertThatThrownBy(() -> preHandle("fresh")).isInstanceOf(BadCredentialsException.class);
+
+        doReturn(Optional.empty()).when(userRepository).findOneWithAuthoritiesByLogin("admin");
+        assertThatThrownBy(() -> preHandle("fresh")).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void testTrustsTheTokenOnOtherEndpoints() throws Exception {
+        user.setActivated(false);
+
+        assertThat(preHandle("trusting")).isTrue();
+        verify(userRepository, never()).findOneWithAuthoritiesByLogin(anyString());
+    }
+
+    @Test
+    void testSkipsUsersNotAuthenticatedByToken() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin", "admin"));
+        user.setActivated(false);
+
+        assertThat(preHandle("fresh")).isTrue();
+    }
+
+    static class Endpoints {
+
+        @FreshUser
+        public void fresh() {}
+
+        public void trusting() {}
+    }
+}
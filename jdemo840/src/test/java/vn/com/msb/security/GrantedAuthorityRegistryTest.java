@@ -0,0 +1,63 @@
+package vn.com.msb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Unit tests for {@link GrantedAuthorityRegistry}.
+ */
+class GrantedAuthorityRegistryTest {
+
+    private final GrantedAuthorityRegistry registry = new GrantedAuthorityRegistry(16);
+
+    @Test
+    void testSplitsSpaceSeparatedClaim() {
+        GrantedAuthorityRegistry.Authorities authorities = registry.fromClaim("ROLE_ADMIN ROLE_USER");
+
+        assertThat(authorities.authorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN", "ROLE_USER");
+        assertThat(authorities.names()).containsOnly("ROLE_ADMIN", "ROLE_USER");
+    }
+
+    @Test
+    void testSharesTheAuthoritiesOfAClaimValue() {
+        GrantedAuthorityRegistry.Authorities authorities = registry.fromClaim("ROLE_ADMIN ROLE_USER");
+
+        assertThat(registry.fromClaim(new String("ROLE_ADMIN ROLE_USER"))).isSameAs(authorities);
+        assertThat(registry.fromClaim("ROLE_USER").authorities().get(0)).isSameAs(authorities.authorities().get(1));
+        assertThat(registry.authority("ROLE_ADMIN")).isSameAs(authorities.authorities().get(0));
+    }
+
+    @Test
+    void testCachesCollectionClaimsByValue() {
+        List<String> claim = new ArrayList<>(List.of("ROLE_ADMIN", "ROLE_USER"));
+        GrantedAuthorityRegistry.Authorities authorities = registry.fromClaim(claim);
+
+        claim.remove("ROLE_ADMIN");
+
+        assertThat(registry.fromClaim(List.of("ROLE_ADMIN", "ROLE_USER"))).isSameAs(authorities);
+        assertThat(registry.fromClaim(claim).names()).containsOnly("ROLE_USER");
+    }
+
+    @Test
+    void testIgnoresBlankAndDuplicateNames() {
+        assertThat(registry.fromClaim(" ROLE_USER  ROLE_USER ").authorities()).extracting(GrantedAuthority::getAuthority).containsExactly(
+            "ROLE_USER"
+        );
+        assertThat(registry.fromClaim(42).authorities()).isEmpty();
+        assertThat(registry.fromClaim(null).names()).isEmpty();
+    }
+
+    @Test
+    void testStopsCachingBeyondMaxEntries() {
+        for (int i = 0; i < 32; i++) {
+            assertThat(registry.fromClaim("ROLE_" + i).names()).containsOnly("ROLE_" + i);
+        }
+
+        assertThat(registry.size()).isEqualTo(16);
+        assertThat(registry.fromClaim("ROLE_31").authorities().get(0).getAuthority()).isEqualTo("ROLE_31");
+    }
+}
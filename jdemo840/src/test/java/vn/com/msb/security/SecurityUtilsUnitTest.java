@@ -13,6 +13,8 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import vn.com.msb.security.jwt.AuthenticatedUserConverter;
 
 /**
  * Test class for the {@link SecurityUtils} utility class.
@@ -34,6 +36,25 @@ class SecurityUtilsUnitTest {
         assertThat(login).contains("admin");
     }
 
+    @Test
+    void testGetCurrentUserFromToken() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS512").subject("admin").claim(SecurityUtils.USER_ID_KEY, 1051L).build();
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new AuthenticatedUserConverter().convert(jwt));
+        SecurityContextHolder.setContext(securityContext);
+        assertThat(SecurityUtils.getCurrentUserLogin()).contains("admin");
+        assertThat(SecurityUtils.getCurrentUser()).map(AuthenticatedUser::getId).contains(1051L);
+        assertThat(SecurityUtils.getCurrentUser()).map(AuthenticatedUser::getToken).contains(jwt);
+    }
+
+    @Test
+    void testGetCurrentUserWithoutToken() {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken("admin", "admin"));
+        SecurityContextHolder.setContext(securityContext);
+        assertThat(SecurityUtils.getCurrentUser()).isEmpty();
+    }
+
     @Test
     void testGetCurrentUserJWT() {
         SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
@@ -0,0 +1,53 @@
+package vn.com.msb.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import vn.com.msb.security.AuthenticatedUser;
+import vn.com.msb.security.SecurityUtils;
+
+/**
+ * Unit tests for {@link AuthenticatedUserConverter}.
+ */
+class AuthenticatedUserConverterTest {
+
+    private final AuthenticatedUserConverter converter = new AuthenticatedUserConverter();
+
+    private static Jwt.Builder jwt() {
+        return Jwt.withTokenValue("token")
+            .header("alg", "HS512")
+            .subject("admin")
+            .issuedAt(Instant.now())
+            .expiresAt(Instant.now().plusSeconds(60))
+            .claim(SecurityUtils.AUTHORITIES_KEY, "ROLE_ADMIN ROLE_USER");
+    }
+
+    @Test
+    void testBuildsTheUserFromTheClaims() {
+        Jwt jwt = jwt().claim(SecurityUtils.USER_ID_KEY, 1051).build();
+
+        AbstractAuthenticationToken authentication = converter.convert(jwt);
+
+        assertThat(authentication).isInstanceOf(AuthenticatedUserToken.class);
+        assertThat(authentication.getName()).isEqualTo("admin");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsOnly("ROLE_ADMIN", "ROLE_USER");
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        assertThat(user.getId()).isEqualTo(1051L);
+        assertThat(user.getLogin()).isEqualTo("admin");
+        assertThat(user.getAuthorities()).containsOnly("ROLE_ADMIN", "ROLE_USER");
+        assertThat(user.getToken()).isSameAs(jwt);
+        assertThat(((AuthenticatedUserToken) authentication).getToken()).isSameAs(jwt);
+    }
+
+    @Test
+    void testAcceptsTokensWithoutUserId() {
+        AuthenticatedUser user = (AuthenticatedUser) converter.convert(jwt().build()).getPrincipal();
+
+        assertThat(user.getId()).isNull();
+        assertThat(user.getLogin()).isEqualTo("admin");
+    }
+}
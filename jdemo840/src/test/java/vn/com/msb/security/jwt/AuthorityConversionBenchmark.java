@@ -0,0 +1,82 @@
+package vn.com.msb.security.jwt;
+
+import static vn.com.msb.security.SecurityUtils.AUTHORITIES_KEY;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+/**
+ * Compares the conversion of a verified token into an authentication by {@link AuthenticatedUserConverter}, which
+ * looks the authorities of the claim up, and by the {@link JwtAuthenticationConverter} previously used, which split the
+ * claim and allocated the authorities on each request.
+ * <p>
+ * Run {@link #main(String[])} from the IDE, or after {@code ./mvnw test-compile} with the test classpath; add
+ * {@code -prof gc} to the JMH options to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityConversionBenchmark {
+
+    @Param({ "ROLE_USER", "ROLE_ADMIN ROLE_USER", "ROLE_ADMIN ROLE_AUDITOR ROLE_MANAGER ROLE_SUPPORT ROLE_USER" })
+    private String authorities;
+
+    private Jwt jwt;
+
+    private JwtAuthenticationConverter jwtAuthenticationConverter;
+
+    private AuthenticatedUserConverter authenticatedUserConverter;
+
+    @Setup
+    public void setup() {
+        jwt = Jwt.withTokenValue("token")
+            .header("alg", "HS512")
+            .subject("admin")
+            .issuedAt(Instant.now())
+            .expiresAt(Instant.now().plusSeconds(3600))
+            .claim(AUTHORITIES_KEY, authorities)
+            .build();
+
+        // The converter of SecurityJwtConfiguration before AuthenticatedUserConverter
+        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        grantedAuthoritiesConverter.setAuthorityPrefix("");
+        grantedAuthoritiesConverter.setAuthoritiesClaimName(AUTHORITIES_KEY);
+        jwtAuthenticationConverter = new JwtAuthenticationConverter();
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+
+        authenticatedUserConverter = new AuthenticatedUserConverter();
+    }
+
+    @Benchmark
+    public Object jwtAuthenticationConverter() {
+        return jwtAuthenticationConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public Object authenticatedUserConverter() {
+        return authenticatedUserConverter.convert(jwt);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(AuthorityConversionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,52 @@
+package vn.com.msb.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BloomFilter}.
+ */
+class BloomFilterTest {
+
+    @Test
+    void testContainsAddedValues() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put('j', "token-" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain('j', "token-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void testTagsAreDistinct() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        filter.put('j', "johndoe");
+
+        assertThat(filter.mightContain('j', "johndoe")).isTrue();
+        assertThat(filter.mightContain('s', "johndoe")).isFalse();
+    }
+
+    @Test
+    void testFalsePositiveProbability() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put('j', UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain('j', UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(filter.bitCount()).isBetween(95_000L, 96_000L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+        assertThat(falsePositives).isLessThan(1500);
+    }
+}
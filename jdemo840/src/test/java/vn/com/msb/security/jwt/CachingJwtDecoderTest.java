@@ -0,0 +1,117 @@
+package vn.com.msb.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * Unit tests for {@link CachingJwtDecoder}.
+ */
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+
+    private JwtDecoder delegate;
+
+    private MeterRegistry meterRegistry;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        delegate = mock(JwtDecoder.class);
+        doAnswer(invocation -> createJwt(invocation.getArgument(0), NOW.plusSeconds(60))).when(delegate).decode("token");
+        meterRegistry = new SimpleMeterRegistry();
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+        decoder = new CachingJwtDecoder(delegate, 100, clock);
+        decoder.bindTo(meterRegistry);
+    }
+
+    private static Jwt createJwt(String token, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(token).header("alg", "HS512").subject("user");
+        if (expiresAt != null) {
+            builder.expiresAt(expiresAt);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testVerifiedTokenIsCached() {
+        Jwt jwt = decoder.decode("token");
+
+        assertThat(decoder.decode("token")).isSameAs(jwt);
+        verify(delegate, times(1)).decode("token");
+        assertThat(meterRegistry.get(CachingJwtDecoder.DECODE_METER_NAME).tag("cache", "hit").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(CachingJwtDecoder.DECODE_METER_NAME).tag("cache", "miss").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME).tag("result", "hit").functionCounter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testCachedTokenIsNotReturnedOnceExpired() {
+        decoder.decode("token");
+
+        now.set(NOW.plusSeconds(59));
+        decoder.decode("token");
+        verify(delegate, times(1)).decode("token");
+
+        now.set(NOW.plusSeconds(60));
+        decoder.decode("token");
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void testTokenWithoutExpirationIsNotCached() {
+        doAnswer(invocation -> createJwt(invocation.getArgument(0), null)).when(delegate).decode("eternal");
+
+        decoder.decode("eternal");
+        decoder.decode("eternal");
+
+        verify(delegate, times(2)).decode("eternal");
+    }
+
+    @Test
+    void testRejectedTokenIsNotCached() {
+        doThrow(new BadJwtException("Invalid signature")).when(delegate).decode("forged");
+
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("forged");
+        assertThat(meterRegistry.get(CachingJwtDecoder.DECODE_METER_NAME).tag("cache", "miss").timer().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,120 @@
+package vn.com.msb.security.jwt;
+
+import static vn.com.msb.security.SecurityUtils.JWT_ALGORITHM;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import vn.com.msb.management.SecurityMetersService;
+
+/**
+ * Compares the cost of rejecting malformed, expired and badly signed tokens with {@link VerifyingJwtDecoder} and with
+ * the {@link NimbusJwtDecoder} previously used, whose failures were classified by matching their messages.
+ * <p>
+ * Run {@link #main(String[])} from the IDE, or after {@code ./mvnw test-compile} with the test classpath; add
+ * {@code -prof gc} to the JMH options to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    @Param({ "malformed", "expired", "invalid-signature", "valid" })
+    private String token;
+
+    private String tokenValue;
+
+    private JwtDecoder nimbusDecoder;
+
+    private JwtDecoder verifyingDecoder;
+
+    @Setup
+    public void setup() {
+        Instant now = Instant.now();
+        tokenValue = switch (token) {
+            case "malformed" -> VerifyingJwtDecoderTest.createToken(VerifyingJwtDecoderTest.JWT_KEY, JWT_ALGORITHM, now).substring(1);
+            case "expired" -> VerifyingJwtDecoderTest.createToken(VerifyingJwtDecoderTest.JWT_KEY, JWT_ALGORITHM, now.minusSeconds(600));
+            case "invalid-signature" -> VerifyingJwtDecoderTest.createToken(
+                VerifyingJwtDecoderTest.OTHER_JWT_KEY,
+                JWT_ALGORITHM,
+                now.plusSeconds(3600)
+            );
+            default -> VerifyingJwtDecoderTest.createToken(VerifyingJwtDecoderTest.JWT_KEY, JWT_ALGORITHM, now.plusSeconds(3600));
+        };
+        SecurityMetersService metersService = new SecurityMetersService(new SimpleMeterRegistry());
+        nimbusDecoder = messageMatchingDecoder(
+            NimbusJwtDecoder.withSecretKey(VerifyingJwtDecoderTest.getSecretKey(VerifyingJwtDecoderTest.JWT_KEY))
+                .macAlgorithm(JWT_ALGORITHM)
+                .build(),
+            metersService
+        );
+        verifyingDecoder = new VerifyingJwtDecoder(
+            VerifyingJwtDecoderTest.getSecretKey(VerifyingJwtDecoderTest.JWT_KEY),
+            JWT_ALGORITHM,
+            metersService
+        );
+    }
+
+    @Benchmark
+    public Object nimbus() {
+        return decode(nimbusDecoder);
+    }
+
+    @Benchmark
+    public Object verifying() {
+        return decode(verifyingDecoder);
+    }
+
+    private Object decode(JwtDecoder decoder) {
+        try {
+            return decoder.decode(tokenValue);
+        } catch (JwtException e) {
+            return e;
+        }
+    }
+
+    // The classification done by SecurityJwtConfiguration before VerifyingJwtDecoder
+    private static JwtDecoder messageMatchingDecoder(NimbusJwtDecoder jwtDecoder, SecurityMetersService metersService) {
+        return token -> {
+            try {
+                return jwtDecoder.decode(token);
+            } catch (Exception e) {
+                if (e.getMessage().contains("Invalid signature")) {
+                    metersService.trackTokenInvalidSignature();
+                } else if (e.getMessage().contains("Jwt expired at")) {
+                    metersService.trackTokenExpired();
+                } else if (
+                    e.getMessage().contains("Invalid JWT serialization") ||
+                    e.getMessage().contains("Malformed token") ||
+                    e.getMessage().contains("Invalid unsecured/JWS/JWE")
+                ) {
+                    metersService.trackTokenMalformed();
+                }
+                throw e;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(JwtDecoderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package vn.com.msb.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.jwk.JWK;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.util.Map;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+
+/**
+ * Unit tests for {@link JwtKeySet}.
+ */
+class JwtKeySetTest {
+
+    private static final char[] PASSWORD = "password".toCharArray();
+
+    @Test
+    void testLoadsKeysOfTheAlgorithm() throws Exception {
+        JwtKeySet keySet = load(SignatureAlgorithm.RS256, "jwt-2");
+
+        assertThat(keySet.getActiveKeyId()).isEqualTo("jwt-2");
+        assertThat(keySet.getVerificationKeys().keySet()).containsExactly("jwt-2", "jwt-1");
+        assertThat(keySet.getPublicKeys().getKeys()).extracting(JWK::getKeyID).containsExactlyInAnyOrder("jwt-1", "jwt-2");
+        assertThat(keySet.getPublicKeys().getKeys()).noneMatch(JWK::isPrivate);
+        assertThat(load(SignatureAlgorithm.ES256, "jwt-ec").getVerificationKeys().keySet()).containsExactly("jwt-ec");
+    }
+
+    @Test
+    void testPublishesPublicKeysOnly() throws Exception {
+        Map<String, Object> jwks = load(SignatureAlgorithm.RS256, "jwt-1").getPublicKeys().toJSONObject(true);
+
+        assertThat(jwks.get("keys"))
+            .asList()
+            .hasSize(2)
+            .allSatisfy(key ->
+                assertThat(key).asInstanceOf(InstanceOfAssertFactories.MAP).containsKeys("kid", "n", "e").doesNotContainKey("d")
+            );
+    }
+
+    @Test
+    void testCreatesHeaderWithActiveKeyId() throws Exception {
+        JwsHeader header = load(SignatureAlgorithm.ES256, "jwt-ec").createHeader();
+
+        assertThat(header.getAlgorithm()).isEqualTo(SignatureAlgorithm.ES256);
+        assertThat(header.getKeyId()).isEqualTo("jwt-ec");
+    }
+
+    @Test
+    void testSharedSecretHasNoKeyId() {
+        JwtKeySet keySet = JwtKeySet.of(
+            VerifyingJwtDecoderTest.getSecretKey(VerifyingJwtDecoderTest.JWT_KEY),
+            MacAlgorithm.HS512
+        );
+
+        assertThat(keySet.createHeader().getKeyId()).isNull();
+        assertThat(keySet.getPublicKeys().getKeys()).isEmpty();
+    }
+
+    @Test
+    void testRejectsActiveKeyOfAnotherAlgorithm() {
+        assertThatThrownBy(() -> load(SignatureAlgorithm.RS256, "jwt-ec")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> load(SignatureAlgorithm.RS256, "jwt-3")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static JwtKeySet load(SignatureAlgorithm algorithm, String activeKeyId) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = JwtKeySetTest.class.getResourceAsStream("/config/jwt-test.p12")) {
+            keyStore.load(in, PASSWORD);
+        }
+        return JwtKeySet.load(keyStore, PASSWORD, algorithm, activeKeyId);
+    }
+}
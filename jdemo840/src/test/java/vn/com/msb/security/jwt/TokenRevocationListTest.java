@@ -0,0 +1,202 @@
+package vn.com.msb.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Unit tests for {@link TokenRevocationList}.
+ */
+class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    private static final Duration VALIDITY = Duration.ofMinutes(15);
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    private InMemoryRevokedTokenStore store;
+
+    private MeterRegistry meterRegistry;
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    public void setup() {
+        store = new InMemoryRevokedTokenStore();
+        meterRegistry = new SimpleMeterRegistry();
+        revocationList = createRevocationList();
+        revocationList.bindTo(meterRegistry);
+    }
+
+    private TokenRevocationList createRevocationList() {
+        TokenRevocationList list = new TokenRevocationList(store, VALIDITY, 1000, 0.01, Duration.ofSeconds(60), clock);
+        list.start();
+        return list;
+    }
+
+    private static Jwt createJwt(String id, String subject, Instant issuedAt) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "HS512")
+            .jti(id)
+            .subject(subject)
+            .issuedAt(issuedAt)
+            .expiresAt(issuedAt.plus(VALIDITY))
+            .build();
+    }
+
+    @Test
+    void testRevokesTokenById() {
+        Jwt revoked = createJwt("1", "johndoe", NOW.minusSeconds(60));
+        Jwt other = createJwt("2", "johndoe", NOW.minusSeconds(60));
+
+        revocationList.revoke(revoked);
+
+        assertThat(revocationList.isRevoked(revoked)).isTrue();
+        assertThat(revocationList.isRevoked(other)).isFalse();
+        assertThat(store.gets.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testValidTokensAreNotLookedUp() {
+        revocationList.revoke(createJwt("1", "johndoe", NOW.minusSeconds(60)));
+        store.gets.set(0);
+
+        for (int i = 0; i < 1000; i++) {
+            revocationList.isRevoked(createJwt("other-" + i, "jane-" + i, NOW.minusSeconds(60)));
+        }
+
+        assertThat(store.gets.get()).isLessThan(50);
+        assertThat(meterRegistry.get(TokenRevocationList.LOOKUP_METER_NAME).tag("revoked", "false").counter().count()).isEqualTo(
+            store.gets.get()
+        );
+    }
+
+    @Test
+    void testRevokesTokensIssuedBeforeSubjectRevocation() {
+        Jwt previous = createJwt("1", "johndoe", NOW.minusSeconds(600));
+
+        revocationList.revokeAll("johndoe");
+        now.set(NOW.plusSeconds(1));
+        Jwt next = createJwt("2", "johndoe", now.get());
+
+        assertThat(revocationList.isRevoked(previous)).isTrue();
+        assertThat(revocationList.isRevoked(next)).isFalse();
+        assertThat(revocationList.isRevoked(createJwt("3", "janedoe", NOW.minusSeconds(600)))).isFalse();
+    }
+
+    @Test
+    void testRevocationsReachOtherNodes() {
+        TokenRevocationList otherNode = createRevocationList();
+        Jwt jwt = createJwt("1", "johndoe", NOW.minusSeconds(60));
+
+        revocationList.revoke(jwt);
+
+        assertThat(otherNode.isRevoked(jwt)).isTrue();
+    }
+
+    @Test
+    void testStartingNodeLoadsRevocations() {
+        Jwt jwt = createJwt("1", "johndoe", NOW.minusSeconds(60));
+        revocationList.revoke(jwt);
+        revocationList.revokeAll("janedoe");
+
+        TokenRevocationList startedNode = createRevocationList();
+
+        assertThat(startedNode.isRevoked(jwt)).isTrue();
+        assertThat(startedNode.isRevoked(createJwt("2", "janedoe", NOW.minusSeconds(60)))).isTrue();
+    }
+
+    @Test
+    void testDropsWindowsOfExpiredTokens() {
+        revocationList.revoke(createJwt("1", "johndoe", NOW.minusSeconds(60)));
+        revocationList.revokeAll("janedoe");
+        assertThat(revocationList.windowCount()).isBetween(1, 3);
+
+        now.set(NOW.plus(VALIDITY.multipliedBy(3)));
+        revocationList.revoke(createJwt("2", "johndoe", now.get()));
+
+        assertThat(revocationList.windowCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testFailsClosedWhenStoreIsUnavailable() {
+        Jwt jwt = createJwt("1", "johndoe", NOW.minusSeconds(60));
+        revocationList.revoke(jwt);
+        store.available = false;
+
+        assertThat(revocationList.isRevoked(jwt)).isTrue();
+    }
+
+    /**
+     * Store shared by the lists of the tests, notifying all of them synchronously.
+     */
+    private static class InMemoryRevokedTokenStore implements RevokedTokenStore {
+
+        private final Map<String, Long> revocations = new ConcurrentHashMap<>();
+
+        private final List<BiConsumer<String, Long>> listeners = new ArrayList<>();
+
+        private final AtomicInteger gets = new AtomicInteger();
+
+        private boolean available = true;
+
+        @Override
+        public void put(String key, long value, Instant expiresAt) {
+            revocations.put(key, value);
+            listeners.forEach(listener -> listener.accept(key, value));
+        }
+
+        @Override
+        public Long get(String key) {
+            gets.incrementAndGet();
+            if (!available) {
+                throw new IllegalStateException("Store unavailable");
+            }
+            return revocations.get(key);
+        }
+
+        @Override
+        public Map<String, Long> getAll() {
+            return Map.copyOf(revocations);
+        }
+
+        @Override
+        public void subscribe(BiConsumer<String, Long> listener) {
+            listeners.add(listener);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package vn.com.msb.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static vn.com.msb.security.SecurityUtils.JWT_ALGORITHM;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import vn.com.msb.management.SecurityMetersService;
+import vn.com.msb.security.jwt.VerifyingJwtDecoder.Failure;
+import vn.com.msb.security.jwt.VerifyingJwtDecoder.RejectedJwtException;
+
+/**
+ * Unit tests for {@link VerifyingJwtDecoder}.
+ */
+class VerifyingJwtDecoderTest {
+
+    static final String JWT_KEY = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    static final String OTHER_JWT_KEY = "Xfd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private MeterRegistry meterRegistry;
+
+    private VerifyingJwtDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = createDecoder(JwtKeySet.of(getSecretKey(JWT_KEY), JWT_ALGORITHM));
+    }
+
+    private VerifyingJwtDecoder createDecoder(JwtKeySet keySet) {
+        return new VerifyingJwtDecoder(
+            keySet,
+            new SecurityMetersService(meterRegistry),
+            Clock.fixed(NOW, ZoneOffset.UTC),
+            Duration.ofSeconds(60)
+        );
+    }
+
+    @Test
+    void testDecodesValidToken() {
+        Jwt jwt = decoder.decode(createToken(JWT_KEY, JWT_ALGORITHM, NOW.plusSeconds(60)));
+
+        assertThat(jwt.getSubject()).isEqualTo("anonymous");
+        assertThat(jwt.getExpiresAt()).isEqualTo(NOW.plusSeconds(60));
+        assertThat(jwt.getHeaders()).containsEntry("alg", "HS512");
+        assertThat(invalidTokenCount()).isZero();
+    }
+
+    @Test
+    void testRejectsMalformedTokens() {
+        String token = createToken(JWT_KEY, JWT_ALGORITHM, NOW.plusSeconds(60));
+        String[] malformedTokens = {
+            "",
+            "foo",
+            "a0b1c2d3e4f5",
+            token.substring(1),
+            token + ".",
+            "." + token.substring(token.indexOf('.') + 1),
+            token.substring(0, token.lastIndexOf('.') + 1),
+            token.replace('.', '!'),
+        };
+
+        for (String malformedToken : malformedTokens) {
+            assertRejected(malformedToken, Failure.MALFORMED);
+        }
+        assertThat(invalidTokenCount("malformed")).isEqualTo(malformedTokens.length);
+    }
+
+    @Test
+    void testRejectsTokenWithInvalidSignature() {
+        String token = createToken(OTHER_JWT_KEY, JWT_ALGORITHM, NOW.plusSeconds(60));
+
+        assertRejected(token, Failure.INVALID_SIGNATURE);
+        assertRejected(token.substring(0, token.length() - 2), Failure.INVALID_SIGNATURE);
+        assertThat(invalidTokenCount("invalid-signature")).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectsTokenWithUnsupportedAlgorithm() {
+        assertRejected(createToken(JWT_KEY, MacAlgorithm.HS256, NOW.plusSeconds(60)), Failure.UNSUPPORTED);
+        assertRejected("eyJhbGciOiJub25lIn0.e30.", Failure.MALFORMED);
+        assertRejected("eyJhbGciOiJub25lIn0.e30.c2ln", Failure.UNSUPPORTED);
+        assertRejected("e30.e30.c2ln", Failure.UNSUPPORTED);
+
+        assertThat(invalidTokenCount("unsupported")).isEqualTo(3);
+    }
+
+    @Test
+    void testRejectsExpiredToken() {
+        assertRejected(createToken(JWT_KEY, JWT_ALGORITHM, NOW.minusSeconds(61)), Failure.EXPIRED);
+
+        assertThat(invalidTokenCount("expired")).isEqualTo(1);
+    }
+
+    @Test
+    void testAcceptsTokenExpiredWithinClockSkew() {
+        assertThat(decoder.decode(createToken(JWT_KEY, JWT_ALGORITHM, NOW.minusSeconds(59)))).isNotNull();
+    }
+
+    @Test
+    void testDecodesTokensSignedByEveryKeyOfTheKeySet() throws Exception {
+        decoder = createDecoder(JwtKeySetTest.load(SignatureAlgorithm.RS256, "jwt-2"));
+
+        assertThat(decoder.decode(createToken(JwtKeySetTest.load(SignatureAlgorithm.RS256, "jwt-1"), NOW.plusSeconds(60))).getHeaders())
+            .containsEntry("kid", "jwt-1");
+        assertThat(decoder.decode(createToken(JwtKeySetTest.load(SignatureAlgorithm.RS256, "jwt-2"), NOW.plusSeconds(60))).getHeaders())
+            .containsEntry("kid", "jwt-2");
+        assertThat(invalidTokenCount()).isZero();
+    }
+
+    @Test
+    void testDecodesEllipticCurveToken() throws Exception {
+        JwtKeySet keySet = JwtKeySetTest.load(SignatureAlgorithm.ES256, "jwt-ec");
+        decoder = createDecoder(keySet);
+
+        assertThat(decoder.decode(createToken(keySet, NOW.plusSeconds(60))).getSubject()).isEqualTo("anonymous");
+        assertRejected(createToken(keySet, NOW.minusSeconds(61)), Failure.EXPIRED);
+        assertRejected(createToken(JWT_KEY, JWT_ALGORITHM, NOW.plusSeconds(60)), Failure.UNSUPPORTED);
+    }
+
+    @Test
+    void testRejectsTokenOfUnknownKey() throws Exception {
+        JwtKeySet keySet = JwtKeySetTest.load(SignatureAlgorithm.RS256, "jwt-1");
+        decoder = createDecoder(
+            JwtKeySet.of(SignatureAlgorithm.RS256, "jwt-2", null, Map.of("jwt-2", (PublicKey) keySet.getVerificationKeys().get("jwt-2")))
+        );
+        String token = createToken(keySet, NOW.plusSeconds(60));
+
+        assertRejected(token, Failure.INVALID_SIGNATURE);
+        // Same key id, other key
+        String otherKeyHeader = encodeHeader("{\"kid\":\"jwt-2\",\"alg\":\"RS256\"}");
+        assertRejected(otherKeyHeader + token.substring(token.indexOf('.')), Failure.INVALID_SIGNATURE);
+        assertThat(invalidTokenCount("invalid-signature")).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectionsHaveNoStackTrace() {
+        assertThatThrownBy(() -> decoder.decode("foo"))
+            .isInstanceOf(BadJwtException.class)
+            .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    void testDecodeBase64Url() {
+        byte[] out = new byte[8];
+
+        assertThat(VerifyingJwtDecoder.decodeBase64Url("xeyJhIjoxfQx", 1, 11, out)).isEqualTo(7);
+        assertThat(new String(out, 0, 7)).isEqualTo("{\"a\":1}");
+        assertThat(VerifyingJwtDecoder.decodeBase64Url("e30", 0, 3, out)).isEqualTo(2);
+        assertThat(VerifyingJwtDecoder.decodeBase64Url("e30=", 0, 4, out)).isEqualTo(-1);
+        assertThat(VerifyingJwtDecoder.decodeBase64Url("e3012", 0, 5, out)).isEqualTo(-1);
+        assertThat(VerifyingJwtDecoder.decodeBase64Url("eyJhIjoxfQeyJhIjoxfQ", 0, 20, out)).isEqualTo(-1);
+    }
+
+    private void assertRejected(String token, Failure failure) {
+        assertThatThrownBy(() -> decoder.decode(token))
+            .as(token)
+            .isInstanceOfSatisfying(RejectedJwtException.class, e -> assertThat(e.getFailure()).isEqualTo(failure));
+    }
+
+    private double invalidTokenCount() {
+        return meterRegistry.get("security.authentication.invalid-tokens").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private double invalidTokenCount(String cause) {
+        return meterRegistry.get("security.authentication.invalid-tokens").tag("cause", cause).counter().count();
+    }
+
+    static String createToken(String jwtKey, MacAlgorithm algorithm, Instant expiresAt) {
+        JwtClaimsSet claims = JwtClaimsSet.builder().issuedAt(expiresAt.minusSeconds(60)).expiresAt(expiresAt).subject("anonymous").build();
+        return new NimbusJwtEncoder(new ImmutableSecret<>(getSecretKey(jwtKey)))
+            .encode(JwtEncoderParameters.from(JwsHeader.with(algorithm).build(), claims))
+            .getTokenValue();
+    }
+
+    static String createToken(JwtKeySet keySet, Instant expiresAt) {
+        JwtClaimsSet claims = JwtClaimsSet.builder().issuedAt(expiresAt.minusSeconds(60)).expiresAt(expiresAt).subject("anonymous").build();
+        return new NimbusJwtEncoder(keySet.getSigningKeys())
+            .encode(JwtEncoderParameters.from(keySet.createHeader(), claims))
+            .getTokenValue();
+    }
+
+    private static String encodeHeader(String header) {
+        return java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SecretKey getSecretKey(String jwtKey) {
+        byte[] keyBytes = Base64.from(jwtKey).decode();
+        return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
+    }
+}
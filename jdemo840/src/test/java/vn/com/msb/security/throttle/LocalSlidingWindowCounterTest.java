@@ -0,0 +1,84 @@
+package vn.com.msb.security.throttle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LocalSlidingWindowCounter}.
+ */
+class LocalSlidingWindowCounterTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    private final LocalSlidingWindowCounter counter = new LocalSlidingWindowCounter(Duration.ofMinutes(1), 1000, clock);
+
+    @Test
+    void testCountsEventsPerKey() {
+        assertThat(counter.increment("127.0.0.1")).isEqualTo(1);
+        assertThat(counter.increment("127.0.0.1")).isEqualTo(2);
+        assertThat(counter.increment("10.0.0.1")).isEqualTo(1);
+
+        assertThat(counter.get("127.0.0.1")).isEqualTo(2);
+        assertThat(counter.get("unknown")).isZero();
+    }
+
+    @Test
+    void testWeightsThePreviousWindowByItsOverlap() {
+        IntStream.range(0, 4).forEach(i -> counter.increment("127.0.0.1"));
+
+        // A quarter into the next window, the sliding window still covers three quarters of the previous one
+        now.set(NOW.plusSeconds(75));
+        assertThat(counter.get("127.0.0.1")).isEqualTo(3);
+        assertThat(counter.increment("127.0.0.1")).isEqualTo(4);
+
+        now.set(NOW.plusSeconds(105));
+        assertThat(counter.get("127.0.0.1")).isEqualTo(2);
+    }
+
+    @Test
+    void testForgetsTheEventsOlderThanTheWindow() {
+        IntStream.range(0, 4).forEach(i -> counter.increment("127.0.0.1"));
+
+        now.set(NOW.plusSeconds(120));
+
+        assertThat(counter.get("127.0.0.1")).isZero();
+        assertThat(counter.increment("127.0.0.1")).isEqualTo(1);
+    }
+
+    @Test
+    void testBoundsTheNumberOfKeys() {
+        LocalSlidingWindowCounter smallCounter = new LocalSlidingWindowCounter(Duration.ofMinutes(1), 64, clock);
+
+        IntStream.range(0, 1000).forEach(i -> smallCounter.increment("10.0." + (i / 256) + "." + (i % 256)));
+
+        long keptKeys = IntStream.range(0, 1000).filter(i -> smallCounter.get("10.0." + (i / 256) + "." + (i % 256)) > 0).count();
+        assertThat(keptKeys).isPositive().isLessThanOrEqualTo(64);
+    }
+}
@@ -0,0 +1,130 @@
+package vn.com.msb.security.throttle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import vn.com.msb.config.ApplicationProperties;
+import vn.com.msb.management.SecurityMetersService;
+
+/**
+ * Unit tests for {@link LoginThrottle}.
+ */
+class LoginThrottleTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    private ApplicationProperties.Security.Throttle properties;
+
+    private MeterRegistry meterRegistry;
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ApplicationProperties().getSecurity().getThrottle();
+        properties.getLoginByIp().setLimit(3);
+        properties.getLoginFailuresByLogin().setLimit(2);
+        properties.getPasswordResetByIp().setLimit(2);
+        properties.getPasswordResetByEmail().setLimit(1);
+        meterRegistry = new SimpleMeterRegistry();
+        loginThrottle = new LoginThrottle(properties, new SecurityMetersService(meterRegistry), (name, window) ->
+            new LocalSlidingWindowCounter(window, 1000, clock)
+        );
+    }
+
+    private double throttledRequests(String limit) {
+        return meterRegistry.get(SecurityMetersService.THROTTLED_REQUESTS_METER_NAME).tag("limit", limit).counter().count();
+    }
+
+    @Test
+    void testLimitsLoginAttemptsByIp() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.checkLogin("user" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> loginThrottle.checkLogin("user", "10.0.0.1")).isInstanceOf(ThrottledException.class);
+        assertThatNoException().isThrownBy(() -> loginThrottle.checkLogin("user", "10.0.0.2"));
+        assertThat(throttledRequests("login-by-ip")).isEqualTo(1);
+    }
+
+    @Test
+    void testLimitsFailedLoginAttemptsByLoginWhateverTheAddress() {
+        loginThrottle.checkLogin("admin", "10.0.0.1");
+        loginThrottle.loginFailed("admin");
+        loginThrottle.checkLogin("Admin", "10.0.0.2");
+        loginThrottle.loginFailed("Admin");
+
+        assertThatThrownBy(() -> loginThrottle.checkLogin("ADMIN ", "10.0.0.3")).isInstanceOf(ThrottledException.class);
+        assertThatNoException().isThrownBy(() -> loginThrottle.checkLogin("user", "10.0.0.3"));
+        assertThat(throttledRequests("login-failures-by-login")).isEqualTo(1);
+
+        now.set(NOW.plus(properties.getLoginFailuresByLogin().getWindow().multipliedBy(2)));
+        assertThatNoException().isThrownBy(() -> loginThrottle.checkLogin("admin", "10.0.0.3"));
+    }
+
+    @Test
+    void testSuccessfulLoginsDoNotCountAgainstTheLogin() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.checkLogin("admin", "10.0.0." + i);
+        }
+
+        assertThatNoException().isThrownBy(() -> loginThrottle.checkLogin("admin", "10.0.0.3"));
+    }
+
+    @Test
+    void testLimitsPasswordResetsByEmailAndByIp() {
+        loginThrottle.checkPasswordReset("user@localhost", "10.0.0.1");
+
+        assertThatThrownBy(() -> loginThrottle.checkPasswordReset("User@localhost", "10.0.0.2")).isInstanceOf(ThrottledException.class);
+
+        loginThrottle.checkPasswordReset("other@localhost", "10.0.0.1");
+        assertThatThrownBy(() -> loginThrottle.checkPasswordReset("another@localhost", "10.0.0.1")).isInstanceOf(
+            ThrottledException.class
+        );
+        assertThat(throttledRequests("password-reset")).isEqualTo(2);
+    }
+
+    @Test
+    void testDisabledThrottleLetsEveryAttemptThrough() {
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 10; i++) {
+            loginThrottle.loginFailed("admin");
+            loginThrottle.checkLogin("admin", "10.0.0.1");
+            loginThrottle.checkPasswordReset("admin@localhost", "10.0.0.1");
+        }
+
+        assertThat(meterRegistry.get(SecurityMetersService.THROTTLED_REQUESTS_METER_NAME).counters())
+            .allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+}
@@ -0,0 +1,152 @@
+package vn.com.msb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import vn.com.msb.config.ApplicationProperties;
+import vn.com.msb.domain.RefreshToken;
+import vn.com.msb.domain.User;
+import vn.com.msb.repository.RefreshTokenRepository;
+import vn.com.msb.repository.UserRepository;
+
+/**
+ * Unit tests for {@link RefreshTokenService}.
+ */
+class RefreshTokenServiceTest {
+
+    private final Map<String, RefreshToken> tokensByHash = new HashMap<>();
+
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private User user;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    public void setup() {
+        user = new User();
+        user.setId(1051L);
+        user.setLogin("johndoe");
+
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        doAnswer(invocation -> {
+                RefreshToken token = invocation.getArgument(0);
+                token.setId((long) tokensByHash.size() + 1);
+                tokensByHash.put(token.getTokenHash(), token);
+                return token;
+            })
+            .when(refreshTokenRepository)
+            .save(any());
+        doAnswer(invocation -> Optional.ofNullable(tokensByHash.get(invocation.<String>getArgument(0))))
+            .when(refreshTokenRepository)
+            .findOneWithUserByTokenHash(anyString());
+        doAnswer(invocation -> revoke(invocation.getArgument(0))).when(refreshTokenRepository).revokeById(anyLong());
+
+        UserRepository userRepository = mock(UserRepository.class);
+        doReturn(Optional.of(user)).when(userRepository).findOneByLogin("johndoe");
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getRefreshToken().setValidity(Duration.ofHours(1));
+        applicationProperties.getSecurity().getRefreshToken().setValidityForRememberMe(Duration.ofDays(7));
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, applicationProperties);
+    }
+
+    private int revoke(long id) {
+        for (RefreshToken token : tokensByHash.values()) {
+            if (token.getId() == id && !token.isRevoked()) {
+                token.setRevoked(true);
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    void testStoresTheHashOfTheToken() {
+        String token = refreshTokenService.create("johndoe", false);
+
+        RefreshToken refreshToken = tokensByHash.values().iterator().next();
+        assertThat(token).hasSize(43);
+        assertThat(refreshToken.getTokenHash()).isEqualTo(RefreshTokenService.hash(token)).doesNotContain(token);
+        assertThat(refreshToken.getUser()).isSameAs(user);
+        assertThat(refreshToken.getExpiresAt()).isBetween(Instant.now().plusSeconds(3590), Instant.now().plusSeconds(3600));
+    }
+
+    @Test
+    void testRememberMeTokensLastLonger() {
+        refreshTokenService.create("johndoe", true);
+
+        assertThat(tokensByHash.values().iterator().next().getExpiresAt()).isAfter(Instant.now().plus(Duration.ofDays(6)));
+    }
+
+    @Test
+    void testRotatesTokenWithinItsFamily() {
+        String token = refreshTokenService.create("johndoe", true);
+
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(token);
+
+        assertThat(rotation).isPresent();
+        assertThat(rotation.orElseThrow().login()).isEqualTo("johndoe");
+        assertThat(rotation.orElseThrow().rememberMe()).isTrue();
+        assertThat(rotation.orElseThrow().refreshToken()).isNotEqualTo(token);
+        RefreshToken previous = tokensByHash.get(RefreshTokenService.hash(token));
+        RefreshToken next = tokensByHash.get(RefreshTokenService.hash(rotation.orElseThrow().refreshToken()));
+        assertThat(previous.isRevoked()).isTrue();
+        assertThat(next.isRevoked()).isFalse();
+        assertThat(next.getFamily()).isEqualTo(previous.getFamily());
+        verify(refreshTokenRepository, never()).revokeAllByFamily(anyString());
+    }
+
+    @Test
+    void testReuseRevokesTheFamily() {
+        String token = refreshTokenService.create("johndoe", false);
+        String family = tokensByHash.values().iterator().next().getFamily();
+        refreshTokenService.rotate(token);
+
+        assertThat(refreshTokenService.rotate(token)).isEmpty();
+        verify(refreshTokenRepository).revokeAllByFamily(family);
+    }
+
+    @Test
+    void testConcurrentRotationRevokesTheFamily() {
+        String token = refreshTokenService.create("johndoe", false);
+        // Another request revokes the token between its lookup and its update
+        doReturn(0).when(refreshTokenRepository).revokeById(anyLong());
+
+        assertThat(refreshTokenService.rotate(token)).isEmpty();
+        verify(refreshTokenRepository).revokeAllByFamily(tokensByHash.values().iterator().next().getFamily());
+    }
+
+    @Test
+    void testRejectsUnknownAndExpiredTokens() {
+        String token = refreshTokenService.create("johndoe", false);
+        tokensByHash.values().iterator().next().setExpiresAt(Instant.now().minusSeconds(1));
+
+        assertThat(refreshTokenService.rotate(token)).isEmpty();
+        assertThat(refreshTokenService.rotate("unknown")).isEmpty();
+        verify(refreshTokenRepository, never()).revokeById(anyLong());
+    }
+
+    @Test
+    void testRevokeRevokesTheFamily() {
+        String token = refreshTokenService.create("johndoe", false);
+
+        refreshTokenService.revoke(token);
+
+        verify(refreshTokenRepository).revokeAllByFamily(tokensByHash.values().iterator().next().getFamily());
+    }
+}
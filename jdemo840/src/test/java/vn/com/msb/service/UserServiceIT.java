@@ -1,17 +1,21 @@
 package vn.com.msb.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import jakarta.persistence.EntityManager;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,12 +23,23 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 import vn.com.msb.IntegrationTest;
+import vn.com.msb.domain.Authority;
 import vn.com.msb.domain.User;
 import vn.com.msb.repository.UserRepository;
 import vn.com.msb.repository.search.UserSearchRepository;
+import vn.com.msb.security.AuthoritiesConstants;
+import vn.com.msb.service.dto.AdminUserDTO;
+import vn.com.msb.service.dto.UserDTO;
 
 /**
  * Integration tests for {@link UserService}.
@@ -65,6 +80,15 @@ class UserServiceIT {
     @MockBean
     private DateTimeProvider dateTimeProvider;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthenticationManagerBuilder authenticationManagerBuilder;
+
+    @Autowired
+    private EntityManager em;
+
     private User user;
 
     @BeforeEach
@@ -108,6 +132,20 @@ class UserServiceIT {
         userRepository.delete(user);
     }
 
+    @Test
+    @Transactional
+    void assertThatPasswordHashIsUpgradedOnLogin() {
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password"));
+        userRepository.saveAndFlush(user);
+
+        authenticationManagerBuilder.getObject().authenticate(new UsernamePasswordAuthenticationToken(DEFAULT_LOGIN, "password"));
+
+        String upgradedPassword = userRepository.findOneByLogin(DEFAULT_LOGIN).orElseThrow().getPassword();
+        assertThat(upgradedPassword).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches("password", upgradedPassword)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(upgradedPassword)).isFalse();
+    }
+
     @Test
     @Transactional
     void assertThatResetKeyMustNotBeOlderThan24Hours() {
@@ -175,7 +213,7 @@ class UserServiceIT {
         assertThat(users).isEmpty();
 
         // Verify Elasticsearch mock
-        verify(spiedUserSearchRepository, times(1)).deleteFromIndex(user);
+        verify(spiedUserSearchRepository, times(1)).deleteAllFromIndex(List.of(dbUser.getId()));
     }
 
     @Test
@@ -195,6 +233,49 @@ class UserServiceIT {
         assertThat(maybeDbUser).contains(dbUser);
 
         // Verify Elasticsearch mock
-        verify(spiedUserSearchRepository, never()).deleteFromIndex(user);
+        verify(spiedUserSearchRepository, never()).deleteAllFromIndex(any());
+    }
+
+    @Test
+    @Transactional
+    void assertThatOnlyTheUsersStillNotActivatedAreDeletedAndReported() {
+        user.setActivated(false);
+        User staleUser = userRepository.saveAndFlush(user);
+        User activatedUser = new User();
+        activatedUser.setLogin("activated");
+        activatedUser.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        activatedUser.setActivated(true);
+        activatedUser.setEmail("activated@localhost");
+        activatedUser.setLangKey(DEFAULT_LANGKEY);
+        userRepository.saveAndFlush(activatedUser);
+        em.clear();
+
+        List<Long> deletedIds = userRepository.deleteNotActivatedByIdIn(List.of(staleUser.getId(), activatedUser.getId()));
+
+        assertThat(deletedIds).containsExactly(staleUser.getId());
+        assertThat(userRepository.findById(staleUser.getId())).isEmpty();
+        assertThat(userRepository.findById(activatedUser.getId())).isPresent();
+    }
+
+    @Test
+    @Transactional
+    void assertThatUsersAreProjectedWithoutLoadingEntities() {
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        user.setAuthorities(Set.of(authority));
+        userRepository.saveAndFlush(user);
+        em.clear();
+
+        Page<AdminUserDTO> managedUsers = userService.getAllManagedUsers(PageRequest.of(0, 1, Sort.by("id").descending()));
+        Page<UserDTO> publicUsers = userService.getAllPublicUsers(PageRequest.of(0, 1, Sort.by("id").descending()));
+
+        assertThat(managedUsers.getContent()).singleElement().satisfies(managedUser -> {
+            assertThat(managedUser.getLogin()).isEqualTo(DEFAULT_LOGIN);
+            assertThat(managedUser.getEmail()).isEqualTo(DEFAULT_EMAIL);
+            assertThat(managedUser.getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+        });
+        assertThat(managedUsers.getTotalElements()).isEqualTo(userRepository.count());
+        assertThat(publicUsers.getContent()).extracting(UserDTO::getLogin).containsExactly(DEFAULT_LOGIN);
+        assertThat(em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities()).isZero();
     }
 }
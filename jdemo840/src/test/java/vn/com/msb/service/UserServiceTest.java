@@ -0,0 +1,188 @@
+package vn.com.msb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import vn.com.msb.domain.User;
+import vn.com.msb.repository.AuthorityRepository;
+import vn.com.msb.repository.RefreshTokenRepository;
+import vn.com.msb.repository.UserCacheKeys;
+import vn.com.msb.repository.UserRepository;
+import vn.com.msb.repository.search.UserSearchRepository;
+import vn.com.msb.security.PasswordEncoderBusyException;
+import vn.com.msb.security.jwt.TokenRevocationList;
+import vn.com.msb.service.dto.AdminUserDTO;
+import vn.com.msb.service.dto.UserImportResultDTO;
+import vn.com.msb.service.dto.UserImportResultDTO.Status;
+
+/**
+ * Unit tests for {@link UserService}.
+ */
+class UserServiceTest {
+
+    private UserRepository userRepository;
+
+    private PasswordEncoder passwordEncoder;
+
+    private UserSearchRepository userSearchRepository;
+
+    private CacheManager cacheManager;
+
+    private UserService userService;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            long id = 1051;
+            for (User user : users) {
+                user.setId(id++);
+            }
+            return users;
+        })
+            .when(userRepository)
+            .saveAllAndFlush(any());
+        passwordEncoder = mock(PasswordEncoder.class);
+        doReturn("hash").when(passwordEncoder).encode(any());
+        userSearchRepository = mock(UserSearchRepository.class);
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        cacheManager = new ConcurrentMapCacheManager(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE);
+        userService = new UserService(
+            userRepository,
+            passwordEncoder,
+            userSearchRepository,
+            authorityRepository,
+            mock(RefreshTokenRepository.class),
+            mock(TokenRevocationList.class),
+            cacheManager,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new SimpleMeterRegistry()
+        );
+    }
+
+    private static AdminUserDTO userDTO(String login, String email) {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(login);
+        userDTO.setEmail(email);
+        return userDTO;
+    }
+
+    @Test
+    void testImportOnlyHashesThePasswordsOfTheCreatedUsers() {
+        doReturn(List.of("taken")).when(userRepository).findAllLoginsByLoginIn(anyCollection());
+        doReturn(List.of("taken@localhost")).when(userRepository).findAllEmailsByEmailIn(anyCollection());
+
+        UserService.ImportedUsers imported = userService.importUsers(
+            List.of(
+                userDTO("johndoe", "johndoe@localhost"),
+                userDTO("taken", "other@localhost"),
+                userDTO("jhipster", "taken@localhost"),
+                userDTO("JohnDoe", "third@localhost")
+            ),
+            1
+        );
+
+        assertThat(imported.results())
+            .extracting(UserImportResultDTO::status)
+            .containsExactly(Status.CREATED, Status.LOGIN_ALREADY_USED, Status.EMAIL_ALREADY_USED, Status.LOGIN_ALREADY_USED);
+        assertThat(imported.results()).extracting(UserImportResultDTO::row).containsExactly(1, 2, 3, 4);
+        assertThat(imported.users()).extracting(User::getPassword).containsExactly("hash");
+        verify(passwordEncoder, times(1)).encode(any());
+    }
+
+    @Test
+    void testImportHashesBetweenTheChecksAndTheInsert() {
+        // Unknown login and email, as cached before the import
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("johndoe", null);
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).put("johndoe@localhost", null);
+
+        UserService.ImportedUsers imported = userService.importUsers(List.of(userDTO("johndoe", "johndoe@localhost")), 1);
+
+        InOrder inOrder = inOrder(userRepository, passwordEncoder, userSearchRepository);
+        inOrder.verify(userRepository).findAllLoginsByLoginIn(anyCollection());
+        inOrder.verify(passwordEncoder).encode(any());
+        inOrder.verify(userRepository).saveAllAndFlush(imported.users());
+        inOrder.verify(userSearchRepository).indexAll(imported.users());
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("johndoe")).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get("johndoe@localhost")).isNull();
+    }
+
+    @Test
+    void testImportCreatesNoUserWhenThePasswordEncoderIsBusy() {
+        doThrow(new PasswordEncoderBusyException("Too many passwords waiting to be hashed")).when(passwordEncoder).encode(any());
+
+        assertThatThrownBy(() -> userService.importUsers(List.of(userDTO("johndoe", "johndoe@localhost")), 1)).isInstanceOf(
+            PasswordEncoderBusyException.class
+        );
+
+        verify(userRepository, never()).saveAllAndFlush(any());
+        verify(userSearchRepository, never()).indexAll(any());
+    }
+
+    @Test
+    void testImportRejectsInvalidUsersWithoutHashing() {
+        AdminUserDTO withId = userDTO("johndoe", "johndoe@localhost");
+        withId.setId(1L);
+
+        UserService.ImportedUsers imported = userService.importUsers(List.of(withId, userDTO("not a login!", null)), 1);
+
+        assertThat(imported.results()).extracting(UserImportResultDTO::status).containsOnly(Status.INVALID);
+        assertThat(imported.users()).isEmpty();
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void testPurgeKeepsTheUsersActivatedInTheMeantimeIndexedAndCached() {
+        doReturn(List.of(new UserCacheKeys(1051L, "stale", "stale@localhost"), new UserCacheKeys(1052L, "activated", null)))
+            .when(userRepository)
+            .findNotActivatedUsersCreatedBefore(any(Instant.class), anyLong(), any());
+        // The second user was activated between the selection and the deletion
+        doReturn(List.of(1051L)).when(userRepository).deleteNotActivatedByIdIn(List.of(1051L, 1052L));
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("stale", new User());
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).put("stale@localhost", new User());
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("activated", new User());
+
+        userService.removeNotActivatedUsers();
+
+        verify(userSearchRepository).deleteAllFromIndex(List.of(1051L));
+        verify(userSearchRepository, times(1)).deleteAllFromIndex(any());
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("stale")).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get("stale@localhost")).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("activated")).isNotNull();
+    }
+
+    @Test
+    void testPurgeSkipsTheIndexWhenNoUserIsDeleted() {
+        doReturn(List.of(new UserCacheKeys(1051L, "activated", null)))
+            .when(userRepository)
+            .findNotActivatedUsersCreatedBefore(any(Instant.class), anyLong(), any());
+        doReturn(List.of()).when(userRepository).deleteNotActivatedByIdIn(List.of(1051L));
+
+        userService.removeNotActivatedUsers();
+
+        verify(userSearchRepository, never()).deleteAllFromIndex(any());
+    }
+}
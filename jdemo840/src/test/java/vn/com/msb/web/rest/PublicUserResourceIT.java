@@ -80,6 +80,23 @@ class PublicUserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").doesNotExist());
     }
 
+    @Test
+    @Transactional
+    void getAllPublicUsersByKeyset() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        restUserMockMvc
+            .perform(get("/api/users?cursor=&sort=id,desc&size=1").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[0].login").value(DEFAULT_LOGIN))
+            .andExpect(jsonPath("$.[*].email").doesNotExist());
+        restUserMockMvc
+            .perform(get("/api/users?cursor=&sort=resetKey,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllUsersSortedByParameters() throws Exception {
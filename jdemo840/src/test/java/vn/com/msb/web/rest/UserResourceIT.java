@@ -1,7 +1,10 @@
 package vn.com.msb.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -16,11 +19,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import vn.com.msb.IntegrationTest;
+import vn.com.msb.config.Constants;
 import vn.com.msb.domain.Authority;
 import vn.com.msb.domain.User;
 import vn.com.msb.repository.UserRepository;
@@ -121,7 +128,12 @@ class UserResourceIT {
 
     @BeforeEach
     public void initTest() {
-        user = initTestUser(userRepository, em);
+        if (TestTransaction.isActive()) {
+            user = initTestUser(userRepository, em);
+        } else {
+            // Committed, the deletion would remove the users of the other tests
+            user = createEntity(em);
+        }
     }
 
     @Test
@@ -159,6 +171,74 @@ class UserResourceIT {
         userSearchRepository.deleteAll();
     }
 
+    @Test
+    void importUsers() throws Exception {
+        // The import commits its users outside the transaction of the test, which is why there is none
+        int databaseSizeBeforeCreate = userRepository.findAll().size();
+
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin(DEFAULT_LOGIN);
+        user.setEmail(DEFAULT_EMAIL);
+        user.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
+        AdminUserDTO sameLogin = new AdminUserDTO();
+        sameLogin.setLogin(DEFAULT_LOGIN.toUpperCase());
+        sameLogin.setEmail(UPDATED_EMAIL);
+        AdminUserDTO existingLogin = new AdminUserDTO();
+        existingLogin.setLogin("admin");
+        AdminUserDTO sameEmail = new AdminUserDTO();
+        sameEmail.setLogin(UPDATED_LOGIN);
+        sameEmail.setEmail(DEFAULT_EMAIL);
+        AdminUserDTO invalid = new AdminUserDTO();
+        invalid.setLogin("not a login!");
+        StringBuilder users = new StringBuilder();
+        for (AdminUserDTO userDTO : List.of(user, sameLogin, existingLogin, sameEmail, invalid)) {
+            users.append(om.writeValueAsString(userDTO)).append('\n');
+        }
+        // Malformed
+        users.append("{\"login\": ");
+
+        restUserMockMvc
+            .perform(post("/api/admin/users/bulk").contentType(MediaType.APPLICATION_NDJSON).content(users.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].row").value(contains(1, 2, 3, 4, 5, 6)))
+            .andExpect(jsonPath("$.[*].status").value(
+                contains("CREATED", "LOGIN_ALREADY_USED", "LOGIN_ALREADY_USED", "EMAIL_ALREADY_USED", "INVALID", "INVALID")
+            ))
+            .andExpect(jsonPath("$.[0].login").value(DEFAULT_LOGIN))
+            .andExpect(jsonPath("$.[0].id").isNumber());
+
+        assertPersistedUsers(persistedUsers -> assertThat(persistedUsers).hasSize(databaseSizeBeforeCreate + 1));
+        User testUser = userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).orElseThrow();
+        assertThat(testUser.getEmail()).isEqualTo(DEFAULT_EMAIL);
+        assertThat(testUser.getLangKey()).isEqualTo(Constants.DEFAULT_LANGUAGE);
+        assertThat(testUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+        assertThat(testUser.isActivated()).isTrue();
+        assertThat(testUser.getResetKey()).isNotNull();
+
+        deleteImportedUser(DEFAULT_LOGIN);
+    }
+
+    @Test
+    void importUsersFromJsonArray() throws Exception {
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin(DEFAULT_LOGIN);
+        user.setEmail(DEFAULT_EMAIL);
+
+        restUserMockMvc
+            .perform(post("/api/admin/users/bulk").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(List.of(user))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains("CREATED")));
+
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN)).isPresent();
+
+        deleteImportedUser(DEFAULT_LOGIN);
+    }
+
+    private void deleteImportedUser(String login) {
+        userRepository.findOneByLogin(login).ifPresent(userRepository::delete);
+        userSearchRepository.deleteAll();
+    }
+
     @Test
     @Transactional
     void createUserWithExistingId() throws Exception {
@@ -265,6 +345,56 @@ class UserResourceIT {
         userSearchRepository.deleteAll();
     }
 
+    @Test
+    @Transactional
+    void getAllUsersByKeyset() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        // Get the first window, which starts with the last created user
+        restUserMockMvc
+            .perform(get("/api/admin/users?cursor=&sort=id,desc&size=1").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].login").value(DEFAULT_LOGIN));
+
+        restUserMockMvc
+            .perform(get("/api/admin/users?cursor=invalid&sort=id,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+        restUserMockMvc
+            .perform(get("/api/admin/users?cursor=&sort=password,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportUsers() throws Exception {
+        // The export reads the users committed by Liquibase, outside the transaction of the test
+        MvcResult csvExport = restUserMockMvc
+            .perform(get("/api/admin/users/export?format=csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restUserMockMvc
+            .perform(asyncDispatch(csvExport))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("users.csv")))
+            .andExpect(content().string(startsWith("id,login,firstName,lastName,email,")))
+            .andExpect(content().string(containsString(",admin,")));
+
+        MvcResult ndjsonExport = restUserMockMvc.perform(get("/api/admin/users/export")).andExpect(request().asyncStarted()).andReturn();
+        restUserMockMvc
+            .perform(asyncDispatch(ndjsonExport))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(containsString("\"login\":\"admin\"")))
+            .andExpect(content().string(containsString(AuthoritiesConstants.ADMIN)));
+
+        restUserMockMvc.perform(get("/api/admin/users/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getUser() throws Exception {
@@ -0,0 +1,136 @@
+package vn.com.msb.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import vn.com.msb.domain.User;
+import vn.com.msb.repository.UserRepository;
+import vn.com.msb.security.PasswordEncoderBusyException;
+import vn.com.msb.service.MailService;
+import vn.com.msb.service.UserService;
+import vn.com.msb.service.dto.AdminUserDTO;
+import vn.com.msb.service.dto.UserImportResultDTO;
+import vn.com.msb.service.dto.UserImportResultDTO.Status;
+
+/**
+ * Unit tests for the import of {@link UserResource}.
+ */
+class UserResourceTest {
+
+    private UserService userService;
+
+    private MailService mailService;
+
+    private UserResource userResource;
+
+    @BeforeEach
+    public void setup() {
+        userService = mock(UserService.class);
+        mailService = mock(MailService.class);
+        userResource = new UserResource(userService, mock(UserRepository.class), mailService, new ObjectMapper());
+    }
+
+    private static ByteArrayInputStream users(int count) {
+        StringBuilder users = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            users.append("{\"login\":\"user").append(i).append("\"}\n");
+        }
+        return new ByteArrayInputStream(users.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UserService.ImportedUsers created(List<AdminUserDTO> userDTOs, int firstRow) {
+        List<UserImportResultDTO> results = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < userDTOs.size(); i++) {
+            User user = new User();
+            user.setId((long) firstRow + i);
+            user.setLogin(userDTOs.get(i).getLogin());
+            users.add(user);
+            results.add(UserImportResultDTO.created(firstRow + i, user.getLogin(), user.getId()));
+        }
+        return new UserService.ImportedUsers(results, users);
+    }
+
+    @Test
+    void testImportRetriesAChunkOnceOnAConflict() throws Exception {
+        doThrow(new DataIntegrityViolationException("ux_user_login"))
+            .doAnswer(invocation -> created(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(userService)
+            .importUsers(anyList(), anyInt());
+
+        List<UserImportResultDTO> results = userResource.importUsers(users(2)).getBody();
+
+        assertThat(results).extracting(UserImportResultDTO::status).containsExactly(Status.CREATED, Status.CREATED);
+        verify(userService, times(2)).importUsers(anyList(), eq(1));
+        verify(mailService).sendCreationEmails(anyList());
+    }
+
+    @Test
+    void testImportReportsAChunkFailingTwiceAsConflicting() throws Exception {
+        int firstChunk = UserService.IMPORT_CHUNK_SIZE;
+        doAnswer(invocation -> created(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(userService)
+            .importUsers(anyList(), eq(1));
+        doThrow(new DataIntegrityViolationException("ux_user_login")).when(userService).importUsers(anyList(), eq(firstChunk + 1));
+
+        List<UserImportResultDTO> results = userResource.importUsers(users(firstChunk + 2)).getBody();
+
+        assertThat(results).hasSize(firstChunk + 2);
+        assertThat(results.subList(0, firstChunk)).extracting(UserImportResultDTO::status).containsOnly(Status.CREATED);
+        assertThat(results.subList(firstChunk, firstChunk + 2))
+            .extracting(UserImportResultDTO::row, UserImportResultDTO::login, UserImportResultDTO::status)
+            .containsExactly(
+                tuple(firstChunk + 1, "user" + firstChunk, Status.CONFLICT),
+                tuple(firstChunk + 2, "user" + (firstChunk + 1), Status.CONFLICT)
+            );
+        verify(userService, times(2)).importUsers(anyList(), eq(firstChunk + 1));
+        verify(mailService, times(1)).sendCreationEmails(any());
+        verify(mailService, never()).sendCreationEmail(any());
+    }
+
+    @Test
+    void testImportStopsAtAChunkWhosePasswordsCannotBeHashed() throws Exception {
+        int firstChunk = UserService.IMPORT_CHUNK_SIZE;
+        doAnswer(invocation -> created(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(userService)
+            .importUsers(anyList(), eq(1));
+        doThrow(new PasswordEncoderBusyException("Too many passwords waiting to be hashed"))
+            .when(userService)
+            .importUsers(anyList(), eq(firstChunk + 1));
+
+        ResponseEntity<List<UserImportResultDTO>> response = userResource.importUsers(users(2 * firstChunk + 1));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<UserImportResultDTO> results = response.getBody();
+        assertThat(results).hasSize(2 * firstChunk);
+        assertThat(results.subList(0, firstChunk)).extracting(UserImportResultDTO::status).containsOnly(Status.CREATED);
+        assertThat(results.subList(firstChunk, 2 * firstChunk)).extracting(UserImportResultDTO::status).containsOnly(Status.BUSY);
+        assertThat(results.get(firstChunk)).extracting(UserImportResultDTO::row, UserImportResultDTO::login).containsExactly(
+            firstChunk + 1,
+            "user" + firstChunk
+        );
+        verify(userService, times(1)).importUsers(anyList(), eq(firstChunk + 1));
+        verify(userService, never()).importUsers(anyList(), eq(2 * firstChunk + 1));
+        verify(mailService, times(1)).sendCreationEmails(any());
+    }
+}
@@ -0,0 +1,40 @@
+package vn.com.msb.web.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CsvWriter}.
+ */
+class CsvWriterTest {
+
+    private final StringWriter writer = new StringWriter();
+
+    private final CsvWriter csvWriter = new CsvWriter(writer);
+
+    @Test
+    void testWritesPlainFields() throws IOException {
+        csvWriter.writeRecord(1051L, "johndoe", null, true, Instant.parse("2026-10-18T10:00:00Z"));
+        csvWriter.writeRecord("second");
+
+        assertThat(writer).hasToString("1051,johndoe,,true,2026-10-18T10:00:00Z\r\nsecond\r\n");
+    }
+
+    @Test
+    void testQuotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        csvWriter.writeRecord("Doe, John", "John \"JD\" Doe", "line\nbreak", "carriage\rreturn");
+
+        assertThat(writer).hasToString("\"Doe, John\",\"John \"\"JD\"\" Doe\",\"line\nbreak\",\"carriage\rreturn\"\r\n");
+    }
+
+    @Test
+    void testNeutralizesFormulas() throws IOException {
+        csvWriter.writeRecord("=HYPERLINK(\"http://evil\")", "+1", "-1", "@SUM(A1)", "\tx", "a=b");
+
+        assertThat(writer).hasToString("\"'=HYPERLINK(\"\"http://evil\"\")\",'+1,'-1,'@SUM(A1),'\tx,a=b\r\n");
+    }
+}
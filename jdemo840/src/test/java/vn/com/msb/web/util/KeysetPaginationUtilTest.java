@@ -0,0 +1,115 @@
+package vn.com.msb.web.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import vn.com.msb.domain.User;
+
+/**
+ * Unit tests for {@link KeysetPaginationUtil}.
+ */
+class KeysetPaginationUtilTest {
+
+    private static final Sort SORT = Sort.by(Sort.Order.desc("lastModifiedDate"), Sort.Order.asc("firstName"), Sort.Order.asc("id"));
+
+    private static Window<String> window(Map<String, Object> lastKeys, boolean hasNext) {
+        return Window.from(List.of("first", "last"), index -> ScrollPosition.forward(index == 1 ? lastKeys : Map.of()), hasNext);
+    }
+
+    private static Map<String, Object> lastKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("lastModifiedDate", Instant.parse("2026-10-18T10:00:00Z"));
+        keys.put("firstName", null);
+        keys.put("id", 1051L);
+        return keys;
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEmptyCursorStartsAtTheInitialPosition() {
+        KeysetPaginationUtil.Cursor cursor = KeysetPaginationUtil.decode("", SORT, User.class).orElseThrow();
+
+        assertThat(cursor.sort()).isEqualTo(SORT);
+        assertThat(cursor.position().isInitial()).isTrue();
+    }
+
+    @Test
+    void testNextCursorCarriesTheSortAndTypedKeys() {
+        String next = KeysetPaginationUtil.encodeNext(SORT, window(lastKeys(), true)).orElseThrow();
+
+        KeysetPaginationUtil.Cursor cursor = KeysetPaginationUtil.decode(next, Sort.unsorted(), User.class).orElseThrow();
+
+        assertThat(cursor.sort()).isEqualTo(SORT);
+        KeysetScrollPosition position = cursor.position();
+        assertThat(position.getDirection()).isEqualTo(ScrollPosition.Direction.FORWARD);
+        assertThat(position.getKeys()).containsExactlyEntriesOf(lastKeys());
+    }
+
+    @Test
+    void testNoNextCursorAfterTheLastWindow() {
+        assertThat(KeysetPaginationUtil.encodeNext(SORT, window(lastKeys(), false))).isEmpty();
+    }
+
+    @Test
+    void testRejectsInvalidCursors() {
+        assertThat(KeysetPaginationUtil.decode("not a cursor", SORT, User.class)).isEmpty();
+        assertThat(KeysetPaginationUtil.decode(encode("[]"), SORT, User.class)).isEmpty();
+        // Unknown property
+        String unknownProperty = encode("{\"s\":[\"secret,asc\"],\"k\":{\"secret\":\"a\"}}");
+        assertThat(KeysetPaginationUtil.decode(unknownProperty, SORT, User.class)).isEmpty();
+        // Sort property without key
+        String missingKey = encode("{\"s\":[\"login,asc\",\"id,asc\"],\"k\":{\"id\":\"1\"}}");
+        assertThat(KeysetPaginationUtil.decode(missingKey, SORT, User.class)).isEmpty();
+        // Key of the wrong type
+        assertThat(KeysetPaginationUtil.decode(encode("{\"s\":[\"id,asc\"],\"k\":{\"id\":\"one\"}}"), SORT, User.class)).isEmpty();
+        assertThat(KeysetPaginationUtil.decode(encode("{\"s\":[\"id,up\"],\"k\":{\"id\":\"1\"}}"), SORT, User.class)).isEmpty();
+    }
+
+    @Test
+    void testLinkHeaderPointsToTheNextAndFirstPages() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(
+            "http://localhost/api/admin/users?sort=login,asc&size=2&cursor=abc"
+        );
+
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, SORT, window(lastKeys(), true));
+
+        String next = KeysetPaginationUtil.encodeNext(SORT, window(lastKeys(), true)).orElseThrow();
+        assertThat(headers.getFirst(HttpHeaders.LINK)).isEqualTo(
+            "<http://localhost/api/admin/users?size=2&cursor=" +
+            next +
+            ">; rel=\"next\"," +
+            "<http://localhost/api/admin/users?size=2&sort=lastModifiedDate,desc&sort=firstName,asc&sort=id,asc&cursor=>; rel=\"first\""
+        );
+    }
+
+    @Test
+    void testLinkHeaderOfTheLastPageOnlyPointsToTheFirstPage() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("http://localhost/api/users?cursor=abc");
+
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, Sort.by("id"), window(lastKeys(), false));
+
+        assertThat(headers.getFirst(HttpHeaders.LINK)).isEqualTo("<http://localhost/api/users?sort=id,asc&cursor=>; rel=\"first\"");
+    }
+
+    @Test
+    void testOnlyContainsAllowedProperties() {
+        assertThat(KeysetPaginationUtil.onlyContainsAllowedProperties(SORT, Set.of("id", "firstName", "lastModifiedDate"))).isTrue();
+        assertThat(KeysetPaginationUtil.onlyContainsAllowedProperties(SORT, Set.of("id", "firstName"))).isFalse();
+    }
+}